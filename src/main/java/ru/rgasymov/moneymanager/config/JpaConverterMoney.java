@@ -0,0 +1,20 @@
+package ru.rgasymov.moneymanager.config;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.math.BigDecimal;
+import ru.rgasymov.moneymanager.domain.Money;
+
+@Converter(autoApply = true)
+public class JpaConverterMoney implements AttributeConverter<Money, BigDecimal> {
+
+  @Override
+  public BigDecimal convertToDatabaseColumn(Money money) {
+    return money == null ? null : money.toBigDecimal();
+  }
+
+  @Override
+  public Money convertToEntityAttribute(BigDecimal dbData) {
+    return dbData == null ? null : Money.of(dbData);
+  }
+}
@@ -0,0 +1,46 @@
+package ru.rgasymov.moneymanager.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+import java.math.BigDecimal;
+import org.springframework.boot.jackson.JsonComponent;
+import ru.rgasymov.moneymanager.domain.Money;
+
+/**
+ * Writes {@link Money} as a plain decimal number, the same way {@link BigDecimal} amounts
+ * are written, so switching a field to it does not change the API.
+ */
+@JsonComponent
+public class MoneyJsonComponent {
+
+  public static class Serializer extends JsonSerializer<Money> {
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers)
+        throws IOException {
+      gen.writeNumber(value.toBigDecimal());
+    }
+  }
+
+  public static class Deserializer extends JsonDeserializer<Money> {
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      var value = p.currentToken() == JsonToken.VALUE_STRING
+          ? new BigDecimal(p.getText().trim())
+          : p.getDecimalValue();
+      try {
+        return Money.of(value);
+      } catch (ArithmeticException e) {
+        return (Money) ctxt.handleWeirdNumberValue(Money.class, value,
+            "more than %d fractional digits or too large", Money.SCALE);
+      }
+    }
+  }
+}
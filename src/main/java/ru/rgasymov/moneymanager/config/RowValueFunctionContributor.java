@@ -0,0 +1,29 @@
+package ru.rgasymov.moneymanager.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers row value comparisons of two columns for criteria queries,
+ * e.g. {@code cb.function(ROW_GREATER_THAN, Boolean.class, a, b, x, y)}
+ * is rendered as {@code (a, b) > (x, y)}. Unlike an equivalent {@code OR} of conditions
+ * the comparison is a single range of a composite index on the columns.
+ *
+ * <p>Loaded by Hibernate through {@code META-INF/services}.
+ */
+public class RowValueFunctionContributor implements FunctionContributor {
+
+  public static final String ROW_GREATER_THAN = "row_greater_than";
+  public static final String ROW_LESS_THAN = "row_less_than";
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    var booleanType = functionContributions.getTypeConfiguration()
+        .getBasicTypeRegistry()
+        .resolve(StandardBasicTypes.BOOLEAN);
+    var registry = functionContributions.getFunctionRegistry();
+    registry.registerPattern(ROW_GREATER_THAN, "((?1, ?2) > (?3, ?4))", booleanType);
+    registry.registerPattern(ROW_LESS_THAN, "((?1, ?2) < (?3, ?4))", booleanType);
+  }
+}
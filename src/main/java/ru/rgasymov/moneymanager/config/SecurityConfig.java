@@ -70,7 +70,9 @@ public class SecurityConfig {
     final var configuration = new CorsConfiguration();
     configuration.setAllowedOrigins(allowedOrigins);
     configuration.setAllowedMethods(List.of("HEAD", "GET", "POST", "PUT", "DELETE", "PATCH"));
-    configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
+    configuration.setAllowedHeaders(
+        List.of("Authorization", "Cache-Control", "Content-Type", "If-None-Match"));
+    configuration.setExposedHeaders(List.of("ETag"));
 
     final var source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,45 @@
+package ru.rgasymov.moneymanager.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.rgasymov.moneymanager.controller.AccountDataEtagInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+  private final AccountDataEtagInterceptor accountDataEtagInterceptor;
+
+  private final ObjectProvider<Jackson2ObjectMapperBuilder> jacksonObjectMapperBuilder;
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(accountDataEtagInterceptor);
+  }
+
+  /**
+   * Answers with CBOR or Smile when the client accepts them, JSON stays the default.
+   * The binary converters are appended after the JSON one, so a wildcard {@code Accept}
+   * still resolves to JSON, and replace the defaults of Spring MVC to share the Jackson
+   * settings of the application (ISO dates, non-null properties).
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+        || converter instanceof MappingJackson2SmileHttpMessageConverter);
+    converters.add(new MappingJackson2CborHttpMessageConverter(
+        jacksonObjectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+    converters.add(new MappingJackson2SmileHttpMessageConverter(
+        jacksonObjectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+  }
+}
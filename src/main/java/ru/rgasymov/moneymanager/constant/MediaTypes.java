@@ -0,0 +1,10 @@
+package ru.rgasymov.moneymanager.constant;
+
+import org.springframework.http.MediaType;
+
+public interface MediaTypes {
+
+  String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+}
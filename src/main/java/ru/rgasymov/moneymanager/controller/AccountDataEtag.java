@@ -0,0 +1,25 @@
+package ru.rgasymov.moneymanager.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read endpoint whose response depends only on the current user and data of their
+ * current account. Such responses get an ETag built from the data version of the account,
+ * and requests with a matching {@code If-None-Match} get 304 without calling the endpoint
+ * (see {@link AccountDataEtagInterceptor}).
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AccountDataEtag {
+
+  /**
+   * Whether the response also depends on the current date, e.g. marks overdue operations,
+   * so it changes at midnight without a write to the account.
+   */
+  boolean dated() default false;
+}
@@ -0,0 +1,97 @@
+package ru.rgasymov.moneymanager.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.rgasymov.moneymanager.constant.MediaTypes;
+import ru.rgasymov.moneymanager.service.AccountDataVersionService;
+import ru.rgasymov.moneymanager.service.UserService;
+
+/**
+ * Answers conditional requests to endpoints marked with {@link AccountDataEtag}.
+ *
+ * <p>The ETag consists of the current account, its data version and the last visit
+ * of the user, which changes when their profile is refreshed on login. It is checked
+ * before the endpoint is called, so a matching request costs a single lookup of the version.
+ * Responses are marked as private and to be revalidated, so browsers keep them
+ * and send {@code If-None-Match} instead of getting the no-store default.
+ * The same data is served as JSON, CBOR or Smile depending on the {@code Accept} header,
+ * so the ETag names the format and responses vary by the header.
+ * Responses of {@link AccountDataEtag#dated() dated} endpoints change with the date
+ * in the zone of the server, so their ETag names the date too.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountDataEtagInterceptor implements HandlerInterceptor {
+
+  private final UserService userService;
+
+  private final AccountDataVersionService accountDataVersionService;
+
+  @Override
+  public boolean preHandle(HttpServletRequest request,
+                           HttpServletResponse response,
+                           Object handler) {
+    var annotation = handler instanceof HandlerMethod method
+        ? method.getMethodAnnotation(AccountDataEtag.class)
+        : null;
+    if (annotation == null) {
+      return true;
+    }
+    var currentUser = userService.getCurrentUser();
+    var accountId = currentUser.getCurrentAccount().getId();
+    var lastVisit = currentUser.getLastVisit() == null
+        ? 0
+        : currentUser.getLastVisit().toEpochSecond(ZoneOffset.UTC);
+    var date = annotation.dated() ? "-" + LocalDate.now().toEpochDay() : "";
+    var etag = "\"%d-%d-%d%s%s\"".formatted(
+        accountId, accountDataVersionService.getVersion(accountId), lastVisit, date,
+        format(request));
+
+    response.setHeader(HttpHeaders.CACHE_CONTROL,
+        CacheControl.noCache().cachePrivate().getHeaderValue());
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    return !new ServletWebRequest(request, response).checkNotModified(etag);
+  }
+
+  /**
+   * Resolves the format of the response the way content negotiation does
+   * for the converters of the application (see {@code WebConfig}).
+   *
+   * @param request the request
+   * @return the suffix of the ETag, empty for JSON
+   */
+  private static String format(HttpServletRequest request) {
+    List<MediaType> accepted;
+    try {
+      accepted = MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT));
+    } catch (InvalidMediaTypeException e) {
+      return "";
+    }
+    MimeTypeUtils.sortBySpecificity(accepted);
+    for (MediaType mediaType : accepted) {
+      if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+        return "";
+      }
+      if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+        return "-cbor";
+      }
+      if (mediaType.isCompatibleWith(MediaTypes.APPLICATION_SMILE)) {
+        return "-smile";
+      }
+    }
+    return "";
+  }
+}
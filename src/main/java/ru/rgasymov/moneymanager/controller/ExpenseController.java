@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import ru.rgasymov.moneymanager.domain.dto.request.OperationBatchRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationCategoryRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
@@ -42,6 +43,14 @@ public class ExpenseController {
     return expenseService.create(dto);
   }
 
+  @PostMapping("/batch")
+  public List<OperationResponseDto> createAll(
+      @RequestBody @Valid OperationBatchRequestDto dto) {
+    log.info("# Create a batch of {} new expenses, current user: {}",
+        dto.getOperations().size(), userService.getCurrentUser());
+    return expenseService.createAll(dto.getOperations());
+  }
+
   @PutMapping("/{id}")
   public OperationResponseDto update(@PathVariable Long id,
                                      @RequestBody @Valid OperationRequestDto dto) {
@@ -56,6 +65,7 @@ public class ExpenseController {
     expenseService.delete(id);
   }
 
+  @AccountDataEtag
   @GetMapping("/categories")
   public List<OperationCategoryResponseDto> findAllCategories() {
     final var currentUser = userService.getCurrentUser();
@@ -24,6 +24,7 @@ public class HistoryController {
 
   private final HistoryService historyService;
 
+  @AccountDataEtag
   @GetMapping()
   public Page<HistoryActionDto> findAll(
       @PageableDefault(sort = {"modifiedAt"}, size = 20) Pageable pageable) {
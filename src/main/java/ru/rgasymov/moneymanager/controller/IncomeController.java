@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import ru.rgasymov.moneymanager.domain.dto.request.OperationBatchRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationCategoryRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
@@ -43,6 +44,14 @@ public class IncomeController {
     return incomeService.create(dto);
   }
 
+  @PostMapping("/batch")
+  public List<OperationResponseDto> createAll(
+      @RequestBody @Valid OperationBatchRequestDto dto) {
+    log.info("# Create a batch of {} new incomes, current user: {}",
+        dto.getOperations().size(), userService.getCurrentUser());
+    return incomeService.createAll(dto.getOperations());
+  }
+
   @PutMapping("/{id}")
   public OperationResponseDto update(@PathVariable Long id,
                                      @RequestBody @Valid OperationRequestDto dto) {
@@ -57,6 +66,7 @@ public class IncomeController {
     incomeService.delete(id);
   }
 
+  @AccountDataEtag
   @GetMapping("/categories")
   public List<OperationCategoryResponseDto> findAllCategories() {
     final var currentUser = userService.getCurrentUser();
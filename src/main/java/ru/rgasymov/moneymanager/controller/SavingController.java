@@ -1,17 +1,32 @@
 package ru.rgasymov.moneymanager.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.rgasymov.moneymanager.domain.dto.request.SavingCriteriaDto;
+import ru.rgasymov.moneymanager.domain.dto.response.CategoryTotalsVerificationDto;
+import ru.rgasymov.moneymanager.domain.dto.response.LedgerVerificationDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingColumnarResultDto;
 import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
 import ru.rgasymov.moneymanager.domain.dto.response.SearchResultDto;
+import ru.rgasymov.moneymanager.domain.dto.response.StreamEndDto;
+import ru.rgasymov.moneymanager.service.CategoryMonthTotalService;
+import ru.rgasymov.moneymanager.service.SavingReadService;
 import ru.rgasymov.moneymanager.service.SavingService;
 import ru.rgasymov.moneymanager.service.UserService;
+import ru.rgasymov.moneymanager.util.ErrorUtils;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,10 +39,100 @@ public class SavingController {
 
   private final SavingService savingService;
 
+  private final SavingReadService savingReadService;
+
+  private final CategoryMonthTotalService categoryMonthTotalService;
+
+  private final ObjectMapper objectMapper;
+
+  @AccountDataEtag(dated = true)
   @GetMapping
   public SearchResultDto<SavingResponseDto> search(@Valid SavingCriteriaDto criteria) {
     log.info("# Search for savings, criteria: {}, current user: {}", criteria,
         userService.getCurrentUser());
-    return savingService.search(criteria);
+    return savingReadService.search(criteria);
+  }
+
+  @Operation(summary = "Searches for savings and returns them in columns, "
+      + "referring to categories by index")
+  @AccountDataEtag(dated = true)
+  @GetMapping(params = "format=columnar")
+  public SavingColumnarResultDto searchColumnar(@Valid SavingCriteriaDto criteria) {
+    log.info("# Search for savings in columns, criteria: {}, current user: {}", criteria,
+        userService.getCurrentUser());
+    return savingReadService.searchColumnar(criteria);
+  }
+
+  /**
+   * Writes every found saving as a line of JSON and then a {@link StreamEndDto} line.
+   *
+   * <p>Lines are written within the read transaction of the stream, so a slow client keeps
+   * its connection until {@code saving.stream.timeout-seconds}. The status is sent with the first
+   * flushed lines, so a failure after that cannot change it: the stream is ended by
+   * an incomplete {@link StreamEndDto} instead, and a stream without the last line was cut off.
+   */
+  @Operation(summary = "Streams all found savings as newline delimited JSON, ignoring pagination. "
+      + "The last line tells whether the stream is complete")
+  @AccountDataEtag(dated = true)
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public void stream(@Valid SavingCriteriaDto criteria, HttpServletResponse response)
+      throws IOException {
+    log.info("# Stream savings, criteria: {}, current user: {}", criteria,
+        userService.getCurrentUser());
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    var out = response.getOutputStream();
+    try {
+      savingReadService.stream(criteria, saving -> writeLine(out, saving));
+    } catch (UncheckedIOException e) {
+      //The client is gone, there is nobody to tell
+      throw e;
+    } catch (RuntimeException e) {
+      if (!response.isCommitted()) {
+        //Nothing is sent yet, so the failure gets a regular error response
+        response.resetBuffer();
+        throw e;
+      }
+      ErrorUtils.logException(e, log);
+      writeLine(out, StreamEndDto.failed(ErrorUtils.getErrorsFromStack(e)));
+      return;
+    }
+    writeLine(out, StreamEndDto.completed());
+  }
+
+  private void writeLine(OutputStream out, Object value) {
+    try {
+      out.write(objectMapper.writeValueAsBytes(value));
+      out.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @GetMapping("/ledger/verification")
+  public LedgerVerificationDto verifyLedger() {
+    log.info("# Verify the savings ledger, current user: {}", userService.getCurrentUser());
+    return savingReadService.verifyLedger();
+  }
+
+  @PostMapping("/ledger/rebuild")
+  public LedgerVerificationDto rebuildLedger() {
+    var currentUser = userService.getCurrentUser();
+    log.info("# Rebuild the savings ledger, current user: {}", currentUser);
+    return savingService.rebuildLedger(currentUser.getCurrentAccount().getId());
+  }
+
+  @Operation(summary = "Compares sums of operations by category and month with the operations")
+  @GetMapping("/category-totals/verification")
+  public CategoryTotalsVerificationDto verifyCategoryTotals() {
+    log.info("# Verify category totals, current user: {}", userService.getCurrentUser());
+    return categoryMonthTotalService.verify();
+  }
+
+  @Operation(summary = "Recreates sums of operations by category and month from the operations")
+  @PostMapping("/category-totals/rebuild")
+  public CategoryTotalsVerificationDto rebuildCategoryTotals() {
+    var currentUser = userService.getCurrentUser();
+    log.info("# Rebuild category totals, current user: {}", currentUser);
+    return categoryMonthTotalService.rebuild(currentUser.getCurrentAccount().getId());
   }
 }
@@ -18,6 +18,7 @@ public class UserController {
   private final UserService userService;
 
   @Operation(summary = "Get current user")
+  @AccountDataEtag
   @GetMapping("/current")
   public UserResponseDto current() {
     return userService.getCurrentUserAsDto();
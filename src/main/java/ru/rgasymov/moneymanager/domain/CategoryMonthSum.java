@@ -0,0 +1,21 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sum of the operations of a category within a month.
+ */
+public interface CategoryMonthSum {
+
+  /**
+   * The first day of the month.
+   */
+  LocalDate getMonth();
+
+  Long getCategoryId();
+
+  String getCategoryName();
+
+  BigDecimal getTotal();
+}
@@ -0,0 +1,92 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.collections.CollectionUtils;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
+
+/**
+ * Immutable categories of an account in their display order.
+ * Shared by all readers of the account through the category cache, so it is never changed:
+ * flags of a request are kept apart from it (see {@link CheckedCategories}).
+ */
+public final class CategorySnapshot {
+
+  private final long[] ids;
+  private final String[] names;
+  private final Map<Long, Integer> indexById;
+
+  private CategorySnapshot(long[] ids, String[] names, Map<Long, Integer> indexById) {
+    this.ids = ids;
+    this.names = names;
+    this.indexById = indexById;
+  }
+
+  /**
+   * Takes ids and names of the categories.
+   *
+   * @param categories the categories in their display order
+   * @return the snapshot
+   */
+  public static CategorySnapshot of(List<OperationCategoryResponseDto> categories) {
+    var size = categories.size();
+    var ids = new long[size];
+    var names = new String[size];
+    var indexById = new HashMap<Long, Integer>(size * 4 / 3 + 1);
+    for (int i = 0; i < size; i++) {
+      var category = categories.get(i);
+      ids[i] = category.getId();
+      names[i] = category.getName();
+      indexById.put(category.getId(), i);
+    }
+    return new CategorySnapshot(ids, names, Map.copyOf(indexById));
+  }
+
+  /**
+   * Returns the key of the snapshot of the account in a category cache.
+   *
+   * @param accountId the account
+   * @return the key, distinct from keys of other entries of the cache
+   */
+  public static Object cacheKey(Long accountId) {
+    return new CacheKey(accountId);
+  }
+
+  /**
+   * Marks the categories of the ids as checked.
+   *
+   * @param checkedIds ids of the checked categories, all categories are checked if empty
+   * @return the categories with the flags, the snapshot stays unchanged
+   */
+  public CheckedCategories withChecked(List<Long> checkedIds) {
+    var checked = new BitSet(ids.length);
+    if (CollectionUtils.isEmpty(checkedIds)) {
+      checked.set(0, ids.length);
+    } else {
+      for (Long id : checkedIds) {
+        var index = indexById.get(id);
+        if (index != null) {
+          checked.set(index);
+        }
+      }
+    }
+    return new CheckedCategories(this, checked);
+  }
+
+  int size() {
+    return ids.length;
+  }
+
+  long id(int index) {
+    return ids[index];
+  }
+
+  String name(int index) {
+    return names[index];
+  }
+
+  private record CacheKey(Long accountId) {
+  }
+}
@@ -0,0 +1,19 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Difference between stored category totals of an account and the ones recomputed
+ * from its operations.
+ */
+public interface CategoryTotalsDrift {
+
+  Long getCheckedTotals();
+
+  Long getDriftedTotals();
+
+  BigDecimal getMaxDrift();
+
+  LocalDate getFirstDriftMonth();
+}
@@ -0,0 +1,51 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
+
+/**
+ * Categories of an account with the flags of a single request.
+ *
+ * <p>An unmodifiable list over a shared {@link CategorySnapshot}, the flags are held
+ * in a bit set of the request. Elements are built on access, so category DTOs are created
+ * only when the list is serialized and are never shared between requests.
+ */
+public final class CheckedCategories extends AbstractList<OperationCategoryResponseDto>
+    implements RandomAccess {
+
+  private final CategorySnapshot snapshot;
+  private final BitSet checked;
+
+  CheckedCategories(CategorySnapshot snapshot, BitSet checked) {
+    this.snapshot = snapshot;
+    this.checked = checked;
+  }
+
+  @Override
+  public OperationCategoryResponseDto get(int index) {
+    return OperationCategoryResponseDto.builder()
+        .id(snapshot.id(index))
+        .name(snapshot.name(index))
+        .isChecked(checked.get(index))
+        .build();
+  }
+
+  @Override
+  public int size() {
+    return snapshot.size();
+  }
+
+  /**
+   * Returns ids of the checked categories without building their DTOs.
+   *
+   * @return the ids in the display order of the categories
+   */
+  public List<Long> checkedIds() {
+    return checked.stream()
+        .mapToObj(snapshot::id)
+        .toList();
+  }
+}
@@ -1,6 +1,10 @@
 package ru.rgasymov.moneymanager.domain;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import ru.rgasymov.moneymanager.domain.dto.response.AccountResponseDto;
 import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
 import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
@@ -9,5 +13,13 @@ public record FileExportData(
     AccountResponseDto account,
     List<SavingResponseDto> savings,
     List<OperationCategoryResponseDto> incomeCategories,
-    List<OperationCategoryResponseDto> expenseCategories) {
+    List<OperationCategoryResponseDto> expenseCategories,
+    NavigableMap<LocalDate, BigDecimal> closingBalances) {
+
+  public FileExportData(AccountResponseDto account,
+                        List<SavingResponseDto> savings,
+                        List<OperationCategoryResponseDto> incomeCategories,
+                        List<OperationCategoryResponseDto> expenseCategories) {
+    this(account, savings, incomeCategories, expenseCategories, new TreeMap<>());
+  }
 }
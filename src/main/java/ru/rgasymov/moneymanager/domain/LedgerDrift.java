@@ -0,0 +1,20 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Difference between stored savings of an account and the ones recomputed from its operations.
+ */
+public interface LedgerDrift {
+
+  Long getCheckedSavings();
+
+  Long getDeltaDrifts();
+
+  Long getValueDrifts();
+
+  BigDecimal getMaxValueDrift();
+
+  LocalDate getFirstDriftDate();
+}
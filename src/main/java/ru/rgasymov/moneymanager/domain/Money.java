@@ -0,0 +1,124 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable amount of money kept as a count of minor units in a {@code long}.
+ *
+ * <p>Amounts of every currency are stored with {@value #SCALE} fractional digits
+ * ({@code numeric(102, 2)} columns), so a minor unit is a hundredth of the account currency
+ * whatever the currency is. Sums of minor units are exact as long as they fit a {@code long},
+ * an overflow throws {@link ArithmeticException} instead of wrapping around.
+ *
+ * <p>Adding amounts is a single {@code long} addition, while {@link BigDecimal#add} allocates
+ * a new decimal every time. Hot loops accumulate {@link #toMinorUnits(BigDecimal)}
+ * in a plain {@code long} and wrap the result once, allocating nothing per value.
+ */
+public final class Money implements Comparable<Money> {
+
+  public static final int SCALE = 2;
+
+  public static final Money ZERO = new Money(0);
+
+  private static final long MINOR_UNITS_PER_UNIT = 100;
+
+  /**
+   * Any decimal of up to 15 significant digits survives a round trip through a double.
+   */
+  private static final int EXACT_DOUBLE_DIGITS = 15;
+
+  private final long minorUnits;
+
+  private Money(long minorUnits) {
+    this.minorUnits = minorUnits;
+  }
+
+  public static Money ofMinorUnits(long minorUnits) {
+    return minorUnits == 0 ? ZERO : new Money(minorUnits);
+  }
+
+  /**
+   * Converts the decimal amount.
+   *
+   * @param value the amount with at most {@value #SCALE} fractional digits
+   * @return the amount
+   * @throws ArithmeticException if the amount has more fractional digits or does not fit
+   */
+  public static Money of(BigDecimal value) {
+    return ofMinorUnits(toMinorUnits(value));
+  }
+
+  /**
+   * Converts the decimal amount to minor units.
+   *
+   * <p>Amounts of up to {@value #EXACT_DOUBLE_DIGITS} digits in minor units, which are
+   * all the amounts of the application in practice, are converted through
+   * {@link BigDecimal#doubleValue()} that does not allocate for them. Other amounts
+   * are converted exactly through their unscaled value.
+   *
+   * @param value the amount with at most {@value #SCALE} fractional digits
+   * @return the amount in minor units
+   * @throws ArithmeticException if the amount has more fractional digits or does not fit
+   */
+  public static long toMinorUnits(BigDecimal value) {
+    var scale = value.scale();
+    if (scale >= 0 && scale <= SCALE
+        && value.precision() + SCALE - scale <= EXACT_DOUBLE_DIGITS) {
+      return Math.round(value.doubleValue() * MINOR_UNITS_PER_UNIT);
+    }
+    return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+  }
+
+  public long minorUnits() {
+    return minorUnits;
+  }
+
+  public Money plus(Money other) {
+    return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  public Money minus(Money other) {
+    return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+  }
+
+  public Money negate() {
+    return ofMinorUnits(Math.negateExact(minorUnits));
+  }
+
+  public int signum() {
+    return Long.signum(minorUnits);
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  /**
+   * Returns the nearest double, the same one {@link BigDecimal#doubleValue()} returns
+   * for the amount, since minor units below 2<sup>53</sup> and their divisor are exact doubles.
+   */
+  public double toDouble() {
+    return (double) minorUnits / MINOR_UNITS_PER_UNIT;
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || o instanceof Money money && minorUnits == money.minorUnits;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
@@ -0,0 +1,13 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Running balance of a saving derived from the per-day deltas of its account.
+ */
+public interface SavingBalance {
+
+  Long getId();
+
+  BigDecimal getBalance();
+}
@@ -0,0 +1,62 @@
+package ru.rgasymov.moneymanager.domain;
+
+import jakarta.validation.ValidationException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.SavingFieldToSort;
+
+/**
+ * Position of the last returned saving in a keyset paginated search.
+ * Travels to clients as an opaque token.
+ *
+ * @param sortBy the field the search is sorted by
+ * @param date   date of the saving, set when sorted by date
+ * @param value  value of the saving, set when sorted by value
+ * @param id     id of the saving breaking ties of equal values
+ */
+public record SavingCursor(SavingFieldToSort sortBy, LocalDate date, BigDecimal value, Long id) {
+
+  private static final String SEPARATOR = "|";
+
+  public static SavingCursor of(Saving saving, SavingFieldToSort sortBy) {
+    return sortBy == SavingFieldToSort.DATE
+        ? new SavingCursor(sortBy, saving.getDate(), null, saving.getId())
+        : new SavingCursor(sortBy, null, saving.getValue(), saving.getId());
+  }
+
+  /**
+   * Restores the cursor from a token returned by {@link #encode()}.
+   *
+   * @param token  the token
+   * @param sortBy the field the search is sorted by
+   * @return the cursor
+   * @throws ValidationException if the token is malformed or made for another sorting
+   */
+  public static SavingCursor decode(String token, SavingFieldToSort sortBy) {
+    try {
+      var parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+          .split("\\" + SEPARATOR);
+      var tokenSortBy = SavingFieldToSort.valueOf(parts[0]);
+      if (tokenSortBy != sortBy || parts.length != 3) {
+        throw new ValidationException("Cursor does not match the sorting of the search");
+      }
+      var id = Long.valueOf(parts[2]);
+      return sortBy == SavingFieldToSort.DATE
+          ? new SavingCursor(sortBy, LocalDate.parse(parts[1]), null, id)
+          : new SavingCursor(sortBy, null, new BigDecimal(parts[1]), id);
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw new ValidationException("Malformed cursor: " + token);
+    }
+  }
+
+  public String encode() {
+    var key = sortBy == SavingFieldToSort.DATE ? date.toString() : value.toPlainString();
+    var raw = sortBy.name() + SEPARATOR + key + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,29 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+
+/**
+ * Operation of a saving read as a flat row, without hydrating entities.
+ *
+ * @param savingId     id of the saving of the operation
+ * @param type         income or expense
+ * @param id           id of the operation
+ * @param categoryId   id of the category of the operation
+ * @param categoryName name of the category of the operation
+ * @param date         date of the operation
+ * @param description  description of the operation
+ * @param value        value of the operation
+ * @param planned      whether the operation is planned
+ */
+public record SavingOperationRow(Long savingId,
+                                 OperationType type,
+                                 Long id,
+                                 Long categoryId,
+                                 String categoryName,
+                                 LocalDate date,
+                                 String description,
+                                 BigDecimal value,
+                                 boolean planned) {
+}
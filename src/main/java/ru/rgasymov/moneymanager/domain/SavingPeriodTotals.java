@@ -0,0 +1,26 @@
+package ru.rgasymov.moneymanager.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Savings of a period aggregated by the database.
+ *
+ * @param periodStart      the first day of the period
+ * @param lastSavingId     id of the latest saving of the period
+ * @param lastDate         date of the latest saving of the period
+ * @param balance          balance at the end of the period
+ * @param incomeTotals     sums of incomes of the period by category name
+ * @param expenseTotals    sums of expenses of the period by category name
+ * @param savingIds        ids of the found savings of the period if requested, empty otherwise
+ */
+public record SavingPeriodTotals(LocalDate periodStart,
+                                 Long lastSavingId,
+                                 LocalDate lastDate,
+                                 BigDecimal balance,
+                                 Map<String, BigDecimal> incomeTotals,
+                                 Map<String, BigDecimal> expenseTotals,
+                                 List<Long> savingIds) {
+}
@@ -0,0 +1,21 @@
+package ru.rgasymov.moneymanager.domain.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OperationBatchRequestDto {
+
+  @NotEmpty
+  @Size(max = 1000)
+  private List<@Valid OperationRequestDto> operations;
+}
@@ -36,8 +36,19 @@ public class SavingCriteriaDto {
   @Positive
   private Integer pageSize = 100;
 
+  @Parameter(description = "Enables keyset pagination instead of page numbers. "
+      + "Empty for the first page, then 'nextCursor' of the previous page")
+  private String after;
+
+  @Parameter(description = "Whether to count all found savings in the keyset pagination")
+  private boolean withTotal;
+
   private Period groupBy = Period.DAY;
 
+  @Parameter(description = "Whether periods longer than a day carry only sums of operations "
+      + "by category, without the operations themselves")
+  private boolean sumsOnly;
+
   private List<Long> incomeCategoryIds = List.of();
 
   private List<Long> expenseCategoryIds = List.of();
@@ -51,6 +62,10 @@ public class SavingCriteriaDto {
     this.from = from;
   }
 
+  public boolean isKeyset() {
+    return after != null;
+  }
+
   public void setTo(LocalDate to) {
     if (from != null && from.isAfter(to)) {
       throw new ValidationException("Date 'to' cannot be before 'from'");
@@ -0,0 +1,24 @@
+package ru.rgasymov.moneymanager.domain.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Sums of operations by category in columns, referring to savings and categories by index.
+ */
+@Schema
+@Data
+@SuperBuilder
+@NoArgsConstructor
+public class CategorySumColumnsDto {
+
+  private int[] savings;
+
+  private int[] categories;
+
+  private List<BigDecimal> sums;
+}
@@ -0,0 +1,36 @@
+package ru.rgasymov.moneymanager.domain.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CategoryTotalsVerificationDto {
+
+  private long checkedTotals;
+
+  /**
+   * Totals whose sum or amount of operations differs from the recomputed one,
+   * including missing and redundant totals.
+   */
+  private long driftedTotals;
+
+  private BigDecimal maxDrift;
+
+  private LocalDate firstDriftMonth;
+
+  /**
+   * Totals created by the rebuild, absent for a verification.
+   */
+  private Integer rebuiltTotals;
+}
@@ -0,0 +1,44 @@
+package ru.rgasymov.moneymanager.domain.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.rgasymov.moneymanager.domain.enums.LedgerMode;
+
+@Schema
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LedgerVerificationDto {
+
+  private LedgerMode mode;
+
+  private long checkedSavings;
+
+  /**
+   * Savings whose delta differs from the net of their operations.
+   */
+  private long deltaDrifts;
+
+  /**
+   * Savings whose stored balance differs from the recomputed one.
+   * Always zero in the {@link LedgerMode#DELTA} mode where stored balances are not maintained.
+   */
+  private long valueDrifts;
+
+  private BigDecimal maxValueDrift;
+
+  private LocalDate firstDriftDate;
+
+  /**
+   * Savings rewritten by the rebuild, absent for a verification.
+   */
+  private Integer rebuiltSavings;
+}
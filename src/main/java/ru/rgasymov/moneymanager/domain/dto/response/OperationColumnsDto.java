@@ -0,0 +1,33 @@
+package ru.rgasymov.moneymanager.domain.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Operations of savings in columns. An operation refers to its saving and category by index,
+ * its date is the date of the saving.
+ */
+@Schema
+@Data
+@SuperBuilder
+@NoArgsConstructor
+public class OperationColumnsDto {
+
+  private int[] savings;
+
+  private long[] ids;
+
+  private int[] categories;
+
+  private List<String> descriptions;
+
+  private List<BigDecimal> values;
+
+  private boolean[] planned;
+
+  private boolean[] overdue;
+}
@@ -0,0 +1,76 @@
+package ru.rgasymov.moneymanager.domain.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+import ru.rgasymov.moneymanager.constant.DateTimeFormats;
+import ru.rgasymov.moneymanager.domain.enums.Period;
+
+/**
+ * Found savings in columns: the i-th saving is made of the i-th elements of the arrays.
+ * Categories are listed once and referenced by their index in
+ * {@link #incomeCategories} or {@link #expenseCategories}.
+ */
+@Schema
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SavingColumnarResultDto {
+
+  private Long totalElements;
+
+  /**
+   * Token of the next page in the keyset pagination, absent on the last page.
+   */
+  private String nextCursor;
+
+  private Period period;
+
+  private List<OperationCategoryResponseDto> incomeCategories;
+
+  private List<OperationCategoryResponseDto> expenseCategories;
+
+  private long[] ids;
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING,
+      pattern = DateTimeFormats.COMMON_DATE_FORMAT)
+  private List<LocalDate> dates;
+
+  /**
+   * Balances of the savings.
+   */
+  private List<BigDecimal> values;
+
+  private List<BigDecimal> incomesSum;
+
+  private List<BigDecimal> expensesSum;
+
+  private boolean[] overdue;
+
+  /**
+   * Incomes of the savings, set for days only.
+   */
+  private OperationColumnsDto incomes;
+
+  /**
+   * Expenses of the savings, set for days only.
+   */
+  private OperationColumnsDto expenses;
+
+  /**
+   * Sums of incomes by category, set instead of operations for periods longer than a day.
+   */
+  private CategorySumColumnsDto incomesSumByCategory;
+
+  /**
+   * Sums of expenses by category, set instead of operations for periods longer than a day.
+   */
+  private CategorySumColumnsDto expensesSumByCategory;
+}
@@ -54,4 +54,18 @@ public class SavingResponseDto {
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
   private Map<String, List<OperationResponseDto>> expensesByCategory;
+
+  /**
+   * Sums of incomes by category name. Set instead of operations for periods longer than a day.
+   */
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private Map<String, BigDecimal> incomesSumByCategory;
+
+  /**
+   * Sums of expenses by category name. Set instead of operations for periods longer than a day.
+   */
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private Map<String, BigDecimal> expensesSumByCategory;
 }
@@ -23,4 +23,9 @@ public class SavingSearchResultDto extends SearchResultDto<SavingResponseDto> {
 
   @Builder.Default
   private List<OperationCategoryResponseDto> expenseCategories = new ArrayList<>();
+
+  /**
+   * Token of the next page in the keyset pagination, absent on the last page.
+   */
+  private String nextCursor;
 }
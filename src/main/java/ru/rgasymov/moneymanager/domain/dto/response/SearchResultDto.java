@@ -16,5 +16,5 @@ public class SearchResultDto<T> {
 
   private List<T> result;
 
-  private long totalElements;
+  private Long totalElements;
 }
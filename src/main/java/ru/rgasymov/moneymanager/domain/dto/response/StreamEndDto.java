@@ -0,0 +1,32 @@
+package ru.rgasymov.moneymanager.domain.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * The last line of a newline delimited JSON stream.
+ * A stream without it was cut off, e.g. by the connection,
+ * errors tell why a stream stopped early.
+ */
+@Schema(description = "The last line of a stream, tells whether all items were written")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record StreamEndDto(
+    @JsonProperty
+    boolean complete,
+
+    @JsonProperty
+    List<ErrorDto> errors
+) {
+
+  public static StreamEndDto completed() {
+    return new StreamEndDto(true, null);
+  }
+
+  public static StreamEndDto failed(List<ErrorDto> errors) {
+    return new StreamEndDto(false, errors);
+  }
+}
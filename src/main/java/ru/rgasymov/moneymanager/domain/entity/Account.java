@@ -1,5 +1,6 @@
 package ru.rgasymov.moneymanager.domain.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -12,6 +13,8 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import java.io.Serial;
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -43,6 +46,24 @@ public class Account implements Serializable {
 
   private String currency;
 
+  /**
+   * Version of data of the account, changed only by
+   * {@link ru.rgasymov.moneymanager.repository.AccountRepository#incrementDataVersion(Long)}.
+   */
+  @Column(name = "data_version", insertable = false, updatable = false)
+  private Long dataVersion;
+
+  /**
+   * Balance of the account before its first operation, added to the saving of
+   * {@link #openingDate}. Changed only by
+   * {@link ru.rgasymov.moneymanager.repository.AccountRepository#updateOpeningBalance}.
+   */
+  @Column(name = "opening_balance", insertable = false, updatable = false)
+  private BigDecimal openingBalance;
+
+  @Column(name = "opening_date", insertable = false, updatable = false)
+  private LocalDate openingDate;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @Fetch(FetchMode.JOIN)
   @ToString.Exclude
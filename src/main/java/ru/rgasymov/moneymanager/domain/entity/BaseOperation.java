@@ -19,8 +19,12 @@ import lombok.experimental.SuperBuilder;
 @SuperBuilder
 public abstract class BaseOperation {
 
+  /**
+   * Taken from the sequence of the entity ({@code income_seq}, {@code expense_seq})
+   * in blocks of 50 ids, so inserts of many operations are sent in batches.
+   */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @Column(name = "account_id")
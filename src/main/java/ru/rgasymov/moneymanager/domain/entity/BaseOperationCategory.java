@@ -19,7 +19,7 @@ import lombok.experimental.SuperBuilder;
 public abstract class BaseOperationCategory {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @Column(name = "account_id")
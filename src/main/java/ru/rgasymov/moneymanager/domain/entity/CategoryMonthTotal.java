@@ -0,0 +1,54 @@
+package ru.rgasymov.moneymanager.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import ru.rgasymov.moneymanager.domain.Money;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+
+/**
+ * Sum and count of the operations of a category within a month.
+ * Maintained by every write of operations, so reports and totals read a row per category
+ * and month instead of all operations of the range.
+ */
+@Entity
+@Table(name = "category_month_totals")
+@Getter
+@Setter
+@NoArgsConstructor
+@SuperBuilder
+public class CategoryMonthTotal {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "account_id")
+  private Long accountId;
+
+  /**
+   * The first day of the month.
+   */
+  private LocalDate month;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "operation_type")
+  private OperationType operationType;
+
+  @Column(name = "category_id")
+  private Long categoryId;
+
+  private Money total;
+
+  @Column(name = "operations_count")
+  private Long operationsCount;
+}
@@ -34,7 +34,7 @@ import ru.rgasymov.moneymanager.domain.enums.OperationType;
 public class HistoryAction {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
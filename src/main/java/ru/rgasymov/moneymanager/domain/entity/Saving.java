@@ -31,7 +31,7 @@ import org.hibernate.annotations.FetchMode;
 @SuperBuilder
 public class Saving {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @Column(name = "account_id")
@@ -42,6 +42,12 @@ public class Saving {
   @Column(name = "value_")
   private BigDecimal value;
 
+  /**
+   * Net change of the balance made on this date (incomes minus expenses plus initial savings).
+   */
+  @Builder.Default
+  private BigDecimal delta = BigDecimal.ZERO;
+
   @Builder.Default
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
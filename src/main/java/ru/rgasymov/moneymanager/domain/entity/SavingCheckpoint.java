@@ -0,0 +1,41 @@
+package ru.rgasymov.moneymanager.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Closing balance of an account at the end of a month.
+ * A balance of any date is the previous checkpoint plus deltas of savings inside its month.
+ */
+@Entity
+@Table(name = "saving_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@SuperBuilder
+public class SavingCheckpoint {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "account_id")
+  private Long accountId;
+
+  /**
+   * The last day of the month.
+   */
+  @Column(name = "closing_date")
+  private LocalDate closingDate;
+
+  private BigDecimal balance;
+}
@@ -0,0 +1,16 @@
+package ru.rgasymov.moneymanager.domain.enums;
+
+/**
+ * Defines how saving balances are maintained when operations change.
+ */
+public enum LedgerMode {
+  /**
+   * Every write shifts {@code value_} of all later savings, so stored balances are always final.
+   */
+  CASCADE,
+  /**
+   * Every write touches only the per-day {@code delta} of its own saving,
+   * running balances are derived from deltas on read.
+   */
+  DELTA
+}
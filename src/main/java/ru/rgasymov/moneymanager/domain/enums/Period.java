@@ -1,20 +1,21 @@
 package ru.rgasymov.moneymanager.domain.enums;
 
-import static ru.rgasymov.moneymanager.constant.DateTimeFormats.COMMON_DATE_FORMAT;
-import static ru.rgasymov.moneymanager.constant.DateTimeFormats.MONTH_FORMAT;
-import static ru.rgasymov.moneymanager.constant.DateTimeFormats.YEAR_FORMAT;
-
 import lombok.Getter;
 
 @Getter
 public enum Period {
-  DAY(COMMON_DATE_FORMAT),
-  MONTH(MONTH_FORMAT),
-  YEAR(YEAR_FORMAT);
+  DAY("day"),
+  WEEK("week"),
+  MONTH("month"),
+  QUARTER("quarter"),
+  YEAR("year");
 
-  private final String pattern;
+  /**
+   * Field of PostgreSQL {@code date_trunc} truncating a date to the start of the period.
+   */
+  private final String truncField;
 
-  Period(String pattern) {
-    this.pattern = pattern;
+  Period(String truncField) {
+    this.truncField = truncField;
   }
 }
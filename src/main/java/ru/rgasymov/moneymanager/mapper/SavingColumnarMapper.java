@@ -0,0 +1,219 @@
+package ru.rgasymov.moneymanager.mapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+import ru.rgasymov.moneymanager.domain.dto.response.CategorySumColumnsDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationColumnsDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingColumnarResultDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingSearchResultDto;
+import ru.rgasymov.moneymanager.domain.enums.Period;
+
+/**
+ * Lays found savings out in columns (see {@link SavingColumnarResultDto}).
+ */
+@Component
+public class SavingColumnarMapper {
+
+  /**
+   * Maps the search result keeping the order of the savings.
+   *
+   * @param searchResult the found savings with the categories of the account
+   * @param period       the period the savings are grouped by
+   * @param sumsOnly     whether periods longer than a day carry only sums of operations
+   * @return the columns of the savings
+   */
+  public SavingColumnarResultDto toColumnar(SavingSearchResultDto searchResult,
+                                            Period period,
+                                            boolean sumsOnly) {
+    var savings = searchResult.getResult();
+    var size = savings.size();
+    var ids = new long[size];
+    var dates = new ArrayList<LocalDate>(size);
+    var values = new ArrayList<BigDecimal>(size);
+    var incomesSum = new ArrayList<BigDecimal>(size);
+    var expensesSum = new ArrayList<BigDecimal>(size);
+    var overdue = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      var saving = savings.get(i);
+      ids[i] = saving.getId();
+      dates.add(saving.getDate());
+      values.add(saving.getValue());
+      incomesSum.add(saving.getIncomesSum());
+      expensesSum.add(saving.getExpensesSum());
+      overdue[i] = saving.isOverdue();
+    }
+
+    var incomeCategories = new CategoryDictionary(searchResult.getIncomeCategories());
+    var expenseCategories = new CategoryDictionary(searchResult.getExpenseCategories());
+    var result = SavingColumnarResultDto.builder()
+        .totalElements(searchResult.getTotalElements())
+        .nextCursor(searchResult.getNextCursor())
+        .period(period)
+        .ids(ids)
+        .dates(dates)
+        .values(values)
+        .incomesSum(incomesSum)
+        .expensesSum(expensesSum)
+        .overdue(overdue);
+    if (period == Period.DAY || !sumsOnly) {
+      result
+          .incomes(toOperationColumns(
+              savings, SavingResponseDto::getIncomesByCategory, incomeCategories))
+          .expenses(toOperationColumns(
+              savings, SavingResponseDto::getExpensesByCategory, expenseCategories));
+    }
+    if (period != Period.DAY) {
+      result
+          .incomesSumByCategory(toSumColumns(
+              savings, SavingResponseDto::getIncomesSumByCategory, incomeCategories))
+          .expensesSumByCategory(toSumColumns(
+              savings, SavingResponseDto::getExpensesSumByCategory, expenseCategories));
+    }
+    return result
+        .incomeCategories(incomeCategories.categories)
+        .expenseCategories(expenseCategories.categories)
+        .build();
+  }
+
+  private static OperationColumnsDto toOperationColumns(
+      List<SavingResponseDto> savings,
+      Function<SavingResponseDto, Map<String, List<OperationResponseDto>>> operationsOf,
+      CategoryDictionary categories) {
+    var size = 0;
+    for (SavingResponseDto saving : savings) {
+      var byCategory = operationsOf.apply(saving);
+      if (byCategory != null) {
+        for (List<OperationResponseDto> operations : byCategory.values()) {
+          size += operations.size();
+        }
+      }
+    }
+
+    var savingIndexes = new int[size];
+    var ids = new long[size];
+    var categoryIndexes = new int[size];
+    var descriptions = new ArrayList<String>(size);
+    var values = new ArrayList<BigDecimal>(size);
+    var planned = new boolean[size];
+    var overdue = new boolean[size];
+    var row = 0;
+    for (int i = 0; i < savings.size(); i++) {
+      var byCategory = operationsOf.apply(savings.get(i));
+      if (byCategory == null) {
+        continue;
+      }
+      for (List<OperationResponseDto> operations : byCategory.values()) {
+        for (OperationResponseDto operation : operations) {
+          savingIndexes[row] = i;
+          ids[row] = operation.getId();
+          categoryIndexes[row] = categories.indexOf(operation.getCategory());
+          descriptions.add(operation.getDescription());
+          values.add(operation.getValue());
+          planned[row] = operation.isPlanned();
+          overdue[row] = operation.isOverdue();
+          row++;
+        }
+      }
+    }
+    return OperationColumnsDto.builder()
+        .savings(savingIndexes)
+        .ids(ids)
+        .categories(categoryIndexes)
+        .descriptions(descriptions)
+        .values(values)
+        .planned(planned)
+        .overdue(overdue)
+        .build();
+  }
+
+  private static CategorySumColumnsDto toSumColumns(
+      List<SavingResponseDto> savings,
+      Function<SavingResponseDto, Map<String, BigDecimal>> sumsOf,
+      CategoryDictionary categories) {
+    var size = 0;
+    for (SavingResponseDto saving : savings) {
+      var byCategory = sumsOf.apply(saving);
+      if (byCategory != null) {
+        size += byCategory.size();
+      }
+    }
+
+    var savingIndexes = new int[size];
+    var categoryIndexes = new int[size];
+    var sums = new ArrayList<BigDecimal>(size);
+    var row = 0;
+    for (int i = 0; i < savings.size(); i++) {
+      var byCategory = sumsOf.apply(savings.get(i));
+      if (byCategory == null) {
+        continue;
+      }
+      for (Map.Entry<String, BigDecimal> sum : byCategory.entrySet()) {
+        savingIndexes[row] = i;
+        categoryIndexes[row] = categories.indexOf(sum.getKey());
+        sums.add(sum.getValue());
+        row++;
+      }
+    }
+    return CategorySumColumnsDto.builder()
+        .savings(savingIndexes)
+        .categories(categoryIndexes)
+        .sums(sums)
+        .build();
+  }
+
+  /**
+   * Categories of the account in their display order, indexed by id and by name,
+   * which is unique within the account. Categories missing from the list are appended
+   * to it unchecked, so every operation can refer to its category.
+   */
+  private static final class CategoryDictionary {
+
+    private final List<OperationCategoryResponseDto> categories;
+    private final Map<Long, Integer> indexById;
+    private final Map<String, Integer> indexByName;
+
+    private CategoryDictionary(List<OperationCategoryResponseDto> categories) {
+      this.categories = new ArrayList<>(categories);
+      this.indexById = new HashMap<>(categories.size() * 4 / 3 + 1);
+      this.indexByName = new HashMap<>(categories.size() * 4 / 3 + 1);
+      for (int i = 0; i < this.categories.size(); i++) {
+        var category = this.categories.get(i);
+        indexById.put(category.getId(), i);
+        indexByName.put(category.getName(), i);
+      }
+    }
+
+    private int indexOf(OperationCategoryResponseDto category) {
+      var index = indexById.get(category.getId());
+      return index != null ? index : add(category.getId(), category.getName());
+    }
+
+    private int indexOf(String name) {
+      var index = indexByName.get(name);
+      return index != null ? index : add(null, name);
+    }
+
+    private int add(Long id, String name) {
+      var index = categories.size();
+      categories.add(OperationCategoryResponseDto.builder()
+          .id(id)
+          .name(name)
+          .isChecked(false)
+          .build());
+      if (id != null) {
+        indexById.put(id, index);
+      }
+      indexByName.put(name, index);
+      return index;
+    }
+  }
+}
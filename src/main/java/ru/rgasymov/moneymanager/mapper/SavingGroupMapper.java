@@ -1,79 +1,86 @@
 package ru.rgasymov.moneymanager.mapper;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
+import ru.rgasymov.moneymanager.domain.Money;
+import ru.rgasymov.moneymanager.domain.SavingOperationRow;
+import ru.rgasymov.moneymanager.domain.SavingPeriodTotals;
 import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
-import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
 import ru.rgasymov.moneymanager.domain.enums.Period;
 
 @Component
 @RequiredArgsConstructor
 public class SavingGroupMapper {
-  private final SavingMapper delegate;
 
-  public List<SavingResponseDto> toGroupDtos(List<Saving> entities, Period period) {
-    List<SavingResponseDto> dtoList = delegate.toDtos(entities);
-    if (period == Period.DAY) {
-      return dtoList;
-    }
-
-    Map<String, SavingResponseDto> temp = new LinkedHashMap<>();
-    for (SavingResponseDto dto : dtoList) {
-      LocalDate date = dto.getDate();
-      String partOfDate = date.format(DateTimeFormatter.ofPattern(period.getPattern()));
+  private final SavingRowMapper savingRowMapper;
 
-      SavingResponseDto savingGroup = SavingResponseDto
+  /**
+   * Maps periods summed by the database.
+   *
+   * @param periods    the periods with their sums
+   * @param period     the period the savings are grouped by
+   * @param sumsOnly   whether the periods carry only sums of operations by category
+   * @param operations operations of savings of the periods, ignored if only sums are requested
+   * @return the DTOs of the periods
+   */
+  public List<SavingResponseDto> toGroupDtos(List<SavingPeriodTotals> periods,
+                                             Period period,
+                                             boolean sumsOnly,
+                                             List<SavingOperationRow> operations) {
+    var dtoList = new ArrayList<SavingResponseDto>(periods.size());
+    var dtosBySavingId = new HashMap<Long, SavingResponseDto>();
+    for (SavingPeriodTotals totals : periods) {
+      var dto = SavingResponseDto
           .builder()
-          .id(dto.getId())
-          .date(date)
-          .value(dto.getValue())
+          .id(totals.lastSavingId())
+          .date(totals.lastDate())
+          .value(totals.balance())
           .period(period)
-          .expensesSum(dto.getExpensesSum())
-          .incomesSum(dto.getIncomesSum())
-          .expensesByCategory(dto.getExpensesByCategory())
-          .incomesByCategory(dto.getIncomesByCategory())
+          .incomesSum(sum(totals.incomeTotals()))
+          .expensesSum(sum(totals.expenseTotals()))
+          .incomesSumByCategory(totals.incomeTotals())
+          .expensesSumByCategory(totals.expenseTotals())
           .build();
+      if (!sumsOnly) {
+        dto.setIncomesByCategory(new HashMap<>());
+        dto.setExpensesByCategory(new HashMap<>());
+        totals.savingIds().forEach(savingId -> dtosBySavingId.put(savingId, dto));
+      }
+      dtoList.add(dto);
+    }
+    if (sumsOnly) {
+      return dtoList;
+    }
 
-      temp.merge(partOfDate, savingGroup,
-          (oldValue, newValue) -> {
-            if (newValue.getDate().isAfter(oldValue.getDate())) {
-              oldValue.setId(newValue.getId());
-              oldValue.setDate(newValue.getDate());
-              oldValue.setValue(newValue.getValue());
-            }
-            oldValue.setIncomesSum(oldValue.getIncomesSum().add(newValue.getIncomesSum()));
-            oldValue.setExpensesSum(oldValue.getExpensesSum().add(newValue.getExpensesSum()));
-
-            for (Map.Entry<String, List<OperationResponseDto>> pair :
-                newValue.getIncomesByCategory().entrySet()) {
-              oldValue.getIncomesByCategory()
-                  .merge(pair.getKey(), pair.getValue(),
-                      (o, n) -> {
-                        o.addAll(n);
-                        return o;
-                      });
-            }
-
-            for (Map.Entry<String, List<OperationResponseDto>> pair :
-                newValue.getExpensesByCategory().entrySet()) {
-              oldValue.getExpensesByCategory()
-                  .merge(pair.getKey(), pair.getValue(),
-                      (o, n) -> {
-                        o.addAll(n);
-                        return o;
-                      });
-            }
-            return oldValue;
-          });
+    var mapping = savingRowMapper.newMapping();
+    for (SavingOperationRow row : operations) {
+      var dto = dtosBySavingId.get(row.savingId());
+      if (dto == null) {
+        continue;
+      }
+      var byCategory = row.type() == OperationType.INCOME
+          ? dto.getIncomesByCategory()
+          : dto.getExpensesByCategory();
+      byCategory.computeIfAbsent(row.categoryName(), name -> new ArrayList<>())
+          .add(mapping.toOperation(row));
     }
+    return dtoList;
+  }
 
-    return new ArrayList<>(temp.values());
+  private static BigDecimal sum(Map<String, BigDecimal> totals) {
+    if (totals.isEmpty()) {
+      return BigDecimal.ZERO;
+    }
+    long sum = 0;
+    for (BigDecimal total : totals.values()) {
+      sum = Math.addExact(sum, Money.toMinorUnits(total));
+    }
+    return Money.ofMinorUnits(sum).toBigDecimal();
   }
 }
@@ -0,0 +1,177 @@
+package ru.rgasymov.moneymanager.mapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import ru.rgasymov.moneymanager.domain.Money;
+import ru.rgasymov.moneymanager.domain.SavingOperationRow;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
+import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+
+/**
+ * Builds saving DTOs from operations read as flat rows in a single pass.
+ * Produces the same DTOs as {@link SavingMapper} does from savings with loaded operations.
+ * Sums are accumulated in minor units (see {@link Money}) and converted once per saving.
+ *
+ * <p>The current date and the categories are resolved once per {@link Mapping}:
+ * every category DTO is built once and shared by all operations of the mapping.
+ */
+@Component
+public class SavingRowMapper {
+
+  /**
+   * Maps the savings keeping their order.
+   *
+   * @param savings    the savings, only their ids, dates and values are read
+   * @param operations operations of the savings
+   * @return the DTOs of the savings
+   */
+  public List<SavingResponseDto> toDtos(List<Saving> savings,
+                                        List<SavingOperationRow> operations) {
+    var mapping = newMapping();
+    var dtos = new ArrayList<SavingResponseDto>(savings.size());
+    var indexesById = new HashMap<Long, Integer>();
+    for (Saving saving : savings) {
+      indexesById.put(saving.getId(), dtos.size());
+      dtos.add(newDto(saving));
+    }
+
+    var incomesSums = new long[dtos.size()];
+    var expensesSums = new long[dtos.size()];
+    var incomesCounts = new int[dtos.size()];
+    var expensesCounts = new int[dtos.size()];
+
+    for (SavingOperationRow row : operations) {
+      var index = indexesById.get(row.savingId());
+      if (index == null) {
+        continue;
+      }
+      mapping.add(dtos.get(index), row);
+      if (row.type() == OperationType.INCOME) {
+        incomesSums[index] = Math.addExact(incomesSums[index], Money.toMinorUnits(row.value()));
+        incomesCounts[index]++;
+      } else {
+        expensesSums[index] = Math.addExact(expensesSums[index], Money.toMinorUnits(row.value()));
+        expensesCounts[index]++;
+      }
+    }
+
+    //Savings without operations keep the default zero sums
+    for (int i = 0; i < dtos.size(); i++) {
+      if (incomesCounts[i] > 0) {
+        dtos.get(i).setIncomesSum(Money.ofMinorUnits(incomesSums[i]).toBigDecimal());
+      }
+      if (expensesCounts[i] > 0) {
+        dtos.get(i).setExpensesSum(Money.ofMinorUnits(expensesSums[i]).toBigDecimal());
+      }
+    }
+    return dtos;
+  }
+
+  /**
+   * Starts mapping of savings one by one, e.g. of a stream of savings.
+   * A mapping is meant for a single request and is not thread-safe.
+   *
+   * @return the mapping taking the current date once
+   */
+  public Mapping newMapping() {
+    return new Mapping(LocalDate.now());
+  }
+
+  private static SavingResponseDto newDto(Saving saving) {
+    return SavingResponseDto.builder()
+        .id(saving.getId())
+        .date(saving.getDate())
+        .value(saving.getValue())
+        .incomesByCategory(new HashMap<>())
+        .expensesByCategory(new HashMap<>())
+        .build();
+  }
+
+  /**
+   * State of mappings of a single request: the date operations are overdue by
+   * and the categories seen so far.
+   */
+  public static final class Mapping {
+
+    private final LocalDate now;
+    private final Map<Long, OperationCategoryResponseDto> incomeCategories = new HashMap<>();
+    private final Map<Long, OperationCategoryResponseDto> expenseCategories = new HashMap<>();
+
+    private Mapping(LocalDate now) {
+      this.now = now;
+    }
+
+    /**
+     * Maps a single saving.
+     *
+     * @param saving     the saving, only its id, date and value are read
+     * @param operations operations of the saving
+     * @return the DTO of the saving
+     */
+    public SavingResponseDto toDto(Saving saving, List<SavingOperationRow> operations) {
+      var dto = newDto(saving);
+      long incomesSum = 0;
+      long expensesSum = 0;
+      var hasIncomes = false;
+      var hasExpenses = false;
+      for (SavingOperationRow row : operations) {
+        add(dto, row);
+        if (row.type() == OperationType.INCOME) {
+          incomesSum = Math.addExact(incomesSum, Money.toMinorUnits(row.value()));
+          hasIncomes = true;
+        } else {
+          expensesSum = Math.addExact(expensesSum, Money.toMinorUnits(row.value()));
+          hasExpenses = true;
+        }
+      }
+      if (hasIncomes) {
+        dto.setIncomesSum(Money.ofMinorUnits(incomesSum).toBigDecimal());
+      }
+      if (hasExpenses) {
+        dto.setExpensesSum(Money.ofMinorUnits(expensesSum).toBigDecimal());
+      }
+      return dto;
+    }
+
+    /**
+     * Maps an operation sharing the DTO of its category with other operations of the mapping.
+     *
+     * @param row the operation
+     * @return the DTO of the operation
+     */
+    public OperationResponseDto toOperation(SavingOperationRow row) {
+      var categories = row.type() == OperationType.INCOME ? incomeCategories : expenseCategories;
+      var category = categories.computeIfAbsent(row.categoryId(), id ->
+          OperationCategoryResponseDto.builder().id(id).name(row.categoryName()).build());
+      return OperationResponseDto.builder()
+          .id(row.id())
+          .category(category)
+          .date(row.date())
+          .description(row.description())
+          .value(row.value())
+          .isPlanned(row.planned())
+          .build();
+    }
+
+    /**
+     * Adds the operation to the map of its category and marks the saving overdue if it is.
+     */
+    private void add(SavingResponseDto dto, SavingOperationRow row) {
+      var operation = toOperation(row);
+      if (operation.calculateOverdue(now)) {
+        dto.setOverdue(true);
+      }
+      var byCategory = row.type() == OperationType.INCOME
+          ? dto.getIncomesByCategory()
+          : dto.getExpensesByCategory();
+      byCategory.computeIfAbsent(row.categoryName(), name -> new ArrayList<>()).add(operation);
+    }
+  }
+}
@@ -1,8 +1,13 @@
 package ru.rgasymov.moneymanager.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.rgasymov.moneymanager.domain.entity.Account;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
@@ -10,4 +15,33 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
   Optional<Account> findByIdAndUserId(Long id, String userId);
 
   List<Account> findAllByUserId(String userId);
+
+  @Query("select a.id from Account a order by a.id")
+  List<Long> findAllIds();
+
+  @Query("select a.dataVersion from Account a where a.id = :id")
+  Optional<Long> findDataVersionById(@Param("id") Long id);
+
+  /**
+   * Increments the data version of the account.
+   * The account row stays locked for updates until the end of the transaction.
+   */
+  @Modifying
+  @Query(value = "UPDATE account SET data_version = data_version + 1 WHERE id = :id",
+      nativeQuery = true)
+  int incrementDataVersion(@Param("id") Long id);
+
+  /**
+   * Sets the opening balance of the account, the balance before its first operation.
+   * The ledger adds it to the saving of the date, whatever savings precede it.
+   */
+  @Modifying
+  @Query(value = """
+      UPDATE account
+      SET opening_balance = :balance, opening_date = :date
+      WHERE id = :id
+      """, nativeQuery = true)
+  int updateOpeningBalance(@Param("id") Long id,
+                           @Param("date") LocalDate date,
+                           @Param("balance") BigDecimal balance);
 }
@@ -0,0 +1,146 @@
+package ru.rgasymov.moneymanager.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.rgasymov.moneymanager.domain.CategoryMonthSum;
+import ru.rgasymov.moneymanager.domain.CategoryTotalsDrift;
+import ru.rgasymov.moneymanager.domain.entity.CategoryMonthTotal;
+
+public interface CategoryMonthTotalRepository extends JpaRepository<CategoryMonthTotal, Long> {
+
+  /**
+   * Totals of the account recomputed from its operations by month, type and category.
+   */
+  String EXPECTED_TOTALS_SQL = """
+      SELECT CAST(date_trunc('month', o.date) AS date) AS month,
+             o.operation_type,
+             o.category_id,
+             SUM(o.value_) AS total,
+             COUNT(*) AS operations_count
+      FROM (
+        SELECT i.date, 'INCOME' AS operation_type, i.category_id, i.value_
+        FROM income i
+        WHERE i.account_id = :accountId
+        UNION ALL
+        SELECT e.date, 'EXPENSE' AS operation_type, e.category_id, e.value_
+        FROM expense e
+        WHERE e.account_id = :accountId
+      ) o
+      GROUP BY month, o.operation_type, o.category_id
+      """;
+
+  /**
+   * Adds the change to the total of the category and month, creating the total if it is absent,
+   * in a single statement.
+   *
+   * @param accountId      account of the operations
+   * @param month          the first day of the month
+   * @param operationType  name of the type of the operations
+   * @param categoryId     category of the operations
+   * @param increment      change of the sum of the operations
+   * @param countIncrement change of the amount of the operations
+   */
+  @Modifying
+  @Query(value = """
+      INSERT INTO category_month_totals
+        (account_id, month, operation_type, category_id, total, operations_count)
+      VALUES (:accountId, :month, :operationType, :categoryId, :increment, :countIncrement)
+      ON CONFLICT (account_id, month, operation_type, category_id) DO UPDATE
+      SET total = category_month_totals.total + :increment,
+          operations_count = category_month_totals.operations_count + :countIncrement
+      """, nativeQuery = true)
+  void upsert(@Param("accountId") Long accountId,
+              @Param("month") LocalDate month,
+              @Param("operationType") String operationType,
+              @Param("categoryId") Long categoryId,
+              @Param("increment") BigDecimal increment,
+              @Param("countIncrement") long countIncrement);
+
+  /**
+   * Finds totals of the type by month with names of their categories.
+   *
+   * @param accountId     account of the totals
+   * @param operationType name of the type of the operations
+   * @param from          the first month, inclusive
+   * @param to            the last month, inclusive
+   * @return totals of the months between {@code from} and {@code to} ordered by month
+   */
+  @Query(value = """
+      SELECT t.month AS "month",
+             t.category_id AS "categoryId",
+             COALESCE(ic.name, ec.name) AS "categoryName",
+             t.total AS "total"
+      FROM category_month_totals t
+      LEFT JOIN income_category ic ON t.operation_type = 'INCOME' AND ic.id = t.category_id
+      LEFT JOIN expense_category ec ON t.operation_type = 'EXPENSE' AND ec.id = t.category_id
+      WHERE t.account_id = :accountId
+        AND t.operation_type = :operationType
+        AND t.month >= :from
+        AND t.month <= :to
+        AND t.operations_count > 0
+      ORDER BY t.month, t.category_id
+      """, nativeQuery = true)
+  List<CategoryMonthSum> findSums(@Param("accountId") Long accountId,
+                                  @Param("operationType") String operationType,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to);
+
+  /**
+   * Compares stored totals of the account with the ones recomputed from its operations.
+   *
+   * @param accountId account of the totals
+   * @return the drift summary
+   */
+  @Query(value = "WITH expected AS (" + EXPECTED_TOTALS_SQL + """
+      ),
+      compared AS (
+        SELECT COALESCE(e.month, s.month) AS month,
+               COALESCE(e.total, 0) AS expected_total,
+               COALESCE(s.total, 0) AS stored_total,
+               COALESCE(e.operations_count, 0) AS expected_count,
+               COALESCE(s.operations_count, 0) AS stored_count
+        FROM expected e
+        FULL JOIN (
+          SELECT t.*
+          FROM category_month_totals t
+          WHERE t.account_id = :accountId
+        ) s ON s.month = e.month
+          AND s.operation_type = e.operation_type
+          AND s.category_id = e.category_id
+      )
+      SELECT COUNT(*) AS "checkedTotals",
+             COUNT(*) FILTER (
+               WHERE c.expected_total <> c.stored_total OR c.expected_count <> c.stored_count
+             ) AS "driftedTotals",
+             COALESCE(MAX(ABS(c.expected_total - c.stored_total)), 0) AS "maxDrift",
+             MIN(c.month) FILTER (
+               WHERE c.expected_total <> c.stored_total OR c.expected_count <> c.stored_count
+             ) AS "firstDriftMonth"
+      FROM compared c
+      """, nativeQuery = true)
+  CategoryTotalsDrift verify(@Param("accountId") Long accountId);
+
+  /**
+   * Recreates all totals of the account from its operations in a single statement.
+   * Existing totals must be deleted before.
+   *
+   * @param accountId account of the totals
+   * @return the number of created totals
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = """
+      INSERT INTO category_month_totals
+        (account_id, month, operation_type, category_id, total, operations_count)
+      SELECT :accountId, e.month, e.operation_type, e.category_id, e.total, e.operations_count
+      FROM (""" + EXPECTED_TOTALS_SQL + ") e", nativeQuery = true)
+  int insertFromOperations(@Param("accountId") Long accountId);
+
+  @Modifying(flushAutomatically = true)
+  @Query("delete from CategoryMonthTotal t where t.accountId = :accountId")
+  void deleteAllByAccountId(@Param("accountId") Long accountId);
+}
@@ -0,0 +1,26 @@
+package ru.rgasymov.moneymanager.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes pending changes of the persistence context before repositories read with plain SQL.
+ *
+ * <p>Ids of savings, operations and categories are taken from sequences, so Hibernate defers
+ * their inserts until a flush to send them in batches. Queries of Hibernate flush them
+ * automatically, while reads through JDBC would not see rows saved in the same transaction.
+ */
+@Component
+@RequiredArgsConstructor
+class PendingWritesFlusher {
+
+  private final EntityManager entityManager;
+
+  void flush() {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      entityManager.flush();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package ru.rgasymov.moneymanager.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.rgasymov.moneymanager.domain.entity.SavingCheckpoint;
+
+public interface SavingCheckpointRepository extends JpaRepository<SavingCheckpoint, Long> {
+
+  List<SavingCheckpoint> findAllByAccountIdOrderByClosingDate(Long accountId);
+
+  /**
+   * Creates the checkpoint of the month if it is absent.
+   * A new checkpoint takes the balance of the previous one, as nothing has changed between them yet.
+   *
+   * @param accountId   account of the checkpoint
+   * @param closingDate the last day of the month
+   */
+  @Modifying
+  @Query(value = """
+      INSERT INTO saving_checkpoint (account_id, closing_date, balance)
+      VALUES (:accountId, :closingDate, COALESCE((
+        SELECT c.balance
+        FROM saving_checkpoint c
+        WHERE c.account_id = :accountId AND c.closing_date < :closingDate
+        ORDER BY c.closing_date DESC
+        LIMIT 1), 0))
+      ON CONFLICT (account_id, closing_date) DO NOTHING
+      """, nativeQuery = true)
+  void ensureExists(@Param("accountId") Long accountId,
+                    @Param("closingDate") LocalDate closingDate);
+
+  @Modifying
+  @Query("""
+      update SavingCheckpoint c
+      set c.balance = c.balance + :increment
+      where c.closingDate >= :closingDate and c.accountId = :accountId
+      """)
+  void increaseBalanceByClosingDateGreaterThanEqual(@Param("increment") BigDecimal increment,
+                                                    @Param("closingDate") LocalDate closingDate,
+                                                    @Param("accountId") Long accountId);
+
+  /**
+   * Recreates all checkpoints of the account from the per-day deltas of its savings.
+   *
+   * @param accountId account of the checkpoints
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = """
+      INSERT INTO saving_checkpoint (account_id, closing_date, balance)
+      SELECT m.account_id,
+             m.closing_date,
+             SUM(m.month_delta) OVER (ORDER BY m.closing_date)
+      FROM (
+        SELECT s.account_id,
+               CAST(date_trunc('month', s.date) + INTERVAL '1 month - 1 day' AS date) AS closing_date,
+               SUM(s.delta) AS month_delta
+        FROM saving s
+        WHERE s.account_id = :accountId
+        GROUP BY s.account_id, closing_date
+      ) m
+      """, nativeQuery = true)
+  void insertFromSavings(@Param("accountId") Long accountId);
+
+  @Modifying(flushAutomatically = true)
+  @Query("delete from SavingCheckpoint c where c.accountId = :accountId")
+  void deleteAllByAccountId(@Param("accountId") Long accountId);
+}
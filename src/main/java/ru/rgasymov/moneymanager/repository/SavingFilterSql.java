@@ -0,0 +1,125 @@
+package ru.rgasymov.moneymanager.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.rgasymov.moneymanager.util.SpecUtils;
+
+/**
+ * Conditions of savings matching the search criteria in SQL.
+ * Mirror {@link ru.rgasymov.moneymanager.spec.SavingSpec} for repositories reading savings
+ * with plain SQL. The saving must be aliased as {@code s}.
+ */
+final class SavingFilterSql {
+
+  private SavingFilterSql() {
+  }
+
+  /**
+   * Returns the balance of the account at the end of a date derived from per-day deltas
+   * as {@link SavingRepository#findBalanceByDate} does: the closing checkpoint
+   * of the previous month plus deltas of the month up to the date.
+   * A balance costs one checkpoint lookup and at most a month of deltas,
+   * however long the history of the account is.
+   *
+   * @param date the SQL expression of the date, may refer to the outer query
+   * @return the SQL expression of the balance
+   */
+  static String derivedBalance(String date) {
+    return "(" + checkpointBefore(date) + """
+         + COALESCE((
+          SELECT SUM(d.delta)
+          FROM saving d
+          WHERE d.account_id = :accountId
+            AND d.date >= CAST(date_trunc('month', CAST(%1$s AS timestamp)) AS date)
+            AND d.date <= %1$s), 0))""".formatted(date);
+  }
+
+  /**
+   * Returns the closing checkpoint of the account before the month of a date,
+   * the balance deltas of savings from the start of the month are to be added to.
+   *
+   * @param date the SQL expression of the date
+   * @return the SQL expression of the balance
+   */
+  static String checkpointBefore(String date) {
+    return """
+        COALESCE((
+          SELECT c.balance
+          FROM saving_checkpoint c
+          WHERE c.account_id = :accountId
+            AND c.closing_date < CAST(date_trunc('month', CAST(%s AS timestamp)) AS date)
+          ORDER BY c.closing_date DESC
+          LIMIT 1), 0)""".formatted(date);
+  }
+
+  /**
+   * Appends conditions on the date and operations of the saving.
+   *
+   * @param sql                       the statement with a {@code WHERE} clause to append to
+   * @param params                    parameters of the statement
+   * @param from                      the first date of savings, optional
+   * @param to                        the last date of savings, optional
+   * @param checkedIncomeCategoryIds  income categories a found saving must have operations of
+   * @param checkedExpenseCategoryIds expense categories a found saving must have operations of
+   * @param searchText                text operations must match, optional
+   * @param hasOperationFilters       whether savings are filtered by their operations
+   */
+  static void appendConditions(StringBuilder sql,
+                               MapSqlParameterSource params,
+                               LocalDate from,
+                               LocalDate to,
+                               List<Long> checkedIncomeCategoryIds,
+                               List<Long> checkedExpenseCategoryIds,
+                               String searchText,
+                               boolean hasOperationFilters) {
+    if (from != null) {
+      sql.append(" AND s.date >= :from");
+      params.addValue("from", from);
+    }
+    if (to != null) {
+      sql.append(" AND s.date <= :to");
+      params.addValue("to", to);
+    }
+    if (!hasOperationFilters) {
+      return;
+    }
+    if (StringUtils.isNotBlank(searchText)) {
+      params.addValue("pattern", SpecUtils.prepareSearchPattern(searchText));
+    }
+    params.addValue("checkedIncomeCategoryIds", checkedIncomeCategoryIds)
+        .addValue("checkedExpenseCategoryIds", checkedExpenseCategoryIds);
+    sql.append(" AND (")
+        .append(matchingOperationExists("income", "income_category",
+            "checkedIncomeCategoryIds", checkedIncomeCategoryIds, searchText))
+        .append(" OR ")
+        .append(matchingOperationExists("expense", "expense_category",
+            "checkedExpenseCategoryIds", checkedExpenseCategoryIds, searchText))
+        .append("""
+             OR (NOT EXISTS (SELECT 1 FROM income i
+                             WHERE i.account_id = s.account_id AND i.saving_id = s.id)
+                 AND NOT EXISTS (SELECT 1 FROM expense e
+                                 WHERE e.account_id = s.account_id AND e.saving_id = s.id)))
+            """);
+  }
+
+  private static String matchingOperationExists(String table,
+                                                String categoryTable,
+                                                String categoryIdsParam,
+                                                List<Long> categoryIds,
+                                                String searchText) {
+    if (categoryIds.isEmpty()) {
+      return "FALSE";
+    }
+    var sql = new StringBuilder()
+        .append("EXISTS (SELECT 1 FROM ").append(table).append(" o")
+        .append(" JOIN ").append(categoryTable).append(" c ON c.id = o.category_id")
+        .append(" WHERE o.account_id = s.account_id AND o.saving_id = s.id")
+        .append(" AND o.category_id IN (:").append(categoryIdsParam).append(")");
+    if (StringUtils.isNotBlank(searchText)) {
+      sql.append(" AND (LOWER(o.description) LIKE :pattern OR LOWER(c.name) LIKE :pattern)");
+    }
+    return sql.append(")").toString();
+  }
+}
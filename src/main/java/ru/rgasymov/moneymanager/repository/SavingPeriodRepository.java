@@ -0,0 +1,243 @@
+package ru.rgasymov.moneymanager.repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.rgasymov.moneymanager.domain.SavingPeriodTotals;
+import ru.rgasymov.moneymanager.domain.enums.Period;
+import ru.rgasymov.moneymanager.domain.enums.SavingFieldToSort;
+
+/**
+ * Aggregates savings and their operations by periods in the database.
+ *
+ * <p>Savings matching the criteria are truncated to the start of their period
+ * with {@code date_trunc}, then periods are paginated, and operations of the periods
+ * of the page are summed by category with one {@code GROUP BY} per operation type.
+ * The filters mirror {@link ru.rgasymov.moneymanager.spec.SavingSpec} for savings and
+ * the operation specs for operations, so totals match the ones of the day-level search.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SavingPeriodRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final PendingWritesFlusher pendingWritesFlusher;
+
+  /**
+   * Finds a page of periods with savings matching the criteria.
+   *
+   * @param criteria the criteria of savings and operations
+   * @return the periods of the page with their totals
+   */
+  public Page<SavingPeriodTotals> findPeriodTotals(PeriodCriteria criteria) {
+    var params = new MapSqlParameterSource()
+        .addValue("accountId", criteria.accountId())
+        .addValue("truncField", criteria.period().getTruncField());
+    var matched = matchedSavings(criteria, params);
+    var pageRequest = PageRequest.of(criteria.pageNum(), criteria.pageSize());
+
+    pendingWritesFlusher.flush();
+    var total = jdbcTemplate.queryForObject(
+        "WITH " + matched + " SELECT COUNT(DISTINCT period_start) FROM matched",
+        params, Long.class);
+    if (total == null || total <= (long) criteria.pageNum() * criteria.pageSize()) {
+      return new PageImpl<>(List.of(), pageRequest, total == null ? 0 : total);
+    }
+
+    var balance = criteria.derivedBalance()
+        ? SavingFilterSql.derivedBalance("p.date")
+        : "p.value_";
+    var direction = criteria.direction().isAscending() ? "ASC" : "DESC";
+    var sortColumn = criteria.sortBy() == SavingFieldToSort.DATE ? "p.period_start" : "balance";
+    params.addValue("limit", criteria.pageSize())
+        .addValue("offset", pageRequest.getOffset());
+
+    var periods = jdbcTemplate.query("""
+        WITH %s,
+        periods AS (
+          SELECT DISTINCT ON (m.period_start) m.period_start, m.id, m.date, m.value_
+          FROM matched m
+          ORDER BY m.period_start, m.date DESC
+        )
+        SELECT p.period_start, p.id, p.date, %s AS balance
+        FROM periods p
+        ORDER BY %s %s, p.date %s
+        LIMIT :limit OFFSET :offset
+        """.formatted(matched, balance, sortColumn, direction, direction),
+        params, (rs, rowNum) -> new PeriodRow(
+            rs.getObject("period_start", LocalDate.class),
+            rs.getLong("id"),
+            rs.getObject("date", LocalDate.class),
+            rs.getBigDecimal("balance")));
+
+    var periodStarts = periods.stream().map(PeriodRow::periodStart).toList();
+    params.addValue("periodStarts", periodStarts)
+        .addValue("firstPeriodStart", periodStarts.stream()
+            .min(Comparator.naturalOrder()).orElseThrow())
+        .addValue("lastPeriodDate", periods.stream().map(PeriodRow::lastDate)
+            .max(Comparator.naturalOrder()).orElseThrow());
+    var incomeTotals = sumOperations("income", "income_category",
+        criteria.incomeCategoryIds(), criteria, matched, params);
+    var expenseTotals = sumOperations("expense", "expense_category",
+        criteria.expenseCategoryIds(), criteria, matched, params);
+    var savingIds = criteria.withSavingIds()
+        ? findSavingIds(matched, params)
+        : Map.<LocalDate, List<Long>>of();
+
+    var content = new ArrayList<SavingPeriodTotals>(periods.size());
+    for (var period : periods) {
+      content.add(new SavingPeriodTotals(
+          period.periodStart(),
+          period.lastSavingId(),
+          period.lastDate(),
+          period.balance(),
+          incomeTotals.getOrDefault(period.periodStart(), Map.of()),
+          expenseTotals.getOrDefault(period.periodStart(), Map.of()),
+          savingIds.getOrDefault(period.periodStart(), List.of())));
+    }
+    return new PageImpl<>(content, pageRequest, total);
+  }
+
+  /**
+   * Returns the {@code matched} CTE of savings matching the criteria with their periods.
+   */
+  private String matchedSavings(PeriodCriteria criteria, MapSqlParameterSource params) {
+    var sql = new StringBuilder("""
+        matched AS (
+          SELECT s.id, s.date, s.value_,
+                 CAST(date_trunc(:truncField, CAST(s.date AS timestamp)) AS date) AS period_start
+          FROM saving s
+          WHERE s.account_id = :accountId
+        """);
+    SavingFilterSql.appendConditions(sql, params,
+        criteria.from(),
+        criteria.to(),
+        criteria.checkedIncomeCategoryIds(),
+        criteria.checkedExpenseCategoryIds(),
+        criteria.searchText(),
+        criteria.hasOperationFilters());
+    return sql.append(")").toString();
+  }
+
+  /**
+   * Sums operations of savings of the found periods by period and category name.
+   */
+  private Map<LocalDate, Map<String, BigDecimal>> sumOperations(String table,
+                                                                String categoryTable,
+                                                                List<Long> categoryIds,
+                                                                PeriodCriteria criteria,
+                                                                String matched,
+                                                                MapSqlParameterSource params) {
+    var sql = new StringBuilder()
+        .append("WITH ").append(matched)
+        .append(" SELECT m.period_start, c.name, SUM(o.value_) AS total")
+        .append(" FROM matched m")
+        .append(" JOIN ").append(table)
+        .append(" o ON o.account_id = :accountId AND o.saving_id = m.id")
+        .append(" JOIN ").append(categoryTable).append(" c ON c.id = o.category_id")
+        .append(" WHERE m.period_start IN (:periodStarts)")
+        .append(" AND m.date BETWEEN :firstPeriodStart AND :lastPeriodDate");
+    if (!categoryIds.isEmpty()) {
+      var categoryIdsParam = table + "CategoryIds";
+      sql.append(" AND o.category_id IN (:").append(categoryIdsParam).append(")");
+      params.addValue(categoryIdsParam, categoryIds);
+    }
+    if (StringUtils.isNotBlank(criteria.searchText())) {
+      sql.append(" AND (LOWER(o.description) LIKE :pattern OR LOWER(c.name) LIKE :pattern)");
+    }
+    sql.append(" GROUP BY m.period_start, c.name ORDER BY c.name");
+
+    var result = new HashMap<LocalDate, Map<String, BigDecimal>>();
+    jdbcTemplate.query(sql.toString(), params, (ResultSet rs) -> {
+      addTotal(result, rs);
+    });
+    return result;
+  }
+
+  /**
+   * Finds ids of the matched savings of the found periods by period.
+   */
+  private Map<LocalDate, List<Long>> findSavingIds(String matched,
+                                                   MapSqlParameterSource params) {
+    var result = new HashMap<LocalDate, List<Long>>();
+    jdbcTemplate.query("WITH " + matched + """
+         SELECT m.period_start, m.id
+        FROM matched m
+        WHERE m.period_start IN (:periodStarts)
+          AND m.date BETWEEN :firstPeriodStart AND :lastPeriodDate
+        ORDER BY m.date
+        """, params, (ResultSet rs) -> {
+          result.computeIfAbsent(rs.getObject("period_start", LocalDate.class),
+                  periodStart -> new ArrayList<>())
+              .add(rs.getLong("id"));
+        });
+    return result;
+  }
+
+  private static void addTotal(Map<LocalDate, Map<String, BigDecimal>> result, ResultSet rs)
+      throws SQLException {
+    result.computeIfAbsent(rs.getObject("period_start", LocalDate.class),
+            periodStart -> new LinkedHashMap<>())
+        .put(rs.getString("name"), rs.getBigDecimal("total"));
+  }
+
+  private record PeriodRow(LocalDate periodStart,
+                           Long lastSavingId,
+                           LocalDate lastDate,
+                           BigDecimal balance) {
+  }
+
+  /**
+   * Criteria of a search of periods.
+   *
+   * @param accountId                 account of the savings
+   * @param period                    the period to group savings by
+   * @param from                      the first date of savings, optional
+   * @param to                        the last date of savings, optional
+   * @param checkedIncomeCategoryIds  income categories a found saving must have operations of
+   * @param checkedExpenseCategoryIds expense categories a found saving must have operations of
+   * @param incomeCategoryIds         income categories to sum, all if empty
+   * @param expenseCategoryIds        expense categories to sum, all if empty
+   * @param searchText                text operations must match, optional
+   * @param hasOperationFilters       whether savings are filtered by their operations
+   * @param derivedBalance            whether balances are derived from deltas
+   * @param withSavingIds             whether ids of savings of the periods are needed
+   * @param sortBy                    the field to sort periods by
+   * @param direction                 the sort direction
+   * @param pageNum                   the page number starting at 0
+   * @param pageSize                  the amount of periods in a page
+   */
+  public record PeriodCriteria(Long accountId,
+                               Period period,
+                               LocalDate from,
+                               LocalDate to,
+                               List<Long> checkedIncomeCategoryIds,
+                               List<Long> checkedExpenseCategoryIds,
+                               List<Long> incomeCategoryIds,
+                               List<Long> expenseCategoryIds,
+                               String searchText,
+                               boolean hasOperationFilters,
+                               boolean derivedBalance,
+                               boolean withSavingIds,
+                               SavingFieldToSort sortBy,
+                               Sort.Direction direction,
+                               int pageNum,
+                               int pageSize) {
+  }
+}
@@ -0,0 +1,285 @@
+package ru.rgasymov.moneymanager.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.rgasymov.moneymanager.domain.SavingOperationRow;
+import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+import ru.rgasymov.moneymanager.domain.enums.SavingFieldToSort;
+import ru.rgasymov.moneymanager.util.SpecUtils;
+
+/**
+ * Reads operations of savings as flat rows for responses.
+ *
+ * <p>Incomes and expenses of a page of savings are read with their categories
+ * in a single statement, instead of loading both lazy collections of the savings
+ * and then categories of their operations. Nothing is put into the persistence context.
+ *
+ * <p>All savings of a search can be streamed with their operations through a forward-only
+ * cursor, which fetches a bounded amount of rows at a time. PostgreSQL keeps the cursor
+ * open only within a transaction, so streaming requires one. The transaction holds
+ * its connection until the last saving is consumed, so the timeout of the transaction
+ * is checked before every saving, not only when the statement starts.
+ */
+@Repository
+public class SavingReadRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+  private final PendingWritesFlusher pendingWritesFlusher;
+
+  public SavingReadRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                              PendingWritesFlusher pendingWritesFlusher,
+                              @Value("${saving.stream.fetch-size:500}") int streamFetchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.pendingWritesFlusher = pendingWritesFlusher;
+    var streamingTemplate = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+    streamingTemplate.setFetchSize(streamFetchSize);
+    this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streamingTemplate);
+  }
+
+  /**
+   * Finds operations of the savings matching the filters.
+   *
+   * @param accountId          account of the savings
+   * @param savingIds          ids of the savings
+   * @param incomeCategoryIds  income categories to keep, all if empty
+   * @param expenseCategoryIds expense categories to keep, all if empty
+   * @param searchText         text operations must match, optional
+   * @return operations of the savings ordered by type and id
+   */
+  public List<SavingOperationRow> findOperations(Long accountId,
+                                                 List<Long> savingIds,
+                                                 List<Long> incomeCategoryIds,
+                                                 List<Long> expenseCategoryIds,
+                                                 String searchText) {
+    if (savingIds.isEmpty()) {
+      return List.of();
+    }
+    var params = new MapSqlParameterSource()
+        .addValue("accountId", accountId)
+        .addValue("savingIds", savingIds);
+    if (StringUtils.isNotBlank(searchText)) {
+      params.addValue("pattern", SpecUtils.prepareSearchPattern(searchText));
+    }
+
+    var sql = selectOperations(OperationType.INCOME, "income", "income_category",
+        "o.saving_id IN (:savingIds)", incomeCategoryIds, searchText, params)
+        + " UNION ALL "
+        + selectOperations(OperationType.EXPENSE, "expense", "expense_category",
+        "o.saving_id IN (:savingIds)", expenseCategoryIds, searchText, params)
+        + " ORDER BY type, id";
+
+    pendingWritesFlusher.flush();
+    return jdbcTemplate.query(sql, params, (rs, rowNum) -> toOperationRow(rs));
+  }
+
+  /**
+   * Streams all savings matching the criteria with their operations matching the filters.
+   * Savings and operations are read by a single statement ordered by saving,
+   * so a saving is passed to the consumer as soon as its last operation is read,
+   * and only operations of one saving are held at a time.
+   *
+   * @param criteria the criteria of savings and operations
+   * @param consumer accepts every saving with its operations in the order of the criteria,
+   *                 only ids, dates and values of the savings are set
+   * @throws TransactionTimedOutException if the timeout of the transaction is reached
+   */
+  public void streamSavings(StreamCriteria criteria,
+                            BiConsumer<Saving, List<SavingOperationRow>> consumer) {
+    var params = new MapSqlParameterSource("accountId", criteria.accountId());
+    var sql = new StringBuilder("WITH matched AS (SELECT s.id, s.date, ");
+    if (criteria.derivedBalance()) {
+      //The window runs over savings before they are filtered. With the first date given
+      //it starts at its month from the closing checkpoint of the previous one
+      var opening = "0";
+      var windowStart = "";
+      if (criteria.from() != null) {
+        params.addValue("windowFrom", criteria.from().withDayOfMonth(1));
+        opening = SavingFilterSql.checkpointBefore(":windowFrom");
+        windowStart = " AND sv.date >= :windowFrom";
+      }
+      sql.append("""
+          s.balance
+          FROM (SELECT sv.*, %s + SUM(sv.delta) OVER (ORDER BY sv.date) AS balance
+                FROM saving sv WHERE sv.account_id = :accountId%s) s
+          """.formatted(opening, windowStart));
+    } else {
+      sql.append("s.value_ AS balance FROM saving s");
+    }
+    sql.append(" WHERE s.account_id = :accountId");
+    SavingFilterSql.appendConditions(sql, params,
+        criteria.from(),
+        criteria.to(),
+        criteria.checkedIncomeCategoryIds(),
+        criteria.checkedExpenseCategoryIds(),
+        criteria.searchText(),
+        criteria.hasOperationFilters());
+
+    var direction = criteria.direction().isAscending() ? "ASC" : "DESC";
+    var sortColumn = criteria.sortBy() == SavingFieldToSort.DATE ? "m.date" : "m.balance";
+    sql.append("), operations AS (")
+        .append(selectOperations(OperationType.INCOME, "income", "income_category",
+            "o.saving_id IN (SELECT id FROM matched)", criteria.incomeCategoryIds(),
+            criteria.searchText(), params))
+        .append(" UNION ALL ")
+        .append(selectOperations(OperationType.EXPENSE, "expense", "expense_category",
+            "o.saving_id IN (SELECT id FROM matched)", criteria.expenseCategoryIds(),
+            criteria.searchText(), params))
+        .append("""
+            )
+            SELECT m.id AS m_id, m.date AS m_date, m.balance AS m_balance, o.*
+            FROM matched m
+            LEFT JOIN operations o ON o.saving_id = m.id
+            """)
+        .append(" ORDER BY ").append(sortColumn).append(" ").append(direction)
+        .append(", m.id ").append(direction)
+        .append(", o.type, o.id");
+
+    var handler = new SavingRowCallbackHandler(consumer, transactionDeadline());
+    pendingWritesFlusher.flush();
+    streamingJdbcTemplate.query(sql.toString(), params, handler);
+    handler.complete();
+  }
+
+  /**
+   * Returns the check of the timeout of the current transaction, which does nothing
+   * if the transaction has no timeout.
+   */
+  private Runnable transactionDeadline() {
+    var dataSource = streamingJdbcTemplate.getJdbcTemplate().getDataSource();
+    var holder = dataSource == null
+        ? null
+        : (ConnectionHolder) TransactionSynchronizationManager.getResource(dataSource);
+    if (holder == null || !holder.hasTimeout()) {
+      return () -> {
+      };
+    }
+    return holder::getTimeToLiveInMillis;
+  }
+
+  private static SavingOperationRow toOperationRow(ResultSet rs) throws SQLException {
+    return new SavingOperationRow(
+        rs.getLong("saving_id"),
+        OperationType.valueOf(rs.getString("type")),
+        rs.getLong("id"),
+        rs.getLong("category_id"),
+        rs.getString("category_name"),
+        rs.getObject("date", LocalDate.class),
+        rs.getString("description"),
+        rs.getBigDecimal("value_"),
+        rs.getBoolean("is_planned"));
+  }
+
+  private String selectOperations(OperationType type,
+                                  String table,
+                                  String categoryTable,
+                                  String savingCondition,
+                                  List<Long> categoryIds,
+                                  String searchText,
+                                  MapSqlParameterSource params) {
+    var sql = new StringBuilder()
+        .append("SELECT '").append(type.name()).append("' AS type,")
+        .append(" o.saving_id, o.id, c.id AS category_id, c.name AS category_name,")
+        .append(" o.date, o.description, o.value_, o.is_planned")
+        .append(" FROM ").append(table).append(" o")
+        .append(" JOIN ").append(categoryTable).append(" c ON c.id = o.category_id")
+        .append(" WHERE o.account_id = :accountId AND ").append(savingCondition);
+    if (categoryIds != null && !categoryIds.isEmpty()) {
+      var categoryIdsParam = table + "CategoryIds";
+      sql.append(" AND o.category_id IN (:").append(categoryIdsParam).append(")");
+      params.addValue(categoryIdsParam, categoryIds);
+    }
+    if (StringUtils.isNotBlank(searchText)) {
+      sql.append(" AND (LOWER(o.description) LIKE :pattern OR LOWER(c.name) LIKE :pattern)");
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Collects rows of a saving and passes it on when the rows of the next one start.
+   */
+  private static final class SavingRowCallbackHandler implements RowCallbackHandler {
+
+    private final BiConsumer<Saving, List<SavingOperationRow>> consumer;
+    private final Runnable deadline;
+    private Saving saving;
+    private List<SavingOperationRow> operations = new ArrayList<>();
+
+    private SavingRowCallbackHandler(BiConsumer<Saving, List<SavingOperationRow>> consumer,
+                                     Runnable deadline) {
+      this.consumer = consumer;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+      var savingId = rs.getLong("m_id");
+      if (saving == null || !saving.getId().equals(savingId)) {
+        complete();
+        saving = Saving.builder()
+            .id(savingId)
+            .date(rs.getObject("m_date", LocalDate.class))
+            .value(rs.getBigDecimal("m_balance"))
+            .build();
+      }
+      if (rs.getObject("id") != null) {
+        operations.add(toOperationRow(rs));
+      }
+    }
+
+    private void complete() {
+      if (saving != null) {
+        deadline.run();
+        consumer.accept(saving, operations);
+        saving = null;
+        operations = new ArrayList<>();
+      }
+    }
+  }
+
+  /**
+   * Criteria of a stream of savings.
+   *
+   * @param accountId                 account of the savings
+   * @param from                      the first date of savings, optional
+   * @param to                        the last date of savings, optional
+   * @param checkedIncomeCategoryIds  income categories a found saving must have operations of
+   * @param checkedExpenseCategoryIds expense categories a found saving must have operations of
+   * @param incomeCategoryIds         income categories of operations to read, all if empty
+   * @param expenseCategoryIds        expense categories of operations to read, all if empty
+   * @param searchText                text operations must match, optional
+   * @param hasOperationFilters       whether savings and operations are filtered
+   * @param derivedBalance            whether balances are derived from deltas
+   * @param sortBy                    the field to sort savings by
+   * @param direction                 the sort direction
+   */
+  public record StreamCriteria(Long accountId,
+                               LocalDate from,
+                               LocalDate to,
+                               List<Long> checkedIncomeCategoryIds,
+                               List<Long> checkedExpenseCategoryIds,
+                               List<Long> incomeCategoryIds,
+                               List<Long> expenseCategoryIds,
+                               String searchText,
+                               boolean hasOperationFilters,
+                               boolean derivedBalance,
+                               SavingFieldToSort sortBy,
+                               Sort.Direction direction) {
+  }
+}
@@ -2,22 +2,109 @@ package ru.rgasymov.moneymanager.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.rgasymov.moneymanager.domain.LedgerDrift;
+import ru.rgasymov.moneymanager.domain.SavingBalance;
 import ru.rgasymov.moneymanager.domain.entity.Saving;
 
 public interface SavingRepository
     extends JpaRepository<Saving, Long>, JpaSpecificationExecutor<Saving> {
 
+  /**
+   * Savings of the account recomputed from its operations.
+   * The delta of a saving is the net of its incomes and expenses,
+   * the saving of the opening date of the account also gets the opening balance
+   * (the previous savings of an imported file are stored there).
+   * The value is the running sum of the deltas.
+   */
+  String LEDGER_CTE = """
+      WITH operation_net AS (
+        SELECT o.saving_id, SUM(o.net) AS net
+        FROM (
+          SELECT i.saving_id, i.value_ AS net
+          FROM income i
+          WHERE i.account_id = :accountId
+          UNION ALL
+          SELECT e.saving_id, -e.value_ AS net
+          FROM expense e
+          WHERE e.account_id = :accountId
+        ) o
+        GROUP BY o.saving_id
+      ),
+      expected_delta AS (
+        SELECT s.id,
+               s.date,
+               s.value_,
+               s.delta,
+               COALESCE(n.net, 0)
+                 + CASE WHEN s.date = a.opening_date THEN a.opening_balance ELSE 0 END
+                 AS expected_delta
+        FROM saving s
+        JOIN account a ON a.id = s.account_id
+        LEFT JOIN operation_net n ON n.saving_id = s.id
+        WHERE s.account_id = :accountId
+      ),
+      ledger AS (
+        SELECT d.*, SUM(d.expected_delta) OVER (ORDER BY d.date) AS expected_value
+        FROM expected_delta d
+      )
+      """;
+
+  /**
+   * Class of advisory locks of account ledgers, keeps them apart from other advisory locks
+   * of the database. Accounts are the second key of the lock.
+   */
+  int LEDGER_LOCK_CLASS = 1;
+
   Optional<Saving> findByDateAndAccountId(LocalDate date, Long accountId);
 
   Optional<Saving> findFirstByDateLessThanAndAccountIdOrderByDateDesc(LocalDate date,
                                                                       Long accountId);
 
+  List<Saving> findAllByAccountIdAndDateBetweenOrderByDate(Long accountId,
+                                                           LocalDate from,
+                                                           LocalDate to);
+
+  /**
+   * Adds the change to the saving of the date, creating the saving if it is absent,
+   * in a single statement. Concurrent writers of the same date are serialized by the
+   * unique constraint instead of failing on it.
+   *
+   * @param accountId        account of the saving
+   * @param date             date of the saving
+   * @param increment        change of the balance on the date
+   * @param carryPrevious    whether a new saving starts from the value of the previous one,
+   *                         otherwise it starts from zero
+   * @param notCarried       part of the value of the previous saving a new saving starts
+   *                         without, the increments not shifted to later savings yet
+   *                         (see {@link ru.rgasymov.moneymanager.service.SavingCascadeBuffer})
+   * @return id of the saving
+   */
+  @Query(value = """
+      INSERT INTO saving (account_id, date, value_, delta)
+      VALUES (:accountId, :date, :increment + CASE WHEN :carryPrevious THEN COALESCE((
+        SELECT s.value_ - :notCarried
+        FROM saving s
+        WHERE s.account_id = :accountId AND s.date < :date
+        ORDER BY s.date DESC
+        LIMIT 1), 0) ELSE 0 END, :increment)
+      ON CONFLICT (date, account_id) DO UPDATE
+      SET value_ = saving.value_ + :increment,
+          delta = saving.delta + :increment
+      RETURNING id
+      """, nativeQuery = true)
+  Long upsertDay(@Param("accountId") Long accountId,
+                 @Param("date") LocalDate date,
+                 @Param("increment") BigDecimal increment,
+                 @Param("carryPrevious") boolean carryPrevious,
+                 @Param("notCarried") BigDecimal notCarried);
+
   @Modifying
   @Query("""
       update Saving a
@@ -28,15 +115,129 @@ public interface SavingRepository
                                       @Param("date") LocalDate date,
                                       @Param("accountId") Long accountId);
 
+  /**
+   * Shifts values of the savings dated strictly between the two dates.
+   *
+   * @param increment value to add
+   * @param from      exclusive lower bound of the dates
+   * @param to        exclusive upper bound of the dates
+   * @param accountId account of the savings
+   */
   @Modifying
   @Query("""
       update Saving a
-      set a.value = a.value - :decrement
-      where a.date > :date and a.accountId = :accountId
+      set a.value = a.value + :increment
+      where a.date > :from and a.date < :to and a.accountId = :accountId
       """)
-  void decreaseValueByDateGreaterThan(@Param("decrement") BigDecimal decrement,
-                                      @Param("date") LocalDate date,
-                                      @Param("accountId") Long accountId);
+  void increaseValueByDateBetween(@Param("increment") BigDecimal increment,
+                                  @Param("from") LocalDate from,
+                                  @Param("to") LocalDate to,
+                                  @Param("accountId") Long accountId);
+
+  /**
+   * Derives running balances of the account savings from their per-day deltas.
+   * Only deltas of the months of the range are summed, earlier ones are taken
+   * from the closing checkpoint of the previous month.
+   *
+   * @param accountId account of the savings
+   * @param from      the earliest date of the savings to return
+   * @param to        the latest date of the savings to return
+   * @return balances of the savings dated between {@code from} and {@code to} inclusive
+   */
+  @Query(value = """
+      SELECT b.id AS id, b.balance AS balance
+      FROM (
+        SELECT s.id, s.date, SUM(s.delta) OVER (ORDER BY s.date) + COALESCE((
+          SELECT c.balance
+          FROM saving_checkpoint c
+          WHERE c.account_id = :accountId
+            AND c.closing_date < CAST(date_trunc('month', CAST(:from AS date)) AS date)
+          ORDER BY c.closing_date DESC
+          LIMIT 1), 0) AS balance
+        FROM saving s
+        WHERE s.account_id = :accountId
+          AND s.date >= CAST(date_trunc('month', CAST(:from AS date)) AS date)
+          AND s.date <= :to
+      ) b
+      WHERE b.date >= :from
+      """, nativeQuery = true)
+  List<SavingBalance> findBalances(@Param("accountId") Long accountId,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to);
+
+  /**
+   * Derives the balance of the account at the end of the date
+   * as the closing checkpoint of the previous month plus deltas of the month up to the date.
+   *
+   * @param accountId account of the savings
+   * @param date      date of the balance
+   * @return the balance
+   */
+  @Query(value = """
+      SELECT COALESCE((
+        SELECT c.balance
+        FROM saving_checkpoint c
+        WHERE c.account_id = :accountId
+          AND c.closing_date < CAST(date_trunc('month', CAST(:date AS date)) AS date)
+        ORDER BY c.closing_date DESC
+        LIMIT 1), 0) + COALESCE((
+        SELECT SUM(s.delta)
+        FROM saving s
+        WHERE s.account_id = :accountId
+          AND s.date >= CAST(date_trunc('month', CAST(:date AS date)) AS date)
+          AND s.date <= :date), 0)
+      """, nativeQuery = true)
+  BigDecimal findBalanceByDate(@Param("accountId") Long accountId,
+                               @Param("date") LocalDate date);
+
+  /**
+   * Compares stored savings of the account with the ones recomputed from its operations.
+   *
+   * @param accountId account of the savings
+   * @return the drift summary
+   */
+  @Query(value = LEDGER_CTE + """
+      SELECT COUNT(*) AS "checkedSavings",
+             COUNT(*) FILTER (WHERE l.delta <> l.expected_delta) AS "deltaDrifts",
+             COUNT(*) FILTER (WHERE l.value_ <> l.expected_value) AS "valueDrifts",
+             COALESCE(MAX(ABS(l.value_ - l.expected_value)), 0) AS "maxValueDrift",
+             MIN(l.date) FILTER (
+               WHERE l.delta <> l.expected_delta OR l.value_ <> l.expected_value
+             ) AS "firstDriftDate"
+      FROM ledger l
+      """, nativeQuery = true)
+  LedgerDrift verifyLedger(@Param("accountId") Long accountId);
+
+  /**
+   * Rewrites deltas and values of the account savings recomputed from its operations
+   * in a single statement.
+   *
+   * @param accountId account of the savings
+   * @return the number of rewritten savings
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = LEDGER_CTE + """
+      UPDATE saving s
+      SET delta = l.expected_delta,
+          value_ = l.expected_value
+      FROM ledger l
+      WHERE s.id = l.id
+        AND (s.delta <> l.expected_delta OR s.value_ <> l.expected_value)
+      """, nativeQuery = true)
+  int rebuildLedger(@Param("accountId") Long accountId);
+
+  /**
+   * Takes an advisory lock of the account released at the end of the current transaction.
+   * Waits while another transaction holds it.
+   * Identifiers beyond the range of {@code int} wrap around, so such accounts may share
+   * a lock with another account, which only serializes their writes.
+   *
+   * @param accountId account to lock
+   * @return always 1
+   */
+  @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(" + LEDGER_LOCK_CLASS
+      + ", CAST(mod(:accountId, 2147483648) AS int))", nativeQuery = true)
+  Integer lockAccount(@Param("accountId") Long accountId);
 
   void deleteAllByAccountId(Long accountId);
 
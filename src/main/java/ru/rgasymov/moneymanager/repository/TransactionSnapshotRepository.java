@@ -0,0 +1,40 @@
+package ru.rgasymov.moneymanager.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Shares the snapshot of a transaction with transactions on other connections,
+ * so they all see the same data (see {@code pg_export_snapshot}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionSnapshotRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Exports the snapshot of the current transaction. The snapshot can be imported
+   * until the transaction ends.
+   *
+   * @return identifier of the snapshot
+   */
+  public String export() {
+    return jdbcTemplate.queryForObject(
+        "SELECT pg_export_snapshot()", new MapSqlParameterSource(), String.class);
+  }
+
+  /**
+   * Makes the current transaction see the data of the exported snapshot.
+   * Must be the first statement of a REPEATABLE READ transaction.
+   *
+   * @param snapshotId identifier of the snapshot
+   */
+  public void importSnapshot(String snapshotId) {
+    //The statement takes no parameters, the identifier is a literal
+    jdbcTemplate.getJdbcTemplate().execute(
+        "SET TRANSACTION SNAPSHOT '" + snapshotId.replace("'", "''") + "'");
+  }
+}
@@ -0,0 +1,46 @@
+package ru.rgasymov.moneymanager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.rgasymov.moneymanager.repository.AccountRepository;
+
+/**
+ * Tracks versions of data of accounts, so results computed from the data can be reused
+ * until the data changes.
+ *
+ * <p>The version is a counter stored on the account and incremented by every write
+ * of operations, categories and savings of the account. It is incremented within the writing
+ * transaction, so the writer reads its own version right away and others read it
+ * with the committed data. The row of the account stays locked until the end of the transaction,
+ * so writes bump the version after taking the ledger lock of the account
+ * (see {@link LedgerWriteCoordinator}) to keep a single lock order.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountDataVersionService {
+
+  private final AccountRepository accountRepository;
+
+  /**
+   * Returns the current version of data of the account.
+   *
+   * @param accountId the account
+   * @return the version, changed by every write of the data
+   */
+  @Transactional(readOnly = true)
+  public long getVersion(Long accountId) {
+    return accountRepository.findDataVersionById(accountId).orElse(0L);
+  }
+
+  /**
+   * Marks that data of the account is changed by the current transaction.
+   *
+   * @param accountId the account
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void bump(Long accountId) {
+    accountRepository.incrementDataVersion(accountId);
+  }
+}
@@ -4,6 +4,8 @@ import static ru.rgasymov.moneymanager.util.ComparingUtils.isChanged;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,11 +19,13 @@ import ru.rgasymov.moneymanager.domain.dto.response.AccountResponseDto;
 import ru.rgasymov.moneymanager.domain.entity.Account;
 import ru.rgasymov.moneymanager.mapper.AccountMapper;
 import ru.rgasymov.moneymanager.repository.AccountRepository;
+import ru.rgasymov.moneymanager.repository.CategoryMonthTotalRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseCategoryRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
 import ru.rgasymov.moneymanager.repository.HistoryRepository;
 import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
 import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.repository.SavingCheckpointRepository;
 import ru.rgasymov.moneymanager.repository.SavingRepository;
 import ru.rgasymov.moneymanager.service.expense.ExpenseCategoryService;
 import ru.rgasymov.moneymanager.service.income.IncomeCategoryService;
@@ -37,7 +41,11 @@ public class AccountService {
   private final ExpenseRepository expenseRepository;
   private final ExpenseCategoryRepository expenseCategoryRepository;
   private final SavingRepository savingRepository;
+  private final SavingCheckpointRepository savingCheckpointRepository;
+  private final CategoryMonthTotalRepository categoryMonthTotalRepository;
   private final HistoryRepository historyRepository;
+  private final LedgerWriteCoordinator ledgerWriteCoordinator;
+  private final AccountDataVersionService accountDataVersionService;
 
   private final AccountMapper accountMapper;
 
@@ -77,6 +85,7 @@ public class AccountService {
       account.setTheme(theme);
 
       accountRepository.save(account);
+      accountDataVersionService.bump(id);
       if (currentUser.getCurrentAccount().getId().equals(id)) {
         currentUser.setCurrentAccount(account);
       }
@@ -92,10 +101,14 @@ public class AccountService {
     }
     getAccount(id);
 
+    ledgerWriteCoordinator.lock(id);
+    accountDataVersionService.bump(id);
     expenseRepository.deleteAllByAccountId(id);
     incomeRepository.deleteAllByAccountId(id);
     incomeCategoryRepository.deleteAllByAccountId(id);
     expenseCategoryRepository.deleteAllByAccountId(id);
+    savingCheckpointRepository.deleteAllByAccountId(id);
+    categoryMonthTotalRepository.deleteAllByAccountId(id);
     savingRepository.deleteAllByAccountId(id);
     historyRepository.deleteAllByAccountId(id);
     accountRepository.deleteById(id);
@@ -136,6 +149,18 @@ public class AccountService {
         && !expenseCategoryRepository.existsByAccountId(currentAccountId);
   }
 
+  /**
+   * Sets the balance the current account had before its first operation.
+   *
+   * @param date    date of the saving the balance is added to
+   * @param balance the opening balance
+   */
+  @Transactional
+  public void setOpeningBalance(LocalDate date, BigDecimal balance) {
+    var currentAccountId = userService.getCurrentUser().getCurrentAccount().getId();
+    accountRepository.updateOpeningBalance(currentAccountId, date, balance);
+  }
+
   private Account getAccount(Long id) {
     var currentUser = userService.getCurrentUser();
     return accountRepository.findByIdAndUserId(id, currentUser.getId())
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.transaction.annotation.Transactional;
+import ru.rgasymov.moneymanager.domain.CheckedCategories;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationCategoryRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
 import ru.rgasymov.moneymanager.domain.entity.BaseOperation;
@@ -28,14 +29,15 @@ public abstract class BaseOperationCategoryService<
 
   private final UserService userService;
 
+  private final AccountDataVersionService accountDataVersionService;
+
   protected abstract C buildNewOperationCategory(User currentUser, String name);
 
   protected abstract void clearCachedCategories();
 
   protected abstract List<OperationCategoryResponseDto> findAll(Long accountId);
 
-  protected abstract List<OperationCategoryResponseDto> findAllAndSetChecked(Long accountId,
-                                                                             List<Long> ids);
+  protected abstract CheckedCategories findAllAndSetChecked(Long accountId, List<Long> ids);
 
   public abstract Optional<OperationCategoryResponseDto> findByIdAndAccountId(Long id, Long accountId);
 
@@ -52,6 +54,7 @@ public abstract class BaseOperationCategoryService<
 
     C newOperationCategory = buildNewOperationCategory(currentUser, dto.getName());
     C saved = operationCategoryRepository.save(newOperationCategory);
+    accountDataVersionService.bump(currentAccountId);
 
     clearCachedCategories();
     return operationCategoryMapper.toDto(saved);
@@ -75,6 +78,7 @@ public abstract class BaseOperationCategoryService<
                     id)));
     operationCategory.setName(dto.getName());
     C saved = operationCategoryRepository.save(operationCategory);
+    accountDataVersionService.bump(currentAccountId);
 
     clearCachedCategories();
     return operationCategoryMapper.toDto(saved);
@@ -90,6 +94,7 @@ public abstract class BaseOperationCategoryService<
           "Could not delete an operation category while it is being referenced by any expenses");
     }
     operationCategoryRepository.deleteByIdAndAccountId(id, currentAccountId);
+    accountDataVersionService.bump(currentAccountId);
     clearCachedCategories();
   }
 }
@@ -5,12 +5,19 @@ import static ru.rgasymov.moneymanager.util.ComparingUtils.isChanged;
 import jakarta.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import lombok.RequiredArgsConstructor;
 import org.springframework.transaction.annotation.Transactional;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
 import ru.rgasymov.moneymanager.domain.entity.BaseOperation;
 import ru.rgasymov.moneymanager.domain.entity.BaseOperationCategory;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
 import ru.rgasymov.moneymanager.mapper.BaseOperationMapper;
 import ru.rgasymov.moneymanager.repository.BaseOperationCategoryRepository;
 import ru.rgasymov.moneymanager.repository.BaseOperationRepository;
@@ -29,6 +36,12 @@ public abstract class BaseOperationService<
 
   private final UserService userService;
 
+  private final SavingService savingService;
+
+  private final AccountDataVersionService accountDataVersionService;
+
+  private final CategoryMonthTotalService categoryMonthTotalService;
+
   @Transactional
   @Override
   public OperationResponseDto create(OperationRequestDto dto) {
@@ -40,6 +53,8 @@ public abstract class BaseOperationService<
     O operation = buildNewOperation(dto, category);
 
     var saved = saveNewOperation(operation);
+    categoryMonthTotalService.add(getOperationType(), categoryId, operation);
+    accountDataVersionService.bump(currentAccountId);
     logCreate(saved);
     return saved;
   }
@@ -48,41 +63,73 @@ public abstract class BaseOperationService<
   @Override
   public void create(O operation) {
     var saved = saveNewOperation(operation);
+    categoryMonthTotalService.add(getOperationType(), getCategoryId(operation), operation);
+    accountDataVersionService.bump(operation.getAccountId());
     logCreate(saved);
   }
 
+  /**
+   * Creates many operations of the current account in one transaction.
+   *
+   * <p>Instead of recalculating savings for every operation, net changes are grouped by date
+   * and applied to the ledger at once (see {@link SavingService#applyDeltas(NavigableMap)}),
+   * then operations and history actions are saved in bulk. Category totals are changed once
+   * per category and month.
+   *
+   * @param dtos the new operations
+   * @return the created operations in the order of the request
+   * @throws EntityNotFoundException if any category is not found, nothing is saved then
+   */
+  @Transactional
+  @Override
+  public List<OperationResponseDto> createAll(List<OperationRequestDto> dtos) {
+    var currentUser = userService.getCurrentUser();
+    var currentAccountId = currentUser.getCurrentAccount().getId();
+
+    var categories = new HashMap<Long, C>();
+    var operations = new ArrayList<O>(dtos.size());
+    var deltas = new TreeMap<LocalDate, BigDecimal>();
+    dtos.forEach(dto -> {
+      C category = categories.computeIfAbsent(dto.getCategoryId(),
+          categoryId -> findCategory(categoryId, currentAccountId));
+      O operation = buildNewOperation(dto, category);
+      deltas.merge(operation.getDate(), toSavingDelta(operation.getValue()), BigDecimal::add);
+      operations.add(operation);
+    });
+
+    Map<LocalDate, Long> savingIds = savingService.applyDeltas(deltas);
+    accountDataVersionService.bump(currentAccountId);
+    operations.forEach(operation -> operation.setSavingId(savingIds.get(operation.getDate())));
+
+    var saved = operationRepository.saveAll(operations)
+        .stream()
+        .map(operationMapper::toDto)
+        .toList();
+    categoryMonthTotalService.addAll(
+        currentAccountId, getOperationType(), operations, this::getCategoryId);
+    logCreateAll(saved);
+    return saved;
+  }
+
   /**
    * Updates an existing operation (Income or Expense) with new data.
    *
    * <p>This method handles two distinct update scenarios:
    * <ol>
-   *   <li><b>Date change:</b> When the operation date changes, the old operation is deleted
-   *       and a new one is created. This is necessary because changing the date affects
-   *       the associated {@code Saving} entity and requires recalculating savings for
-   *       multiple dates.</li>
+   *   <li><b>Date change:</b> The operation is moved to the new date by
+   *       {@link SavingService#move(LocalDate, BigDecimal, LocalDate, BigDecimal)}, which shifts
+   *       only savings between the old and the new dates. The operation row is updated in place
+   *       and keeps its ID, then the saving of the old date is removed if it became empty.</li>
    *   <li><b>Same date update:</b> When only non-date fields change (value, description, etc.),
    *       the operation is updated in place.</li>
    * </ol>
    *
-   * <p><b>Critical implementation detail - Avoiding optimistic locking errors:</b>
-   *
-   * <p>The {@code updatedOperation} is built as a new transient entity without an ID.
-   * The ID is deliberately set AFTER the date change check, not before. This ordering
-   * is crucial:
+   * <p><b>Implementation detail - Avoiding optimistic locking errors:</b>
    *
-   * <ul>
-   *   <li><b>For date changes:</b> The entity remains transient (no ID) when passed to
-   *       {@code saveNewOperation()}, allowing Hibernate to perform a proper INSERT for the
-   *       new operation.</li>
-   *   <li><b>For same-date updates:</b> The ID is set just before {@code save()}, making it
-   *       a detached entity with an ID. When {@code save()} is called, Hibernate performs
-   *       an UPDATE using the ID.</li>
-   * </ul>
-   *
-   * <p>Setting the ID earlier (before the date check) would cause the entity to have an ID
-   * when passed to {@code saveNewOperation()} for date changes, leading to Hibernate attempting
-   * a merge operation. This can trigger optimistic locking exceptions because the entity is
-   * detached and lacks proper version tracking.
+   * <p>The {@code updatedOperation} is built as a new transient entity and gets the ID of the
+   * existing one right before it is saved. When {@code save()} is called, Hibernate merges it
+   * into the managed entity loaded by {@code findByIdAndAccountId()} and performs an UPDATE
+   * using the ID.
    *
    * @param id the ID of the operation to update
    * @param dto the new operation data from the request
@@ -107,27 +154,35 @@ public abstract class BaseOperationService<
     );
     C category = findCategory(categoryId, currentAccountId);
 
-    // Build a new transient entity (no ID yet) with the updated data
+    // Build a new transient entity with the updated data
     O updatedOperation = buildNewOperation(dto, category);
 
     var oldDate = oldOperation.getDate();
     var date = updatedOperation.getDate();
-    
-    // Handle date change: delete old and create new
-    // Note: updatedOperation has no ID, so saveNewOperation() will INSERT
+    var oldValue = oldOperation.getValue();
+    var value = updatedOperation.getValue();
+
+    // Set ID to make the entity detached, allowing UPDATE on save()
+    updatedOperation.setId(id);
+
+    // Handle date change: move the operation between savings
     if (isChanged(oldDate, date)) {
-      deleteOperation(oldOperation, currentAccountId);
-      var savedDto = saveNewOperation(updatedOperation);
+      var savingId = savingService.move(
+          oldDate, toSavingDelta(oldValue), date, toSavingDelta(value));
+      updatedOperation.setSavingId(savingId);
+
+      // Flush the new saving id, so the old saving is seen without the operation
+      O saved = operationRepository.saveAndFlush(updatedOperation);
+      savingService.updateAfterDeletionOperation(oldDate);
+      categoryMonthTotalService.replace(getOperationType(),
+          getCategoryId(oldOperation), oldOperation, categoryId, updatedOperation);
+      accountDataVersionService.bump(currentAccountId);
+
+      var savedDto = operationMapper.toDto(saved);
       logUpdate(oldOperation, savedDto);
       return savedDto;
     }
 
-    // CRITICAL: Set ID only after date check to ensure proper Hibernate operation
-    // This makes the entity detached with an ID, allowing UPDATE on save()
-    updatedOperation.setId(id);
-    
-    var oldValue = oldOperation.getValue();
-    var value = updatedOperation.getValue();
     if (isChanged(oldValue, value)) {
       // Update savings and set the new savingId on the operation
       updateSavings(value, oldValue, date, updatedOperation);
@@ -138,6 +193,9 @@ public abstract class BaseOperationService<
 
     // Hibernate will perform UPDATE because updatedOperation has an ID
     O saved = operationRepository.save(updatedOperation);
+    categoryMonthTotalService.replace(getOperationType(),
+        getCategoryId(oldOperation), oldOperation, categoryId, updatedOperation);
+    accountDataVersionService.bump(currentAccountId);
 
     var savedDto = operationMapper.toDto(saved);
     logUpdate(oldOperation, savedDto);
@@ -157,6 +215,8 @@ public abstract class BaseOperationService<
                     id)));
 
     deleteOperation(operation, currentAccountId);
+    categoryMonthTotalService.subtract(getOperationType(), getCategoryId(operation), operation);
+    accountDataVersionService.bump(currentAccountId);
     logDelete(operation);
   }
 
@@ -175,6 +235,15 @@ public abstract class BaseOperationService<
 
   protected abstract O cloneOperation(O operation);
 
+  protected abstract OperationType getOperationType();
+
+  protected abstract Long getCategoryId(O operation);
+
+  /**
+   * Converts the value of an operation to the change of the saving balance.
+   */
+  protected abstract BigDecimal toSavingDelta(BigDecimal value);
+
   protected abstract void updateSavings(BigDecimal value,
                                         BigDecimal oldValue,
                                         LocalDate date,
@@ -184,6 +253,8 @@ public abstract class BaseOperationService<
 
   protected abstract void logCreate(OperationResponseDto operation);
 
+  protected abstract void logCreateAll(List<OperationResponseDto> operations);
+
   protected abstract void logUpdate(O oldOperation,
                                     OperationResponseDto newOperation);
 
@@ -0,0 +1,195 @@
+package ru.rgasymov.moneymanager.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.rgasymov.moneymanager.domain.CategoryMonthSum;
+import ru.rgasymov.moneymanager.domain.CategoryTotalsDrift;
+import ru.rgasymov.moneymanager.domain.dto.response.CategoryTotalsVerificationDto;
+import ru.rgasymov.moneymanager.domain.entity.BaseOperation;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+import ru.rgasymov.moneymanager.repository.CategoryMonthTotalRepository;
+
+/**
+ * Maintains sums and counts of operations by account, month, type and category.
+ *
+ * <p>Every write of operations changes the totals in its own transaction, so a report of
+ * any length reads a row per category and month instead of all operations of the range.
+ * Totals can be verified against the operations and recreated from them at any time.
+ */
+@Service
+@RequiredArgsConstructor
+public class CategoryMonthTotalService {
+
+  private final CategoryMonthTotalRepository categoryMonthTotalRepository;
+
+  private final UserService userService;
+
+  private final LedgerWriteCoordinator ledgerWriteCoordinator;
+
+  /**
+   * Adds a new operation to the totals.
+   *
+   * @param type       type of the operation
+   * @param categoryId category of the operation
+   * @param operation  the operation
+   */
+  @Transactional
+  public void add(OperationType type, Long categoryId, BaseOperation operation) {
+    upsert(operation.getAccountId(), type, categoryId, operation.getDate(),
+        operation.getValue(), 1);
+  }
+
+  /**
+   * Removes a deleted operation from the totals.
+   *
+   * @param type       type of the operation
+   * @param categoryId category of the operation
+   * @param operation  the operation
+   */
+  @Transactional
+  public void subtract(OperationType type, Long categoryId, BaseOperation operation) {
+    upsert(operation.getAccountId(), type, categoryId, operation.getDate(),
+        operation.getValue().negate(), -1);
+  }
+
+  /**
+   * Moves an updated operation between the totals.
+   * Changes a single total if neither the category nor the month of the operation is changed.
+   *
+   * @param type          type of the operation
+   * @param oldCategoryId category of the operation before the update
+   * @param oldOperation  the operation before the update
+   * @param newCategoryId category of the operation after the update
+   * @param newOperation  the operation after the update
+   */
+  @Transactional
+  public void replace(OperationType type,
+                      Long oldCategoryId,
+                      BaseOperation oldOperation,
+                      Long newCategoryId,
+                      BaseOperation newOperation) {
+    if (Objects.equals(oldCategoryId, newCategoryId)
+        && YearMonth.from(oldOperation.getDate()).equals(YearMonth.from(newOperation.getDate()))) {
+      var increment = newOperation.getValue().subtract(oldOperation.getValue());
+      if (increment.signum() != 0) {
+        upsert(newOperation.getAccountId(), type, newCategoryId, newOperation.getDate(),
+            increment, 0);
+      }
+      return;
+    }
+    subtract(type, oldCategoryId, oldOperation);
+    add(type, newCategoryId, newOperation);
+  }
+
+  /**
+   * Adds many new operations of the account to the totals.
+   * Operations are summed by category and month first, so a total is changed once
+   * regardless of the amount of its operations.
+   *
+   * @param accountId  account of the operations
+   * @param type       type of the operations
+   * @param operations the operations
+   * @param categoryId extracts the category of an operation
+   * @param <T>        type of the operations
+   */
+  @Transactional
+  public <T extends BaseOperation> void addAll(Long accountId,
+                                               OperationType type,
+                                               Collection<T> operations,
+                                               Function<T, Long> categoryId) {
+    var sums = new HashMap<TotalKey, Sum>();
+    for (T operation : operations) {
+      var key = new TotalKey(operation.getDate().withDayOfMonth(1), categoryId.apply(operation));
+      sums.computeIfAbsent(key, k -> new Sum()).add(operation.getValue());
+    }
+    sums.forEach((key, sum) -> categoryMonthTotalRepository.upsert(
+        accountId, key.month(), type.name(), key.categoryId(), sum.total, sum.count));
+  }
+
+  /**
+   * Finds sums of operations of the type by category and month.
+   *
+   * @param accountId account of the operations
+   * @param type      type of the operations
+   * @param from      the first month, inclusive
+   * @param to        the last month, inclusive
+   * @return the sums ordered by month
+   */
+  @Transactional(readOnly = true)
+  public List<CategoryMonthSum> findSums(Long accountId,
+                                         OperationType type,
+                                         YearMonth from,
+                                         YearMonth to) {
+    return categoryMonthTotalRepository.findSums(
+        accountId, type.name(), from.atDay(1), to.atDay(1));
+  }
+
+  /**
+   * Compares totals of the current account with the ones recomputed from its operations.
+   *
+   * @return the drift summary
+   */
+  @Transactional(readOnly = true)
+  public CategoryTotalsVerificationDto verify() {
+    var currentUser = userService.getCurrentUser();
+    var currentAccountId = currentUser.getCurrentAccount().getId();
+    return toVerificationDto(categoryMonthTotalRepository.verify(currentAccountId));
+  }
+
+  /**
+   * Recreates all totals of the account from its operations.
+   * Repairs any drift left by writes bypassing the services.
+   *
+   * @param accountId account of the totals
+   * @return the drift found before the rebuild and the number of created totals
+   */
+  @Transactional
+  public CategoryTotalsVerificationDto rebuild(Long accountId) {
+    ledgerWriteCoordinator.lock(accountId);
+    var result = toVerificationDto(categoryMonthTotalRepository.verify(accountId));
+    categoryMonthTotalRepository.deleteAllByAccountId(accountId);
+    result.setRebuiltTotals(categoryMonthTotalRepository.insertFromOperations(accountId));
+    return result;
+  }
+
+  private void upsert(Long accountId,
+                      OperationType type,
+                      Long categoryId,
+                      LocalDate date,
+                      BigDecimal increment,
+                      long countIncrement) {
+    categoryMonthTotalRepository.upsert(
+        accountId, date.withDayOfMonth(1), type.name(), categoryId, increment, countIncrement);
+  }
+
+  private CategoryTotalsVerificationDto toVerificationDto(CategoryTotalsDrift drift) {
+    return CategoryTotalsVerificationDto.builder()
+        .checkedTotals(drift.getCheckedTotals())
+        .driftedTotals(drift.getDriftedTotals())
+        .maxDrift(drift.getMaxDrift())
+        .firstDriftMonth(drift.getFirstDriftMonth())
+        .build();
+  }
+
+  private record TotalKey(LocalDate month, Long categoryId) {
+  }
+
+  private static class Sum {
+    private BigDecimal total = BigDecimal.ZERO;
+    private long count;
+
+    void add(BigDecimal value) {
+      total = total.add(value);
+      count++;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package ru.rgasymov.moneymanager.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rgasymov.moneymanager.repository.TransactionSnapshotRepository;
+
+/**
+ * Runs independent read-only queries of a request concurrently on virtual threads,
+ * so the request waits for the slowest query instead of the sum of all of them.
+ *
+ * <p>Every submitted query runs in its own read-only transaction and therefore takes
+ * a separate connection from the pool. Such connections are bounded per request
+ * and in total, the total being kept below the size of the pool. A request already holds
+ * a connection, so it never waits for another one: when no connection is left, the query
+ * runs on the caller thread instead. Queries submitted within a read-write transaction
+ * run on the caller thread too, since they must see its uncommitted writes.
+ *
+ * <p>Within a read-only transaction, queries run concurrently only if it is
+ * REPEATABLE READ or stricter. Its snapshot is exported once per request and imported
+ * by the transactions of the queries, so a page and its count see the same data
+ * as if they were read on one connection. Queries submitted within a READ COMMITTED
+ * transaction run on the caller thread, since every statement of it sees new data anyway
+ * and there is no snapshot to share.
+ *
+ * <p>Submitted queries must not depend on the security context or the persistence context
+ * of the caller.
+ */
+@Component
+public class ConcurrentReadExecutor {
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final TransactionTemplate readOnlyTransaction;
+  private final TransactionSnapshotRepository transactionSnapshotRepository;
+  private final Semaphore connections;
+  private final int maxConnectionsPerRequest;
+  private final boolean enabled;
+
+  public ConcurrentReadExecutor(
+      PlatformTransactionManager transactionManager,
+      TransactionSnapshotRepository transactionSnapshotRepository,
+      @Value("${saving.search-concurrency.enabled:true}") boolean enabled,
+      @Value("${saving.search-concurrency.max-connections:4}") int maxConnections,
+      @Value("${saving.search-concurrency.max-connections-per-request:2}")
+      int maxConnectionsPerRequest) {
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.readOnlyTransaction.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.transactionSnapshotRepository = transactionSnapshotRepository;
+    this.connections = new Semaphore(maxConnections);
+    this.maxConnectionsPerRequest = maxConnectionsPerRequest;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Starts reads of a request.
+   *
+   * @return the reads sharing the connection bound of the request
+   */
+  public Reads begin() {
+    return new Reads();
+  }
+
+  @PreDestroy
+  public void stop() {
+    executor.shutdown();
+  }
+
+  private boolean isConcurrencyAllowed() {
+    return enabled
+        && (!TransactionSynchronizationManager.isActualTransactionActive()
+        || (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        && hasSnapshot(TransactionSynchronizationManager.getCurrentTransactionIsolationLevel())));
+  }
+
+  private static boolean hasSnapshot(Integer isolationLevel) {
+    return isolationLevel != null
+        && isolationLevel >= TransactionDefinition.ISOLATION_REPEATABLE_READ;
+  }
+
+  private static <T> Supplier<T> completed(T result) {
+    return () -> result;
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Reads of a single request, must be used by the thread of the request only.
+   */
+  public final class Reads {
+
+    private final Semaphore requestConnections = new Semaphore(maxConnectionsPerRequest);
+    private String snapshotId;
+
+    private Reads() {
+    }
+
+    /**
+     * Starts the query concurrently if a connection is available,
+     * otherwise runs it right away on the caller thread.
+     *
+     * @param query the query
+     * @param <T>   type of the result
+     * @return waits for the result of the query and returns it, rethrows its failure
+     */
+    public <T> Supplier<T> submit(Supplier<T> query) {
+      if (!isConcurrencyAllowed()) {
+        return completed(query.get());
+      }
+      if (!requestConnections.tryAcquire()) {
+        return completed(query.get());
+      }
+      if (!connections.tryAcquire()) {
+        requestConnections.release();
+        return completed(query.get());
+      }
+      String snapshot;
+      try {
+        snapshot = exportSnapshot();
+      } catch (RuntimeException e) {
+        connections.release();
+        requestConnections.release();
+        throw e;
+      }
+      var future = CompletableFuture
+          .supplyAsync(() -> readOnlyTransaction.execute(status -> {
+            if (snapshot != null) {
+              transactionSnapshotRepository.importSnapshot(snapshot);
+            }
+            return query.get();
+          }), executor)
+          .whenComplete((result, e) -> {
+            connections.release();
+            requestConnections.release();
+          });
+      return () -> join(future);
+    }
+
+    /**
+     * Exports the snapshot of the transaction of the request once,
+     * returns null without a transaction.
+     */
+    private String exportSnapshot() {
+      if (snapshotId == null && TransactionSynchronizationManager.isActualTransactionActive()) {
+        snapshotId = transactionSnapshotRepository.export();
+      }
+      return snapshotId;
+    }
+  }
+}
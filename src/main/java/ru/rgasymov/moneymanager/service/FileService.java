@@ -19,6 +19,7 @@ public class FileService {
   private final XlsxFileService xlsxFileService;
   private final ImportService importService;
   private final SavingService savingService;
+  private final SavingReadService savingReadService;
   private final UserService userService;
 
   @Value("${xlsx.max-exported-rows}")
@@ -33,7 +34,7 @@ public class FileService {
     var criteria = new SavingCriteriaDto();
     criteria.setPageSize(maxExportedRows);
     var account = userService.getCurrentUserAsDto().getCurrentAccount();
-    var result = savingService.search(criteria);
+    var result = savingReadService.search(criteria);
     var savings = result.getResult();
     if (CollectionUtils.isEmpty(savings)) {
       throw new EmptyDataGenerationException("There is no data in current account to export");
@@ -44,7 +45,8 @@ public class FileService {
             account,
             savings,
             result.getIncomeCategories(),
-            result.getExpenseCategories()));
+            result.getExpenseCategories(),
+            savingService.findClosingBalances()));
   }
 
   public ResponseEntity<Resource> getXlsxTemplate() {
@@ -1,6 +1,7 @@
 package ru.rgasymov.moneymanager.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -57,6 +58,28 @@ public class HistoryService {
     );
   }
 
+  @Transactional
+  public void logCreateAll(List<OperationResponseDto> newOperations,
+                           OperationType operationType) {
+    var currentUser = userService.getCurrentUser();
+    var currentAccount = currentUser.getCurrentAccount();
+    var now = LocalDate.now();
+
+    var actions = new ArrayList<HistoryAction>(newOperations.size());
+    newOperations.forEach(newOperation -> {
+      newOperation.calculateOverdue(now);
+      actions.add(
+          HistoryAction
+              .builder()
+              .account(currentAccount)
+              .operationType(operationType)
+              .actionType(HistoryActionType.CREATE)
+              .newOperation(newOperation)
+              .build());
+    });
+    historyRepository.saveAll(actions);
+  }
+
   @Transactional
   public void logUpdate(OperationResponseDto oldOperation,
                         OperationResponseDto newOperation,
@@ -8,13 +8,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.BiFunction;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.rgasymov.moneymanager.domain.FileImportResult;
+import ru.rgasymov.moneymanager.domain.Money;
 import ru.rgasymov.moneymanager.domain.entity.Account;
 import ru.rgasymov.moneymanager.domain.entity.BaseOperation;
 import ru.rgasymov.moneymanager.domain.entity.BaseOperationCategory;
@@ -23,6 +25,7 @@ import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
 import ru.rgasymov.moneymanager.domain.entity.Income;
 import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
 import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
 import ru.rgasymov.moneymanager.repository.ExpenseCategoryRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
 import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
@@ -44,14 +47,22 @@ public class ImportService {
   private final ExpenseCategoryRepository expenseCategoryRepository;
 
   private final UserService userService;
+  private final SavingService savingService;
+  private final LedgerWriteCoordinator ledgerWriteCoordinator;
+  private final AccountDataVersionService accountDataVersionService;
+  private final CategoryMonthTotalService categoryMonthTotalService;
 
   @Transactional
   public void importFromFile(FileImportResult parsingResult) {
+    var currentAccountId = userService.getCurrentUser().getCurrentAccount().getId();
+    ledgerWriteCoordinator.lock(currentAccountId);
+    accountDataVersionService.bump(currentAccountId);
     if (accountService.isCurrentAccountEmpty()) {
       importToNewAccount(parsingResult);
-      return;
+    } else {
+      importToExistentAccount(parsingResult);
     }
-    importToExistentAccount(parsingResult);
+    savingService.rebuildLedger(currentAccountId);
   }
 
   private void importToNewAccount(FileImportResult parsingResult) {
@@ -66,16 +77,16 @@ public class ImportService {
           Saving.builder()
               .date(previousSavingsDate)
               .value(previousSavings)
+              .delta(previousSavings)
               .accountId(currentAccount.getId())
               .build());
+      //The ledger keeps the opening balance even if older operations are added later
+      accountService.setOpeningBalance(previousSavingsDate, previousSavings);
     }
 
-    final var incomes =
-        handleOperationsAndSavings(currentAccount, savingsMap, parsingResult.getIncomes(),
-            BigDecimal::add);
-    final var expenses =
-        handleOperationsAndSavings(currentAccount, savingsMap, parsingResult.getExpenses(),
-            BigDecimal::subtract);
+    final var incomes = sortByDate(parsingResult.getIncomes());
+    final var expenses = sortByDate(parsingResult.getExpenses());
+    recalculateSavings(currentAccount, savingsMap, incomes, expenses);
 
     final var savedSavings = savingRepository.saveAll(savingsMap.values());
     final var savedIncCategories =
@@ -95,12 +106,9 @@ public class ImportService {
         .stream()
         .collect(Collectors.toMap(Saving::getDate, Function.identity()));
 
-    final var incomes =
-        handleOperationsAndSavings(currentAccount, savingsMap, parsingResult.getIncomes(),
-            BigDecimal::add);
-    final var expenses =
-        handleOperationsAndSavings(currentAccount, savingsMap, parsingResult.getExpenses(),
-            BigDecimal::subtract);
+    final var incomes = sortByDate(parsingResult.getIncomes());
+    final var expenses = sortByDate(parsingResult.getExpenses());
+    recalculateSavings(currentAccount, savingsMap, incomes, expenses);
 
     final var savedSavings = savingRepository.saveAll(savingsMap.values());
     final var foundIncCategories =
@@ -146,21 +154,17 @@ public class ImportService {
     });
     incomeRepository.saveAll(incomes);
     expenseRepository.saveAll(expenses);
-  }
 
-  private <T extends BaseOperation> List<T> handleOperationsAndSavings(
-      final Account currentAccount,
-      final Map<LocalDate, Saving> savingsMap,
-      final List<T> operations,
-      final BiFunction<BigDecimal, BigDecimal, BigDecimal> setValueFunc) {
+    final var currentAccountId = userService.getCurrentUser().getCurrentAccount().getId();
+    categoryMonthTotalService.addAll(currentAccountId, OperationType.INCOME, incomes,
+        income -> income.getCategory().getId());
+    categoryMonthTotalService.addAll(currentAccountId, OperationType.EXPENSE, expenses,
+        expense -> expense.getCategory().getId());
+  }
 
+  private <T extends BaseOperation> List<T> sortByDate(List<T> operations) {
     final var operationsCopy = new ArrayList<>(operations);
     operationsCopy.sort(Comparator.comparing(BaseOperation::getDate));
-    operationsCopy.forEach(income -> {
-      final var date = income.getDate();
-      final var value = income.getValue();
-      recalculateMap(savingsMap, date, value, setValueFunc, currentAccount);
-    });
     return operationsCopy;
   }
 
@@ -184,33 +188,60 @@ public class ImportService {
         .collect(Collectors.toMap(BaseOperationCategory::getName, Function.identity()));
   }
 
-  private void recalculateMap(Map<LocalDate, Saving> savings,
-                              LocalDate date,
-                              BigDecimal value,
-                              BiFunction<BigDecimal, BigDecimal, BigDecimal> setValueFunc,
-                              Account currentAccount) {
-    final var saving = savings.get(date);
-
-    if (saving != null) {
-      saving.setValue(setValueFunc.apply(saving.getValue(), value));
-    } else {
-      var lastSavingValue = savings.values()
-          .stream()
-          .filter(s -> s.getDate().isBefore(date))
-          .max(Comparator.comparing(Saving::getDate))
-          .map(Saving::getValue)
-          .orElse(BigDecimal.ZERO);
-
-      var newSaving = Saving.builder()
-          .date(date)
-          .value(setValueFunc.apply(lastSavingValue, value))
-          .accountId(currentAccount.getId())
-          .build();
-      savings.put(date, newSaving);
+  /**
+   * Applies imported operations to the savings, creating missing savings of their dates.
+   *
+   * <p>Operations are folded into net changes per day, then all balances are computed
+   * in a single pass over the dates in order: a balance is the balance of the latest
+   * existing saving up to the date plus the changes of all days up to the date.
+   * Amounts are summed as minor units, see {@link Money}.
+   *
+   * @param currentAccount account of new savings
+   * @param savings        existing savings by date, new savings are put here
+   * @param incomes        imported incomes
+   * @param expenses       imported expenses
+   */
+  private void recalculateSavings(Account currentAccount,
+                                  Map<LocalDate, Saving> savings,
+                                  List<Income> incomes,
+                                  List<Expense> expenses) {
+    final var dailyChanges = new TreeMap<LocalDate, Long>();
+    incomes.forEach(income -> dailyChanges.merge(
+        income.getDate(), Money.toMinorUnits(income.getValue()), Math::addExact));
+    expenses.forEach(expense -> dailyChanges.merge(
+        expense.getDate(), Math.negateExact(Money.toMinorUnits(expense.getValue())),
+        Math::addExact));
+
+    final var dates = new TreeSet<>(savings.keySet());
+    dates.addAll(dailyChanges.keySet());
+
+    long lastExistingValue = 0;
+    long totalChange = 0;
+    for (var date : dates) {
+      final long change = dailyChanges.getOrDefault(date, 0L);
+      totalChange = Math.addExact(totalChange, change);
+
+      var saving = savings.get(date);
+      if (saving == null) {
+        saving = Saving.builder()
+            .date(date)
+            .value(BigDecimal.ZERO)
+            .delta(BigDecimal.ZERO)
+            .accountId(currentAccount.getId())
+            .build();
+        savings.put(date, saving);
+      } else {
+        lastExistingValue = Money.toMinorUnits(saving.getValue());
+      }
+
+      if (dailyChanges.containsKey(date)) {
+        saving.setDelta(Money.ofMinorUnits(
+            Math.addExact(Money.toMinorUnits(saving.getDelta()), change)).toBigDecimal());
+      }
+      if (totalChange != 0 || dailyChanges.containsKey(date)) {
+        saving.setValue(Money.ofMinorUnits(
+            Math.addExact(lastExistingValue, totalChange)).toBigDecimal());
+      }
     }
-    savings.values()
-        .stream()
-        .filter(s -> s.getDate().isAfter(date))
-        .forEach(s -> s.setValue(setValueFunc.apply(s.getValue(), value)));
   }
 }
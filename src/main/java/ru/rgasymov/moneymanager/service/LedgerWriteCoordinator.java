@@ -0,0 +1,149 @@
+package ru.rgasymov.moneymanager.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.rgasymov.moneymanager.repository.SavingRepository;
+
+/**
+ * Serializes ledger writes of an account while keeping different accounts parallel.
+ *
+ * <p>A write first takes an in-process lock of the account, so concurrent requests
+ * of one replica queue up in the process and at most one of them waits in the database,
+ * then a transaction-level advisory lock of the account, which serializes writes
+ * of different replicas. Both locks are held until the end of the transaction.
+ * Locks are taken within the transaction of a write, so a queued writer still holds
+ * its database connection while it waits.
+ * Overlapping range updates of savings are therefore never run concurrently for one account
+ * and cannot deadlock each other. In-process locks exist only while they are held or awaited,
+ * so writes of different accounts never wait for each other.
+ *
+ * <p>A transaction must not lock an account already locked by a suspended transaction
+ * of the same thread, e.g. one started with {@code REQUIRES_NEW}: the in-process lock is
+ * reentrant, but the advisory lock is held by the connection of the suspended transaction
+ * and would be awaited forever. Such a lock fails fast.
+ */
+@Component
+public class LedgerWriteCoordinator {
+
+  private final SavingRepository savingRepository;
+
+  private final ConcurrentMap<Long, AccountLock> locks = new ConcurrentHashMap<>();
+
+  private final Timer lockWaitTimer;
+
+  public LedgerWriteCoordinator(SavingRepository savingRepository, MeterRegistry meterRegistry) {
+    this.savingRepository = savingRepository;
+    this.lockWaitTimer = Timer.builder("saving.ledger.lock.wait")
+        .description("Time spent waiting for the ledger write lock of an account")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Locks ledger writes of the account until the end of the current transaction.
+   * Repeated calls within one transaction are no-ops.
+   *
+   * @param accountId account to lock
+   * @throws IllegalStateException if there is no active transaction or the account is locked
+   *                               by a suspended transaction of the current thread
+   */
+  public void lock(Long accountId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Ledger writes must be locked within a transaction");
+    }
+    var held = heldLocks();
+    if (held.locks.containsKey(accountId)) {
+      return;
+    }
+
+    var accountLock = acquire(accountId);
+    if (accountLock.lock.isHeldByCurrentThread()) {
+      release(accountId, accountLock);
+      throw new IllegalStateException(String.format(
+          "Ledger of the account %s is locked by a suspended transaction of the thread",
+          accountId));
+    }
+    var start = System.nanoTime();
+    accountLock.lock.lock();
+    try {
+      savingRepository.lockAccount(accountId);
+    } catch (RuntimeException e) {
+      accountLock.lock.unlock();
+      release(accountId, accountLock);
+      throw e;
+    }
+    lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    held.locks.put(accountId, accountLock);
+  }
+
+  /**
+   * Returns the lock of the account registering the current thread as its user.
+   */
+  private AccountLock acquire(Long accountId) {
+    return locks.compute(accountId, (id, accountLock) -> {
+      var result = accountLock == null ? new AccountLock() : accountLock;
+      result.users++;
+      return result;
+    });
+  }
+
+  /**
+   * Unregisters a user of the lock of the account, the lock is dropped without users.
+   */
+  private void release(Long accountId, AccountLock accountLock) {
+    locks.computeIfPresent(accountId, (id, current) ->
+        current == accountLock && --current.users == 0 ? null : current);
+  }
+
+  /**
+   * Returns locks of the current transaction. They are kept in a synchronization
+   * rather than in a bound resource, so a suspended outer transaction does not share them
+   * with an inner one.
+   */
+  private HeldLocks heldLocks() {
+    for (var synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      if (synchronization instanceof HeldLocks held && held.owner() == this) {
+        return held;
+      }
+    }
+    var held = new HeldLocks();
+    TransactionSynchronizationManager.registerSynchronization(held);
+    return held;
+  }
+
+  /**
+   * In-process lock of an account with the amount of threads holding or awaiting it.
+   * The amount is changed only within the computations of the map of locks.
+   */
+  private static final class AccountLock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private int users;
+  }
+
+  private class HeldLocks implements TransactionSynchronization {
+
+    private final Map<Long, AccountLock> locks = new LinkedHashMap<>();
+
+    private LedgerWriteCoordinator owner() {
+      return LedgerWriteCoordinator.this;
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      locks.forEach((accountId, accountLock) -> {
+        accountLock.lock.unlock();
+        release(accountId, accountLock);
+      });
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package ru.rgasymov.moneymanager.service;
 
+import java.util.List;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
 import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
 import ru.rgasymov.moneymanager.domain.entity.BaseOperation;
@@ -10,6 +11,8 @@ public interface OperationService<T extends BaseOperation> {
 
   void create(T entity);
 
+  List<OperationResponseDto> createAll(List<OperationRequestDto> dtos);
+
   OperationResponseDto update(Long id, OperationRequestDto dto);
 
   void delete(Long id);
@@ -0,0 +1,253 @@
+package ru.rgasymov.moneymanager.service;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.rgasymov.moneymanager.repository.SavingRepository;
+
+/**
+ * Defers recalculation of later savings in the
+ * {@link ru.rgasymov.moneymanager.domain.enums.LedgerMode#CASCADE} mode.
+ *
+ * <p>Instead of shifting all later savings on every write, a write records its increment here.
+ * Increments of a transaction become pending after its commit and are merged with the pending
+ * increments of the account. A flush applies all of them with one range update per span between
+ * two changed dates, so every saving is rewritten at most once however many writes there were.
+ * Pending increments are flushed on a short timer and before reads of stored values.
+ *
+ * <p>A new saving copies the value of the previous one without the increments pending
+ * since the date of the previous one, so the flush shifts it like any other later saving.
+ * Pending increments live in memory of the instance, so the buffer suits a single instance:
+ * other instances see the writes after the flush delay, and increments lost by a crash
+ * are repaired by the ledger rebuild on the next start (see {@link SavingLedgerRecovery}).
+ */
+@Component
+@Slf4j
+public class SavingCascadeBuffer {
+
+  private final SavingRepository savingRepository;
+  private final LedgerWriteCoordinator ledgerWriteCoordinator;
+  private final AccountDataVersionService accountDataVersionService;
+  private final TransactionTemplate flushTransaction;
+  private final boolean enabled;
+
+  /**
+   * Committed but not flushed increments by account. Changed only under the ledger lock
+   * of the account.
+   */
+  private final ConcurrentMap<Long, NavigableMap<LocalDate, BigDecimal>> pending =
+      new ConcurrentHashMap<>();
+
+  public SavingCascadeBuffer(SavingRepository savingRepository,
+                             LedgerWriteCoordinator ledgerWriteCoordinator,
+                             AccountDataVersionService accountDataVersionService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${saving.ledger.write-behind.enabled:false}")
+                             boolean enabled) {
+    this.savingRepository = savingRepository;
+    this.ledgerWriteCoordinator = ledgerWriteCoordinator;
+    this.accountDataVersionService = accountDataVersionService;
+    this.flushTransaction = new TransactionTemplate(transactionManager);
+    this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records that savings of the account after the date must be shifted by the increment.
+   * The increment is dropped if the current transaction is rolled back.
+   *
+   * @param accountId account of the savings
+   * @param date      date of the changed saving
+   * @param increment signed change of the balance
+   */
+  public void record(Long accountId, LocalDate date, BigDecimal increment) {
+    if (increment.signum() == 0) {
+      return;
+    }
+    transactionIncrements(accountId).merge(date, increment, BigDecimal::add);
+  }
+
+  /**
+   * Returns the sum of increments pending from the date of the last saving before the date
+   * up to the date, including the ones of the current transaction. The last saving
+   * already includes them, while later savings get them only from the flush.
+   * Must be called under the ledger lock of the account.
+   *
+   * @param accountId account of the savings
+   * @param date      date of a saving to create
+   * @return the sum, zero if nothing is pending before the date
+   */
+  public BigDecimal pendingSincePreviousSaving(Long accountId, LocalDate date) {
+    var committed = pending.getOrDefault(accountId, new TreeMap<>());
+    var current = transactionIncrements(accountId);
+    if (committed.headMap(date).isEmpty() && current.headMap(date).isEmpty()) {
+      return BigDecimal.ZERO;
+    }
+    return savingRepository.findFirstByDateLessThanAndAccountIdOrderByDateDesc(date, accountId)
+        .map(previous -> sum(committed.subMap(previous.getDate(), date))
+            .add(sum(current.subMap(previous.getDate(), date))))
+        .orElse(BigDecimal.ZERO);
+  }
+
+  /**
+   * Applies pending increments of the account and the ones of the current transaction
+   * within the current transaction.
+   *
+   * @param accountId account of the savings
+   */
+  public void flush(Long accountId) {
+    ledgerWriteCoordinator.lock(accountId);
+    var committed = takeIncrements(accountId);
+    var merged = new TreeMap<>(committed);
+    transactionIncrements(accountId).forEach((date, increment) ->
+        merged.merge(date, increment, BigDecimal::add));
+    transactionIncrements(accountId).clear();
+    apply(accountId, merged);
+    if (!merged.isEmpty()) {
+      //Readers may have cached stored values read before the flush
+      accountDataVersionService.bump(accountId);
+    }
+  }
+
+  /**
+   * Applies pending increments of the account in a separate transaction,
+   * so a following read sees up-to-date values. Does nothing if there are none.
+   * Must be called before the read transaction starts: within it, the read would hold
+   * a second connection, and a transaction holding the ledger lock of the account
+   * would fail the flush instead of waiting for the lock forever
+   * (see {@link LedgerWriteCoordinator}).
+   *
+   * @param accountId account of the savings
+   */
+  public void flushCommitted(Long accountId) {
+    if (!enabled || !pending.containsKey(accountId)) {
+      return;
+    }
+    flushTransaction.executeWithoutResult(status -> flush(accountId));
+  }
+
+  @Scheduled(fixedDelayString = "${saving.ledger.write-behind.flush-delay-ms:200}")
+  @PreDestroy
+  public void flushAll() {
+    for (var accountId : pending.keySet()) {
+      try {
+        flushCommitted(accountId);
+      } catch (RuntimeException e) {
+        log.error("# Failed to flush pending savings of the account {}", accountId, e);
+      }
+    }
+  }
+
+  /**
+   * Returns committed pending increments of the account. They are removed after the commit
+   * of the current transaction, so they stay pending if it is rolled back.
+   */
+  private NavigableMap<LocalDate, BigDecimal> takeIncrements(Long accountId) {
+    var committed = pending.get(accountId);
+    if (committed == null) {
+      return new TreeMap<>();
+    }
+    var taken = new TreeMap<>(committed);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        pending.computeIfPresent(accountId, (id, increments) -> {
+          taken.forEach((date, increment) -> increments.computeIfPresent(date,
+              (d, value) -> nullIfZero(value.subtract(increment))));
+          return increments.isEmpty() ? null : increments;
+        });
+      }
+    });
+    return taken;
+  }
+
+  /**
+   * Shifts every span between two consecutive changed dates by the sum of all increments
+   * before it. The savings of the account are locked until the end of the transaction.
+   */
+  private void apply(Long accountId, NavigableMap<LocalDate, BigDecimal> increments) {
+    var cumulative = BigDecimal.ZERO;
+    LocalDate previousDate = null;
+    for (var entry : increments.entrySet()) {
+      if (previousDate != null && cumulative.signum() != 0) {
+        savingRepository.increaseValueByDateBetween(
+            cumulative, previousDate, entry.getKey().plusDays(1), accountId);
+      }
+      cumulative = cumulative.add(entry.getValue());
+      previousDate = entry.getKey();
+    }
+    if (previousDate != null && cumulative.signum() != 0) {
+      savingRepository.increaseValueByDateGreaterThan(cumulative, previousDate, accountId);
+    }
+  }
+
+  /**
+   * Returns increments of the account recorded in the current transaction.
+   * They become pending after its commit.
+   */
+  private NavigableMap<LocalDate, BigDecimal> transactionIncrements(Long accountId) {
+    return transactionIncrements().computeIfAbsent(accountId, id -> new TreeMap<>());
+  }
+
+  private Map<Long, NavigableMap<LocalDate, BigDecimal>> transactionIncrements() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Savings must be changed within a transaction");
+    }
+    for (var synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      if (synchronization instanceof TransactionIncrements increments
+          && increments.owner() == this) {
+        return increments.byAccount;
+      }
+    }
+    var increments = new TransactionIncrements();
+    TransactionSynchronizationManager.registerSynchronization(increments);
+    return increments.byAccount;
+  }
+
+  private static BigDecimal sum(Map<LocalDate, BigDecimal> increments) {
+    return increments.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+  }
+
+  private static BigDecimal nullIfZero(BigDecimal value) {
+    return value.signum() == 0 ? null : value;
+  }
+
+  private class TransactionIncrements implements TransactionSynchronization {
+
+    private final Map<Long, NavigableMap<LocalDate, BigDecimal>> byAccount = new HashMap<>();
+
+    private SavingCascadeBuffer owner() {
+      return SavingCascadeBuffer.this;
+    }
+
+    @Override
+    public void afterCommit() {
+      byAccount.forEach((accountId, increments) -> increments.forEach((date, increment) ->
+          pending.compute(accountId, (id, current) -> {
+            var merged = current == null ? new TreeMap<LocalDate, BigDecimal>() : current;
+            merged.compute(date, (d, value) ->
+                nullIfZero(value == null ? increment : value.add(increment)));
+            return merged.isEmpty() ? null : merged;
+          })));
+    }
+  }
+}
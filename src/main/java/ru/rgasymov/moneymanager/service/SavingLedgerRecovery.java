@@ -0,0 +1,45 @@
+package ru.rgasymov.moneymanager.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.rgasymov.moneymanager.repository.AccountRepository;
+
+/**
+ * Repairs stored values of savings after a restart with write-behind enabled.
+ *
+ * <p>Deferred recalculations live in memory (see {@link SavingCascadeBuffer}), so the ones
+ * pending when the previous instance stopped are lost. Deltas of savings are always up to date,
+ * so the ledger of every account is rebuilt from them once the application is ready.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SavingLedgerRecovery {
+
+  private final SavingCascadeBuffer savingCascadeBuffer;
+
+  private final SavingService savingService;
+
+  private final AccountRepository accountRepository;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildLedgers() {
+    if (!savingCascadeBuffer.isEnabled()) {
+      return;
+    }
+    for (var accountId : accountRepository.findAllIds()) {
+      try {
+        var result = savingService.rebuildLedger(accountId);
+        if (result.getRebuiltSavings() != null && result.getRebuiltSavings() > 0) {
+          log.info("# Rebuilt {} savings of the account {} after a restart",
+              result.getRebuiltSavings(), accountId);
+        }
+      } catch (RuntimeException e) {
+        log.error("# Failed to rebuild savings of the account {} after a restart", accountId, e);
+      }
+    }
+  }
+}
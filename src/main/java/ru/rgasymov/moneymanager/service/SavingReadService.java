@@ -0,0 +1,55 @@
+package ru.rgasymov.moneymanager.service;
+
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.rgasymov.moneymanager.domain.dto.request.SavingCriteriaDto;
+import ru.rgasymov.moneymanager.domain.dto.response.LedgerVerificationDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingColumnarResultDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingSearchResultDto;
+
+/**
+ * Reads stored values of savings of the current account, seeing the writes
+ * of the current user.
+ *
+ * <p>Deferred recalculations of the account (see {@link SavingCascadeBuffer}) are flushed
+ * before the read transaction of {@link SavingService} starts, so a read never holds
+ * a second connection or waits for the ledger lock of the account within its transaction.
+ * Methods of this service must not be called within a transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class SavingReadService {
+
+  private final SavingService savingService;
+
+  private final SavingCascadeBuffer savingCascadeBuffer;
+
+  private final UserService userService;
+
+  public SavingSearchResultDto search(SavingCriteriaDto criteria) {
+    flushCommitted();
+    return savingService.search(criteria);
+  }
+
+  public SavingColumnarResultDto searchColumnar(SavingCriteriaDto criteria) {
+    flushCommitted();
+    return savingService.searchColumnar(criteria);
+  }
+
+  public void stream(SavingCriteriaDto criteria, Consumer<SavingResponseDto> consumer) {
+    flushCommitted();
+    savingService.stream(criteria, consumer);
+  }
+
+  public LedgerVerificationDto verifyLedger() {
+    flushCommitted();
+    return savingService.verifyLedger();
+  }
+
+  private void flushCommitted() {
+    var currentUser = userService.getCurrentUser();
+    savingCascadeBuffer.flushCommitted(currentUser.getCurrentAccount().getId());
+  }
+}
@@ -0,0 +1,182 @@
+package ru.rgasymov.moneymanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.rgasymov.moneymanager.domain.dto.request.SavingCriteriaDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingSearchResultDto;
+import ru.rgasymov.moneymanager.domain.enums.Period;
+import ru.rgasymov.moneymanager.domain.enums.SavingFieldToSort;
+
+/**
+ * Caches pages of the savings search by account, criteria and version of data of the account
+ * (see {@link AccountDataVersionService}).
+ *
+ * <p>A write changes the version, so pages computed before it are never returned again
+ * and are evicted in time by the weight bound. Entries are weighed by an estimate
+ * of their heap size and expire after a while, so pages of idle accounts do not wait
+ * for eviction. Pages computed within a read-write transaction may contain its uncommitted
+ * writes, so they are not cached. Pages heavier than
+ * {@code saving.search-cache.max-page-weight-bytes}, e.g. the whole history read by the XLSX
+ * export, are not cached either: they are hardly requested again and would evict pages
+ * of many other accounts. Pages mark overdue operations, so they are cached
+ * by the current date as well.
+ * Hits, misses, evictions and the weighted size are exposed as {@code cache.*}
+ * metrics tagged with {@code cache=savingSearch}.
+ */
+@Component
+public class SavingSearchCache {
+
+  private static final String NAME = "savingSearch";
+
+  private static final int ENTRY_WEIGHT = 512;
+  private static final int SAVING_WEIGHT = 256;
+  private static final int OPERATION_WEIGHT = 320;
+  private static final int CATEGORY_SUM_WEIGHT = 96;
+
+  private final Cache<Key, SavingSearchResultDto> cache;
+  private final boolean enabled;
+  private final long maxPageWeight;
+
+  public SavingSearchCache(MeterRegistry meterRegistry,
+                           @Value("${saving.search-cache.enabled:true}") boolean enabled,
+                           @Value("${saving.search-cache.max-weight-bytes:67108864}")
+                           long maxWeight,
+                           @Value("${saving.search-cache.max-page-weight-bytes:2097152}")
+                           long maxPageWeight,
+                           @Value("${saving.search-cache.ttl-seconds:300}") long ttlSeconds) {
+    this.enabled = enabled;
+    this.maxPageWeight = maxPageWeight;
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maxWeight)
+        .weigher((Key key, SavingSearchResultDto page) -> weigh(page))
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    Gauge.builder("cache.weighted.size", cache,
+            c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+        .description("Estimated heap size of cached pages in bytes")
+        .tag("cache", NAME)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns the cached page of the criteria or computes and caches it.
+   *
+   * @param accountId account of the savings
+   * @param version   version of data of the account read before the computation
+   * @param criteria  the search criteria
+   * @param search    computes the page
+   * @return the page, shared by all callers and therefore must not be changed
+   */
+  public SavingSearchResultDto get(Long accountId,
+                                   long version,
+                                   SavingCriteriaDto criteria,
+                                   Supplier<SavingSearchResultDto> search) {
+    if (!enabled
+        || (TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+      return search.get();
+    }
+    var key = Key.of(accountId, version, criteria);
+    var page = cache.getIfPresent(key);
+    if (page == null) {
+      page = search.get();
+      if (weigh(page) <= maxPageWeight) {
+        cache.put(key, page);
+      }
+    }
+    return page;
+  }
+
+  private static int weigh(SavingSearchResultDto page) {
+    long weight = ENTRY_WEIGHT;
+    for (SavingResponseDto saving : page.getResult()) {
+      weight += SAVING_WEIGHT
+          + OPERATION_WEIGHT * (count(saving.getIncomesByCategory())
+          + count(saving.getExpensesByCategory()))
+          + CATEGORY_SUM_WEIGHT * (size(saving.getIncomesSumByCategory())
+          + size(saving.getExpensesSumByCategory()));
+    }
+    return (int) Math.min(weight, Integer.MAX_VALUE);
+  }
+
+  private static long count(Map<String, List<OperationResponseDto>> operations) {
+    if (operations == null) {
+      return 0;
+    }
+    long count = 0;
+    for (var categoryOperations : operations.values()) {
+      count += categoryOperations.size();
+    }
+    return count;
+  }
+
+  private static int size(Map<?, ?> map) {
+    return map == null ? 0 : map.size();
+  }
+
+  /**
+   * Criteria of a search normalized, so equal searches written differently share an entry.
+   */
+  private record Key(Long accountId,
+                     long version,
+                     LocalDate today,
+                     LocalDate from,
+                     LocalDate to,
+                     SavingFieldToSort sortBy,
+                     Sort.Direction sortDirection,
+                     Integer pageNum,
+                     Integer pageSize,
+                     String after,
+                     boolean withTotal,
+                     Period groupBy,
+                     boolean sumsOnly,
+                     List<Long> incomeCategoryIds,
+                     List<Long> expenseCategoryIds,
+                     String searchText) {
+
+    private static Key of(Long accountId, long version, SavingCriteriaDto criteria) {
+      return new Key(
+          accountId,
+          version,
+          LocalDate.now(),
+          criteria.getFrom(),
+          criteria.getTo(),
+          criteria.getSortBy(),
+          criteria.getSortDirection(),
+          criteria.getPageNum(),
+          criteria.getPageSize(),
+          criteria.getAfter(),
+          criteria.isWithTotal(),
+          criteria.getGroupBy(),
+          criteria.isSumsOnly(),
+          normalize(criteria.getIncomeCategoryIds()),
+          normalize(criteria.getExpenseCategoryIds()),
+          StringUtils.isBlank(criteria.getSearchText())
+              ? null
+              : criteria.getSearchText().trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static List<Long> normalize(List<Long> ids) {
+      return ids == null ? List.of() : ids.stream().distinct().sorted().toList();
+    }
+  }
+}
@@ -1,42 +1,55 @@
 package ru.rgasymov.moneymanager.service;
 
-import static ru.rgasymov.moneymanager.util.SpecUtils.andOptionally;
-
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ValidationException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.function.BiFunction;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.rgasymov.moneymanager.domain.CheckedCategories;
+import ru.rgasymov.moneymanager.domain.LedgerDrift;
+import ru.rgasymov.moneymanager.domain.SavingBalance;
+import ru.rgasymov.moneymanager.domain.SavingCursor;
+import ru.rgasymov.moneymanager.domain.SavingOperationRow;
 import ru.rgasymov.moneymanager.domain.dto.request.SavingCriteriaDto;
-import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.LedgerVerificationDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingColumnarResultDto;
 import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
 import ru.rgasymov.moneymanager.domain.dto.response.SavingSearchResultDto;
-import ru.rgasymov.moneymanager.domain.entity.Expense;
-import ru.rgasymov.moneymanager.domain.entity.Income;
 import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.entity.Saving_;
+import ru.rgasymov.moneymanager.domain.enums.LedgerMode;
 import ru.rgasymov.moneymanager.domain.enums.Period;
+import ru.rgasymov.moneymanager.domain.enums.SavingFieldToSort;
+import ru.rgasymov.moneymanager.mapper.SavingColumnarMapper;
 import ru.rgasymov.moneymanager.mapper.SavingGroupMapper;
-import ru.rgasymov.moneymanager.mapper.SavingMapper;
-import ru.rgasymov.moneymanager.repository.ExpenseRepository;
-import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.mapper.SavingRowMapper;
+import ru.rgasymov.moneymanager.repository.SavingCheckpointRepository;
+import ru.rgasymov.moneymanager.repository.SavingPeriodRepository;
+import ru.rgasymov.moneymanager.repository.SavingPeriodRepository.PeriodCriteria;
+import ru.rgasymov.moneymanager.repository.SavingReadRepository;
+import ru.rgasymov.moneymanager.repository.SavingReadRepository.StreamCriteria;
 import ru.rgasymov.moneymanager.repository.SavingRepository;
 import ru.rgasymov.moneymanager.service.expense.ExpenseCategoryService;
 import ru.rgasymov.moneymanager.service.income.IncomeCategoryService;
-import ru.rgasymov.moneymanager.spec.BaseOperationSpec;
-import ru.rgasymov.moneymanager.spec.ExpenseSpec;
-import ru.rgasymov.moneymanager.spec.IncomeSpec;
 import ru.rgasymov.moneymanager.spec.SavingSpec;
 
 @Service
@@ -44,15 +57,25 @@ import ru.rgasymov.moneymanager.spec.SavingSpec;
 public class SavingService {
 
   private final SavingRepository savingRepository;
-  private final IncomeRepository incomeRepository;
-  private final ExpenseRepository expenseRepository;
+  private final SavingCheckpointRepository savingCheckpointRepository;
+  private final SavingPeriodRepository savingPeriodRepository;
+  private final SavingReadRepository savingReadRepository;
 
-  private final SavingMapper savingMapper;
+  private final SavingRowMapper savingRowMapper;
   private final SavingGroupMapper savingGroupMapper;
+  private final SavingColumnarMapper savingColumnarMapper;
 
   private final UserService userService;
   private final IncomeCategoryService incomeCategoryService;
   private final ExpenseCategoryService expenseCategoryService;
+  private final LedgerWriteCoordinator ledgerWriteCoordinator;
+  private final SavingCascadeBuffer savingCascadeBuffer;
+  private final AccountDataVersionService accountDataVersionService;
+  private final SavingSearchCache savingSearchCache;
+  private final ConcurrentReadExecutor concurrentReadExecutor;
+
+  @Value("${saving.ledger.mode:CASCADE}")
+  private LedgerMode ledgerMode = LedgerMode.CASCADE;
 
   /**
    * Searches for savings based on the provided criteria and returns paginated results.
@@ -61,219 +84,655 @@ public class SavingService {
    * <ol>
    *   <li>Retrieves the current user and their active account</li>
    *   <li>Loads income and expense categories, marking selected ones as checked</li>
+   *   <li>Returns the cached page if data of the account is not changed since it was computed
+   *       (see {@link SavingSearchCache})</li>
+   *   <li>For periods longer than a day aggregates savings by periods in the database
+   *       (see {@link SavingPeriodRepository})</li>
    *   <li>Builds a JPA Specification from the criteria (date range, category filters, search text)</li>
-   *   <li>Executes a paginated query to find matching Saving entities</li>
-   *   <li><b>Explicitly filters operations</b> - replaces lazy-loaded collections with filtered results
-   *       (see {@link #fillOperationsExplicitly(List, SavingCriteriaDto)})</li>
-   *   <li>Maps entities to DTOs, either grouped by period or as individual days</li>
+   *   <li>Executes a paginated query to find matching Saving entities,
+   *       counting them concurrently</li>
+   *   <li>Reads operations of the found savings matching the filters as flat rows
+   *       in one statement (see {@link SavingReadRepository}), in the {@link LedgerMode#DELTA}
+   *       mode concurrently with balances of the savings derived from per-day deltas</li>
+   *   <li>Builds DTOs of the savings from the rows in a single pass</li>
    *   <li>Returns the result with total count and category lists</li>
    * </ol>
    *
-   * <p><b>Important:</b> The {@code fillOperationsExplicitly} call is crucial when filtering by categories
-   * or search text. Without it, the mapper would access lazy-loaded collections containing ALL operations
-   * for the found savings, not just the filtered ones, resulting in incorrect data in the response.
+   * <p><b>Important:</b> Operations are filtered by the same categories and search text
+   * as the savings. The lazy collections of the found savings are never accessed,
+   * since they contain ALL operations of the savings, not just the filtered ones.
+   *
+   * <p>Stored values include deferred recalculations only if they are flushed
+   * before the transaction starts, so reads go through {@link SavingReadService}.
+   *
+   * <p>Independent queries run on separate connections within the bounds
+   * of {@link ConcurrentReadExecutor}. The transaction is REPEATABLE READ,
+   * so they share its snapshot and a page agrees with its count.
    *
    * @param criteria search criteria including date range, pagination, sorting, category filters, and search text
    * @return search result containing filtered savings, total count, and category lists
    */
-  @Transactional(readOnly = true)
+  @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
   public SavingSearchResultDto search(SavingCriteriaDto criteria) {
     var currentUser = userService.getCurrentUser();
     var currentAccountId = currentUser.getCurrentAccount().getId();
+    var version = accountDataVersionService.getVersion(currentAccountId);
 
+    //Categories are cached, so they are not worth a connection of their own
     var incCategories =
         incomeCategoryService.findAllAndSetChecked(
             currentAccountId, criteria.getIncomeCategoryIds());
     var expCategories =
         expenseCategoryService.findAllAndSetChecked(
             currentAccountId, criteria.getExpenseCategoryIds());
+    var reads = concurrentReadExecutor.begin();
 
-    Specification<Saving> criteriaAsSpec =
-        applySavingCriteria(criteria, incCategories, expCategories);
+    var page = savingSearchCache.get(currentAccountId, version, criteria,
+        () -> criteria.getGroupBy() != Period.DAY
+            ? searchPeriods(currentAccountId, criteria, incCategories, expCategories)
+            : searchDays(currentAccountId, criteria, incCategories, expCategories, reads));
 
-    Page<Saving> page = savingRepository.findAll(criteriaAsSpec,
-        PageRequest.of(
-            criteria.getPageNum(),
-            criteria.getPageSize(),
-            Sort.by(criteria.getSortDirection(),
-                criteria.getSortBy().getFieldName())));
-    var savings = page.getContent();
+    return SavingSearchResultDto
+        .builder()
+        .result(page.getResult())
+        .totalElements(page.getTotalElements())
+        .nextCursor(page.getNextCursor())
+        .incomeCategories(incCategories)
+        .expenseCategories(expCategories)
+        .build();
+  }
 
-    fillOperationsExplicitly(savings, criteria);
+  /**
+   * Searches for savings like {@link #search} does and lays the page out in columns.
+   * Every category is written once and operations refer to it by index, so the response
+   * is several times smaller than the nested one and takes less time to serialize.
+   *
+   * @param criteria search criteria including date range, pagination, sorting, category filters, and search text
+   * @return the found savings in columns with total count and category lists
+   */
+  @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+  public SavingColumnarResultDto searchColumnar(SavingCriteriaDto criteria) {
+    return savingColumnarMapper.toColumnar(
+        search(criteria), criteria.getGroupBy(), criteria.isSumsOnly());
+  }
 
-    List<SavingResponseDto> result;
+  /**
+   * Streams all savings matching the criteria day by day, ignoring the pagination.
+   *
+   * <p>Savings and their operations are read through a forward-only cursor
+   * (see {@link SavingReadRepository#streamSavings}) and every saving is passed
+   * to the consumer as soon as its operations are read, so only one day is held in memory
+   * regardless of the amount of savings. The current date and the categories are resolved
+   * once for the whole stream (see {@link SavingRowMapper.Mapping}).
+   * The consumer is called within the read transaction. Deferred recalculations must be
+   * flushed before it starts (see {@link SavingReadService}).
+   *
+   * <p>The transaction holds a pooled connection until the last saving is consumed,
+   * so a slow consumer, e.g. a slow client of the response, keeps it from other requests.
+   * The transaction is bounded by {@code saving.stream.timeout-seconds}: once it is reached,
+   * the stream fails with {@link org.springframework.transaction.TransactionTimedOutException}
+   * after the savings consumed so far and the connection is returned to the pool.
+   * The consumer may already have sent them, so it must tell its client that the stream
+   * is incomplete (see {@code SavingController#stream}).
+   *
+   * @param criteria search criteria including date range, sorting, category filters
+   *                 and search text
+   * @param consumer accepts the found savings in the order of the criteria
+   */
+  @Transactional(readOnly = true, timeoutString = "${saving.stream.timeout-seconds:60}")
+  public void stream(SavingCriteriaDto criteria, Consumer<SavingResponseDto> consumer) {
     if (criteria.getGroupBy() != Period.DAY) {
-      result = savingGroupMapper.toGroupDtos(savings, criteria.getGroupBy());
+      throw new ValidationException("Streaming is supported only for days");
+    }
+    var currentUser = userService.getCurrentUser();
+    var currentAccountId = currentUser.getCurrentAccount().getId();
+
+    var incCategories =
+        incomeCategoryService.findAllAndSetChecked(
+            currentAccountId, criteria.getIncomeCategoryIds());
+    var expCategories =
+        expenseCategoryService.findAllAndSetChecked(
+            currentAccountId, criteria.getExpenseCategoryIds());
+
+    var filtered = hasOperationFilters(criteria);
+    var mapping = savingRowMapper.newMapping();
+    savingReadRepository.streamSavings(
+        new StreamCriteria(
+            currentAccountId,
+            criteria.getFrom(),
+            criteria.getTo(),
+            incCategories.checkedIds(),
+            expCategories.checkedIds(),
+            filtered ? criteria.getIncomeCategoryIds() : List.of(),
+            filtered ? criteria.getExpenseCategoryIds() : List.of(),
+            filtered ? criteria.getSearchText() : null,
+            filtered,
+            ledgerMode == LedgerMode.DELTA,
+            criteria.getSortBy(),
+            criteria.getSortDirection()),
+        (saving, operations) -> consumer.accept(mapping.toDto(saving, operations)));
+  }
+
+  /**
+   * Searches for days with savings matching the criteria.
+   * Returns the page without category lists.
+   */
+  private SavingSearchResultDto searchDays(Long accountId,
+                                           SavingCriteriaDto criteria,
+                                           CheckedCategories incCategories,
+                                           CheckedCategories expCategories,
+                                           ConcurrentReadExecutor.Reads reads) {
+    Specification<Saving> criteriaAsSpec =
+        applySavingCriteria(criteria, incCategories, expCategories);
+
+    Supplier<Long> total = !criteria.isKeyset() || criteria.isWithTotal()
+        ? reads.submit(() -> savingRepository.count(criteriaAsSpec))
+        : () -> null;
+    List<Saving> savings;
+    String nextCursor = null;
+    if (criteria.isKeyset()) {
+      savings = findKeysetPage(criteriaAsSpec, criteria);
+      if (savings.size() > criteria.getPageSize()) {
+        savings = savings.subList(0, criteria.getPageSize());
+        nextCursor = SavingCursor.of(savings.getLast(), criteria.getSortBy()).encode();
+      }
     } else {
-      result = savingMapper.toDtos(savings);
+      savings = findPage(criteriaAsSpec, criteria);
+    }
+
+    var savingIds = savings.stream().map(Saving::getId).toList();
+    var dates = savings.stream().map(Saving::getDate).toList();
+    Supplier<Map<Long, BigDecimal>> balances = ledgerMode == LedgerMode.DELTA
+        ? reads.submit(() -> findDerivedBalances(accountId, dates))
+        : Map::of;
+    var filtered = hasOperationFilters(criteria);
+    var operations = savingReadRepository.findOperations(
+        accountId,
+        savingIds,
+        filtered ? criteria.getIncomeCategoryIds() : List.of(),
+        filtered ? criteria.getExpenseCategoryIds() : List.of(),
+        filtered ? criteria.getSearchText() : null);
+    if (ledgerMode == LedgerMode.DELTA) {
+      //The savings are loaded in a read-only transaction, so the derived values are never flushed
+      var derived = balances.get();
+      savings.forEach(saving -> saving.setValue(derived.get(saving.getId())));
+    }
+    var totalElements = total.get();
+
+    return SavingSearchResultDto
+        .builder()
+        .result(savingRowMapper.toDtos(savings, operations))
+        .totalElements(totalElements)
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  /**
+   * Searches for periods with savings matching the criteria. Every period is summed
+   * by the database, so savings are not loaded, and a page contains the requested amount
+   * of periods. Operations of the periods of the page are read as flat rows
+   * unless only their sums are requested.
+   * Returns the page without category lists.
+   */
+  private SavingSearchResultDto searchPeriods(Long accountId,
+                                              SavingCriteriaDto criteria,
+                                              CheckedCategories incCategories,
+                                              CheckedCategories expCategories) {
+    if (criteria.isKeyset()) {
+      throw new ValidationException("Keyset pagination is supported only for days");
+    }
+    var page = savingPeriodRepository.findPeriodTotals(new PeriodCriteria(
+        accountId,
+        criteria.getGroupBy(),
+        criteria.getFrom(),
+        criteria.getTo(),
+        incCategories.checkedIds(),
+        expCategories.checkedIds(),
+        criteria.getIncomeCategoryIds(),
+        criteria.getExpenseCategoryIds(),
+        criteria.getSearchText(),
+        hasOperationFilters(criteria),
+        ledgerMode == LedgerMode.DELTA,
+        !criteria.isSumsOnly(),
+        criteria.getSortBy(),
+        criteria.getSortDirection(),
+        criteria.getPageNum(),
+        criteria.getPageSize()));
+
+    var operations = List.<SavingOperationRow>of();
+    if (!criteria.isSumsOnly()) {
+      var savingIds = page.getContent().stream()
+          .flatMap(totals -> totals.savingIds().stream())
+          .toList();
+      operations = savingReadRepository.findOperations(
+          accountId,
+          savingIds,
+          criteria.getIncomeCategoryIds(),
+          criteria.getExpenseCategoryIds(),
+          criteria.getSearchText());
     }
 
     return SavingSearchResultDto
         .builder()
-        .result(result)
+        .result(savingGroupMapper.toGroupDtos(
+            page.getContent(), criteria.getGroupBy(), criteria.isSumsOnly(), operations))
         .totalElements(page.getTotalElements())
-        .incomeCategories(incCategories)
-        .expenseCategories(expCategories)
         .build();
   }
 
+  /**
+   * Finds savings of the page of the criteria without counting all savings,
+   * the count is queried separately.
+   */
+  private List<Saving> findPage(Specification<Saving> spec, SavingCriteriaDto criteria) {
+    if (ledgerMode == LedgerMode.DELTA
+        && criteria.getSortBy() == SavingFieldToSort.SAVING_VALUE) {
+      // Stored values are not maintained in the delta mode, so sort by the derived balance
+      var pageRequest = PageRequest.of(criteria.getPageNum(), criteria.getPageSize());
+      return savingRepository.findBy(
+          spec.and(SavingSpec.orderByBalance(criteria.getSortDirection())),
+          query -> query.slice(pageRequest).getContent());
+    }
+    var pageRequest = PageRequest.of(
+        criteria.getPageNum(),
+        criteria.getPageSize(),
+        Sort.by(criteria.getSortDirection(),
+            criteria.getSortBy().getFieldName()));
+    return savingRepository.findBy(spec, query -> query.slice(pageRequest).getContent());
+  }
+
+  /**
+   * Finds savings following the cursor of the criteria, one more than the page size
+   * to know whether there is a next page. Neither skips savings of previous pages
+   * nor counts all savings, so every page costs the same.
+   */
+  private List<Saving> findKeysetPage(Specification<Saving> spec, SavingCriteriaDto criteria) {
+    if (ledgerMode == LedgerMode.DELTA
+        && criteria.getSortBy() == SavingFieldToSort.SAVING_VALUE) {
+      throw new ValidationException(
+          "Keyset pagination by saving value is not supported in the delta ledger mode");
+    }
+    var keysetSpec = spec;
+    if (StringUtils.isNotEmpty(criteria.getAfter())) {
+      var cursor = SavingCursor.decode(criteria.getAfter(), criteria.getSortBy());
+      keysetSpec = keysetSpec.and(SavingSpec.after(cursor, criteria.getSortDirection()));
+    }
+    var sort = Sort.by(criteria.getSortDirection(), criteria.getSortBy().getFieldName())
+        .and(Sort.by(criteria.getSortDirection(), Saving_.ID));
+    return savingRepository.findBy(keysetSpec, query -> query
+        .sortBy(sort)
+        .limit(criteria.getPageSize() + 1)
+        .all());
+  }
+
   @Transactional(readOnly = true)
   public Saving findByDate(LocalDate date) {
     var currentUser = userService.getCurrentUser();
     var currentAccountId = currentUser.getCurrentAccount().getId();
-    return savingRepository.findByDateAndAccountId(date, currentAccountId).orElseThrow(() ->
+    var saving = savingRepository.findByDateAndAccountId(date, currentAccountId).orElseThrow(() ->
         new EntityNotFoundException(
             String.format("Could not find saving by date = '%s' in the database",
                 date)));
+    if (ledgerMode == LedgerMode.DELTA) {
+      saving.setValue(savingRepository.findBalanceByDate(currentAccountId, date));
+    }
+    return saving;
   }
 
+  /**
+   * Increases the balance from the date onwards.
+   *
+   * @param value the increment
+   * @param date  the date of the change
+   * @return id of the saving of the date
+   */
   @Transactional
-  public void increase(BigDecimal value, LocalDate date) {
-    recalculate(date, value, BigDecimal::add,
-        savingRepository::increaseValueByDateGreaterThan);
+  public Long increase(BigDecimal value, LocalDate date) {
+    return recalculate(date, value);
   }
 
+  /**
+   * Decreases the balance from the date onwards.
+   *
+   * @param value the decrement
+   * @param date  the date of the change
+   * @return id of the saving of the date
+   */
   @Transactional
-  public void decrease(BigDecimal value, LocalDate date) {
-    recalculate(date, value, BigDecimal::subtract,
-        savingRepository::decreaseValueByDateGreaterThan);
+  public Long decrease(BigDecimal value, LocalDate date) {
+    return recalculate(date, value.negate());
+  }
+
+  /**
+   * Moves an operation from one date to another.
+   *
+   * <p>Only savings between the two dates are shifted by one range update, later savings are
+   * touched only if the value of the operation changes too. In the {@link LedgerMode#DELTA} mode
+   * just the savings of the two dates are changed.
+   *
+   * <p>The range update must precede the upsert of the new date: a new saving takes the value
+   * of the previous one, which has to be final by then.
+   *
+   * @param from         the old date of the operation
+   * @param oldIncrement the signed change of the balance the operation made on the old date
+   * @param to           the new date of the operation
+   * @param newIncrement the signed change of the balance the operation makes on the new date
+   * @return id of the saving of the new date
+   */
+  @Transactional
+  public Long move(LocalDate from, BigDecimal oldIncrement, LocalDate to, BigDecimal newIncrement) {
+    var currentUser = userService.getCurrentUser();
+    var currentAccountId = currentUser.getCurrentAccount().getId();
+    ledgerWriteCoordinator.lock(currentAccountId);
+    var cascade = ledgerMode == LedgerMode.CASCADE;
+    if (cascade && savingCascadeBuffer.isEnabled()) {
+      savingCascadeBuffer.flush(currentAccountId);
+    }
+
+    if (cascade) {
+      //Savings in (from, to] lose the operation, savings in (to, from] gain it
+      if (from.isBefore(to)) {
+        savingRepository.increaseValueByDateBetween(
+            oldIncrement.negate(), from, to.plusDays(1), currentAccountId);
+      } else {
+        savingRepository.increaseValueByDateBetween(
+            newIncrement, to, from.plusDays(1), currentAccountId);
+      }
+    }
+    savingRepository.upsertDay(
+        currentAccountId, from, oldIncrement.negate(), cascade, BigDecimal.ZERO);
+    var savingId = savingRepository.upsertDay(
+        currentAccountId, to, newIncrement, cascade, BigDecimal.ZERO);
+
+    var tailIncrement = newIncrement.subtract(oldIncrement);
+    if (cascade && tailIncrement.signum() != 0) {
+      savingRepository.increaseValueByDateGreaterThan(
+          tailIncrement, from.isAfter(to) ? from : to, currentAccountId);
+    }
+
+    shiftCheckpoints(currentAccountId, from, oldIncrement.negate());
+    shiftCheckpoints(currentAccountId, to, newIncrement);
+    return savingId;
+  }
+
+  /**
+   * Applies net changes of many days in a single pass over the ledger.
+   *
+   * <p>Savings of the changed days are loaded with one query and saved together,
+   * then every span between two consecutive changed days is shifted by one range update
+   * with the sum of all changes before it. In the {@link LedgerMode#DELTA} mode
+   * the range updates are skipped. Checkpoints are shifted once per changed month.
+   *
+   * @param deltas net changes of the balance by date
+   * @return ids of the savings of the changed days by date
+   */
+  @Transactional
+  public Map<LocalDate, Long> applyDeltas(NavigableMap<LocalDate, BigDecimal> deltas) {
+    var result = new HashMap<LocalDate, Long>();
+    if (deltas.isEmpty()) {
+      return result;
+    }
+    var currentUser = userService.getCurrentUser();
+    var currentAccountId = currentUser.getCurrentAccount().getId();
+    ledgerWriteCoordinator.lock(currentAccountId);
+    if (ledgerMode == LedgerMode.CASCADE && savingCascadeBuffer.isEnabled()) {
+      savingCascadeBuffer.flush(currentAccountId);
+    }
+    var firstDate = deltas.firstKey();
+    var lastDate = deltas.lastKey();
+
+    //Values before the batch, they are needed to initialize new savings
+    var storedValues = new TreeMap<LocalDate, BigDecimal>();
+    var existing = new HashMap<LocalDate, Saving>();
+    savingRepository.findAllByAccountIdAndDateBetweenOrderByDate(
+            currentAccountId, firstDate, lastDate)
+        .forEach(saving -> {
+          storedValues.put(saving.getDate(), saving.getValue());
+          existing.put(saving.getDate(), saving);
+        });
+    var valueBefore = ledgerMode == LedgerMode.CASCADE
+        ? savingRepository
+            .findFirstByDateLessThanAndAccountIdOrderByDateDesc(firstDate, currentAccountId)
+            .map(Saving::getValue)
+            .orElse(BigDecimal.ZERO)
+        : BigDecimal.ZERO;
+
+    var cumulative = BigDecimal.ZERO;
+    var spanIncrements = new ArrayList<BigDecimal>(deltas.size());
+    var changed = new ArrayList<Saving>(deltas.size());
+    for (var entry : deltas.entrySet()) {
+      var date = entry.getKey();
+      var delta = entry.getValue();
+      cumulative = cumulative.add(delta);
+      var increment = ledgerMode == LedgerMode.CASCADE ? cumulative : delta;
+
+      var saving = existing.get(date);
+      if (saving != null) {
+        saving.setValue(saving.getValue().add(increment));
+        saving.setDelta(saving.getDelta().add(delta));
+      } else {
+        var previous = ledgerMode == LedgerMode.CASCADE
+            ? Optional.ofNullable(storedValues.floorEntry(date))
+                .map(Map.Entry::getValue)
+                .orElse(valueBefore)
+            : BigDecimal.ZERO;
+        saving = Saving.builder()
+            .date(date)
+            .accountId(currentAccountId)
+            .value(previous.add(increment))
+            .delta(delta)
+            .build();
+      }
+      changed.add(saving);
+      spanIncrements.add(cumulative);
+    }
+    savingRepository.saveAll(changed)
+        .forEach(saving -> result.put(saving.getDate(), saving.getId()));
+
+    //Shift the spans between the changed days, the days themselves are already recalculated
+    if (ledgerMode == LedgerMode.CASCADE) {
+      var dates = new ArrayList<>(deltas.keySet());
+      for (int i = 0; i < dates.size() - 1; i++) {
+        var increment = spanIncrements.get(i);
+        if (increment.signum() != 0) {
+          savingRepository.increaseValueByDateBetween(
+              increment, dates.get(i), dates.get(i + 1), currentAccountId);
+        }
+      }
+      if (cumulative.signum() != 0) {
+        savingRepository.increaseValueByDateGreaterThan(cumulative, lastDate, currentAccountId);
+      }
+    }
+
+    var monthDeltas = new TreeMap<LocalDate, BigDecimal>();
+    deltas.forEach((date, delta) ->
+        monthDeltas.merge(date.withDayOfMonth(1), delta, BigDecimal::add));
+    monthDeltas.forEach((month, delta) -> shiftCheckpoints(currentAccountId, month, delta));
+    return result;
   }
 
   @Transactional
   public void updateAfterDeletionOperation(LocalDate date) {
     var currentUser = userService.getCurrentUser();
     var currentAccountId = currentUser.getCurrentAccount().getId();
+    ledgerWriteCoordinator.lock(currentAccountId);
 
     savingRepository.findByDateAndAccountId(date, currentAccountId).ifPresent(saving -> {
+      //A saving without operations may still carry the opening balance of the account
       if (CollectionUtils.isEmpty(saving.getIncomes())
-          && CollectionUtils.isEmpty(saving.getExpenses())) {
+          && CollectionUtils.isEmpty(saving.getExpenses())
+          && saving.getDelta().signum() == 0) {
         savingRepository.delete(saving);
       }
     });
   }
 
   /**
-   * It retrieves the current user and account,
-   * then updates or creates a saving based on the input date and value.
-   * Finally, it recalculates the value of other savings.
+   * Returns monthly closing balances of the current account.
    *
-   * @param date                  The date of the saving (can be new or existing)
-   * @param value                 The value of the saving
-   * @param setValueFunc          The function that sets the value of the saving
-   *                              based on the input value
-   * @param recalculateOthersFunc The function that recalculates the value of other savings
+   * @return closing balances by the last day of the month
    */
-  private void recalculate(LocalDate date,
-                           BigDecimal value,
-                           BiFunction<BigDecimal, BigDecimal, BigDecimal> setValueFunc,
-                           RecalculateFunc recalculateOthersFunc) {
+  @Transactional(readOnly = true)
+  public NavigableMap<LocalDate, BigDecimal> findClosingBalances() {
     var currentUser = userService.getCurrentUser();
     var currentAccountId = currentUser.getCurrentAccount().getId();
 
-    //Find the saving by date and recalculate its value by the specified value
-    Optional<Saving> savingOpt = savingRepository.findByDateAndAccountId(date, currentAccountId);
-    if (savingOpt.isPresent()) {
-      Saving saving = savingOpt.get();
-      saving.setValue(setValueFunc.apply(saving.getValue(), value));
-      savingRepository.save(saving);
-    } else {
-      savingOpt = savingRepository
-          .findFirstByDateLessThanAndAccountIdOrderByDateDesc(date, currentAccountId);
+    var result = new TreeMap<LocalDate, BigDecimal>();
+    savingCheckpointRepository.findAllByAccountIdOrderByClosingDate(currentAccountId)
+        .forEach(checkpoint -> result.put(checkpoint.getClosingDate(), checkpoint.getBalance()));
+    return result;
+  }
 
-      var newSaving = Saving.builder()
-          .date(date)
-          .accountId(currentUser.getCurrentAccount().getId())
-          .build();
+  /**
+   * Compares savings of the current account with the ones recomputed from its operations.
+   * Deferred recalculations must be flushed before (see {@link SavingReadService}).
+   *
+   * @return the drift summary
+   */
+  @Transactional(readOnly = true)
+  public LedgerVerificationDto verifyLedger() {
+    var currentUser = userService.getCurrentUser();
+    var currentAccountId = currentUser.getCurrentAccount().getId();
+    return toVerificationDto(savingRepository.verifyLedger(currentAccountId));
+  }
 
-      if (savingOpt.isPresent()) {
-        newSaving.setValue(setValueFunc.apply(savingOpt.get().getValue(), value));
-      } else {
-        newSaving.setValue(setValueFunc.apply(BigDecimal.ZERO, value));
-      }
-      savingRepository.save(newSaving);
+  /**
+   * Recomputes deltas and values of all savings of the account from its operations
+   * and recreates its monthly checkpoints.
+   * Repairs any drift left by a bug or a partial failure of incremental updates.
+   *
+   * @param accountId account of the savings
+   * @return the drift found before the rebuild and the number of rewritten savings
+   */
+  @Transactional
+  public LedgerVerificationDto rebuildLedger(Long accountId) {
+    ledgerWriteCoordinator.lock(accountId);
+    accountDataVersionService.bump(accountId);
+    //Deferred recalculations are not a drift
+    if (ledgerMode == LedgerMode.CASCADE && savingCascadeBuffer.isEnabled()) {
+      savingCascadeBuffer.flush(accountId);
     }
-
-    //Recalculate the value of other savings by the specified value
-    recalculateOthersFunc.recalculate(value, date, currentAccountId);
+    var result = toVerificationDto(savingRepository.verifyLedger(accountId));
+    result.setRebuiltSavings(savingRepository.rebuildLedger(accountId));
+    rebuildCheckpoints(accountId);
+    return result;
   }
 
   /**
-   * Explicitly filters and replaces the operations (incomes/expenses) in the savings entities
-   * based on the search criteria.
-   *
-   * <p><b>Why this method is necessary:</b>
-   *
-   * <p>When the main query filters Savings by category IDs or search text using JPA joins,
-   * it only determines <i>which Saving entities to return</i>, but does NOT filter the contents
-   * of their lazy-loaded {@code incomes} and {@code expenses} collections.
+   * Recreates monthly checkpoints of the account from deltas of its savings.
    *
-   * <p>When the mapper later accesses these collections (e.g., {@code entity.getExpenses().forEach(...)}),
-   * Hibernate will load ALL operations for those savings, not just the filtered ones.
-   * This causes incorrect results where operations from unselected categories appear in the response.
-   *
-   * <p><b>Solution:</b>
+   * @param accountId account of the checkpoints
+   */
+  @Transactional
+  public void rebuildCheckpoints(Long accountId) {
+    ledgerWriteCoordinator.lock(accountId);
+    savingCheckpointRepository.deleteAllByAccountId(accountId);
+    savingCheckpointRepository.insertFromSavings(accountId);
+  }
+
+  /**
+   * It retrieves the current user and account,
+   * then updates or creates a saving of the date with a single upsert statement.
+   * Finally, it recalculates the value of other savings.
    *
-   * <p>This method explicitly queries the Income and Expense repositories with the same filters,
-   * then replaces the lazy collections in each Saving entity with only the filtered operations.
-   * This ensures that when the mapper accesses the collections, it only sees the operations
-   * that match the search criteria.
+   * <p>The delta of the saving is changed in any mode. In the {@link LedgerMode#DELTA} mode
+   * other savings are not touched at all, their balances are derived from deltas on read,
+   * so the cost of the write does not depend on the amount of later savings.
+   * With write-behind enabled, later savings are shifted by {@link SavingCascadeBuffer},
+   * which coalesces shifts of many writes.
+   * Monthly checkpoints are shifted in any mode, so a write changes at most one checkpoint
+   * per month after the date.
    *
-   * <p><b>Performance note:</b> This method is only executed when category filters or search text
-   * are provided. For simple date-range queries, it returns early without additional database calls.
+   * <p>In the {@link LedgerMode#CASCADE} mode a backdated write still rewrites every later
+   * saving, deferred or not, so its cost grows with the history after the date.
+   * Checkpoints are an overhead on top of it there: balances are read from stored values,
+   * checkpoints are maintained only for the closing balances of the export and to switch
+   * to the {@link LedgerMode#DELTA} mode without a rebuild.
+   * Accounts with long histories should use the {@link LedgerMode#DELTA} mode.
    *
-   * @param savings  the list of Saving entities returned by the main query
-   * @param criteria the search criteria containing category filters and/or search text
+   * @param date      The date of the saving (can be new or existing)
+   * @param increment The signed change of the balance
+   * @return id of the saving of the date
    */
-  private void fillOperationsExplicitly(List<Saving> savings,
-                                        SavingCriteriaDto criteria) {
-    if (CollectionUtils.isEmpty(criteria.getIncomeCategoryIds())
-        && CollectionUtils.isEmpty(criteria.getExpenseCategoryIds())
-        && StringUtils.isBlank(criteria.getSearchText())) {
-      return;
-    }
-
+  private Long recalculate(LocalDate date, BigDecimal increment) {
     var currentUser = userService.getCurrentUser();
     var currentAccountId = currentUser.getCurrentAccount().getId();
-    var savingIds = savings.stream().map(Saving::getId).toList();
-    var incomeMap = new HashMap<Long, List<Income>>();
-    var expenseMap = new HashMap<Long, List<Expense>>();
-
-    incomeRepository.findAll(applyIncomeCriteria(currentAccountId, savingIds, criteria))
-        .forEach(inc -> {
-          ArrayList<Income> value = new ArrayList<>();
-          value.add(inc);
-          incomeMap.merge(inc.getSavingId(), value,
-              (oldValue, newValue) -> {
-                oldValue.addAll(newValue);
-                return oldValue;
-              });
-        });
+    ledgerWriteCoordinator.lock(currentAccountId);
+    var writeBehind = ledgerMode == LedgerMode.CASCADE && savingCascadeBuffer.isEnabled();
 
-    expenseRepository.findAll(applyExpenseCriteria(currentAccountId, savingIds, criteria))
-        .forEach(exp -> {
-          ArrayList<Expense> value = new ArrayList<>();
-          value.add(exp);
-          expenseMap.merge(exp.getSavingId(), value,
-              (oldValue, newValue) -> {
-                oldValue.addAll(newValue);
-                return oldValue;
-              });
-        });
+    //A new saving copies the value of the previous one without deferred increments,
+    //they are shifted to it by the flush like to any other later saving
+    var notCarried = writeBehind
+        ? savingCascadeBuffer.pendingSincePreviousSaving(currentAccountId, date)
+        : BigDecimal.ZERO;
 
-    savings.forEach(saving -> {
-      saving.setIncomes(Optional
-          .ofNullable(incomeMap.get(saving.getId()))
-          .orElse(List.of()));
-      saving.setExpenses(Optional
-          .ofNullable(expenseMap.get(saving.getId()))
-          .orElse(List.of()));
-    });
+    //Stored values are not used in the delta mode, so a new saving does not need the previous one
+    var savingId = savingRepository.upsertDay(
+        currentAccountId, date, increment, ledgerMode == LedgerMode.CASCADE, notCarried);
+
+    //Recalculate the value of other savings by the specified value
+    if (writeBehind) {
+      savingCascadeBuffer.record(currentAccountId, date, increment);
+    } else if (ledgerMode == LedgerMode.CASCADE) {
+      savingRepository.increaseValueByDateGreaterThan(increment, date, currentAccountId);
+    }
+
+    shiftCheckpoints(currentAccountId, date, increment);
+    return savingId;
+  }
+
+  private void shiftCheckpoints(Long accountId, LocalDate date, BigDecimal increment) {
+    var closingDate = date.withDayOfMonth(date.lengthOfMonth());
+    savingCheckpointRepository.ensureExists(accountId, closingDate);
+    savingCheckpointRepository.increaseBalanceByClosingDateGreaterThanEqual(
+        increment, closingDate, accountId);
+  }
+
+  /**
+   * Derives balances of savings from per-day deltas.
+   *
+   * @param accountId the account of the savings
+   * @param dates     dates of the savings found by the search
+   * @return the balances by id of the saving, covering all savings between the dates
+   */
+  private Map<Long, BigDecimal> findDerivedBalances(Long accountId, List<LocalDate> dates) {
+    if (dates.isEmpty()) {
+      return Map.of();
+    }
+    LocalDate from = null;
+    LocalDate to = null;
+    for (LocalDate date : dates) {
+      if (from == null || date.isBefore(from)) {
+        from = date;
+      }
+      if (to == null || date.isAfter(to)) {
+        to = date;
+      }
+    }
+
+    return savingRepository.findBalances(accountId, from, to)
+        .stream()
+        .collect(Collectors.toMap(SavingBalance::getId, SavingBalance::getBalance));
+  }
+
+  private LedgerVerificationDto toVerificationDto(LedgerDrift drift) {
+    return LedgerVerificationDto.builder()
+        .mode(ledgerMode)
+        .checkedSavings(drift.getCheckedSavings())
+        .deltaDrifts(drift.getDeltaDrifts())
+        //Stored values are not maintained in the delta mode, so their drift is expected
+        .valueDrifts(ledgerMode == LedgerMode.CASCADE ? drift.getValueDrifts() : 0)
+        .maxValueDrift(ledgerMode == LedgerMode.CASCADE
+            ? drift.getMaxValueDrift()
+            : BigDecimal.ZERO)
+        .firstDriftDate(drift.getFirstDriftDate())
+        .build();
   }
 
   private Specification<Saving> applySavingCriteria(
       SavingCriteriaDto criteria,
-      List<OperationCategoryResponseDto> incCategories,
-      List<OperationCategoryResponseDto> expCategories) {
+      CheckedCategories incCategories,
+      CheckedCategories expCategories) {
     var currentUser = userService.getCurrentUser();
     var currentAccountId = currentUser.getCurrentAccount().getId();
 
@@ -285,23 +744,10 @@ public class SavingService {
       criteriaAsSpec = criteriaAsSpec.and(SavingSpec.filterByDate(from, to));
     }
 
-    if (CollectionUtils.isNotEmpty(criteria.getIncomeCategoryIds())
-        || CollectionUtils.isNotEmpty(criteria.getExpenseCategoryIds())
-        || StringUtils.isNotBlank(criteria.getSearchText())) {
-
-      var selectedIncCategoryIds = incCategories.stream()
-          .filter(OperationCategoryResponseDto::isChecked)
-          .map(OperationCategoryResponseDto::getId)
-          .toList();
-
-      var selectedExpCategoryIds = expCategories.stream()
-          .filter(OperationCategoryResponseDto::isChecked)
-          .map(OperationCategoryResponseDto::getId)
-          .toList();
-
+    if (hasOperationFilters(criteria)) {
       criteriaAsSpec = criteriaAsSpec.and(SavingSpec.filterBySearchTextAndCategoryIds(
-          selectedIncCategoryIds,
-          selectedExpCategoryIds,
+          incCategories.checkedIds(),
+          expCategories.checkedIds(),
           criteria.getSearchText())
       );
     }
@@ -309,28 +755,9 @@ public class SavingService {
     return criteriaAsSpec;
   }
 
-  private Specification<Income> applyIncomeCriteria(Long accountId,
-                                                    List<Long> savingIds,
-                                                    SavingCriteriaDto criteria) {
-    Specification<Income> incomeSpec = IncomeSpec.accountIdEq(accountId)
-        .and(BaseOperationSpec.savingIdIn(savingIds));
-    incomeSpec = andOptionally(incomeSpec, IncomeSpec::matchBySearchText, criteria.getSearchText());
-    return andOptionally(incomeSpec, IncomeSpec::categoryIdIn, criteria.getIncomeCategoryIds());
-  }
-
-  private Specification<Expense> applyExpenseCriteria(Long accountId,
-                                                      List<Long> savingIds,
-                                                      SavingCriteriaDto criteria) {
-    Specification<Expense> expenseSpec = ExpenseSpec.accountIdEq(accountId)
-        .and(BaseOperationSpec.savingIdIn(savingIds));
-    expenseSpec = andOptionally(expenseSpec, ExpenseSpec::matchBySearchText, criteria.getSearchText());
-    return andOptionally(expenseSpec, ExpenseSpec::categoryIdIn,
-        criteria.getExpenseCategoryIds());
-  }
-
-  interface RecalculateFunc {
-    void recalculate(BigDecimal decrement,
-                     LocalDate date,
-                     Long accountId);
+  private boolean hasOperationFilters(SavingCriteriaDto criteria) {
+    return CollectionUtils.isNotEmpty(criteria.getIncomeCategoryIds())
+        || CollectionUtils.isNotEmpty(criteria.getExpenseCategoryIds())
+        || StringUtils.isNotBlank(criteria.getSearchText());
   }
 }
@@ -2,6 +2,7 @@ package ru.rgasymov.moneymanager.service.expense;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
@@ -12,7 +13,9 @@ import ru.rgasymov.moneymanager.domain.enums.OperationType;
 import ru.rgasymov.moneymanager.mapper.ExpenseMapper;
 import ru.rgasymov.moneymanager.repository.ExpenseCategoryRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
+import ru.rgasymov.moneymanager.service.AccountDataVersionService;
 import ru.rgasymov.moneymanager.service.BaseOperationService;
+import ru.rgasymov.moneymanager.service.CategoryMonthTotalService;
 import ru.rgasymov.moneymanager.service.HistoryService;
 import ru.rgasymov.moneymanager.service.SavingService;
 import ru.rgasymov.moneymanager.service.UserService;
@@ -38,8 +41,11 @@ public class ExpenseService
       ExpenseMapper expenseMapper,
       UserService userService,
       SavingService savingService,
-      HistoryService historyService) {
-    super(expenseRepository, expenseCategoryRepository, expenseMapper, userService);
+      HistoryService historyService,
+      AccountDataVersionService accountDataVersionService,
+      CategoryMonthTotalService categoryMonthTotalService) {
+    super(expenseRepository, expenseCategoryRepository, expenseMapper, userService, savingService,
+        accountDataVersionService, categoryMonthTotalService);
     this.expenseRepository = expenseRepository;
     this.savingService = savingService;
     this.expenseMapper = expenseMapper;
@@ -51,9 +57,7 @@ public class ExpenseService
   protected OperationResponseDto saveNewOperation(Expense operation) {
     var value = operation.getValue();
     var date = operation.getDate();
-    savingService.decrease(value, date);
-    var saving = savingService.findByDate(date);
-    operation.setSavingId(saving.getId());
+    operation.setSavingId(savingService.decrease(value, date));
 
     var saved = expenseRepository.save(operation);
     return expenseMapper.toDto(saved);
@@ -78,19 +82,34 @@ public class ExpenseService
     return operation.clone();
   }
 
+  @Override
+  protected OperationType getOperationType() {
+    return OperationType.EXPENSE;
+  }
+
+  @Override
+  protected Long getCategoryId(Expense operation) {
+    return operation.getCategory().getId();
+  }
+
+  @Override
+  protected BigDecimal toSavingDelta(BigDecimal value) {
+    return value.negate();
+  }
+
   @Override
   protected void updateSavings(BigDecimal value,
                                BigDecimal oldValue,
                                LocalDate date,
                                Expense operation) {
     var subtract = value.subtract(oldValue);
+    Long savingId;
     if (subtract.signum() > 0) {
-      savingService.decrease(subtract, date);
+      savingId = savingService.decrease(subtract, date);
     } else {
-      savingService.increase(subtract.abs(), date);
+      savingId = savingService.increase(subtract.abs(), date);
     }
-    var saving = savingService.findByDate(date);
-    operation.setSavingId(saving.getId());
+    operation.setSavingId(savingId);
     operation.setValue(value);
   }
 
@@ -106,6 +125,11 @@ public class ExpenseService
     historyService.logCreate(operation, OperationType.EXPENSE);
   }
 
+  @Override
+  protected void logCreateAll(List<OperationResponseDto> operations) {
+    historyService.logCreateAll(operations, OperationType.EXPENSE);
+  }
+
   @Override
   protected void logUpdate(Expense oldOperation, OperationResponseDto newOperation) {
     var oldDto = expenseMapper.toDto(oldOperation);
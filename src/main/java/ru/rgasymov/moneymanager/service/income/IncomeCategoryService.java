@@ -5,7 +5,6 @@ import static ru.rgasymov.moneymanager.spec.IncomeCategorySpec.accountIdEq;
 import java.util.List;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections.CollectionUtils;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
@@ -13,6 +12,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.rgasymov.moneymanager.constant.CacheNames;
+import ru.rgasymov.moneymanager.domain.CategorySnapshot;
+import ru.rgasymov.moneymanager.domain.CheckedCategories;
 import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
 import ru.rgasymov.moneymanager.domain.entity.Income;
 import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
@@ -21,6 +22,7 @@ import ru.rgasymov.moneymanager.domain.entity.User;
 import ru.rgasymov.moneymanager.mapper.IncomeCategoryMapper;
 import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
 import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.service.AccountDataVersionService;
 import ru.rgasymov.moneymanager.service.BaseOperationCategoryService;
 import ru.rgasymov.moneymanager.service.UserService;
 
@@ -40,33 +42,25 @@ public class IncomeCategoryService
       IncomeRepository incomeRepository,
       IncomeCategoryMapper incomeCategoryMapper,
       UserService userService,
-      CacheManager cacheManager) {
-    super(incomeRepository, incomeCategoryRepository, incomeCategoryMapper, userService);
+      CacheManager cacheManager,
+      AccountDataVersionService accountDataVersionService) {
+    super(incomeRepository, incomeCategoryRepository, incomeCategoryMapper, userService,
+        accountDataVersionService);
     this.incomeCategoryRepository = incomeCategoryRepository;
     this.incomeCategoryMapper = incomeCategoryMapper;
     this.cacheManager = cacheManager;
   }
 
-  @Cacheable(cacheNames = CacheNames.INCOME_CATEGORIES)
   @Transactional(readOnly = true)
   @Override
   public List<OperationCategoryResponseDto> findAll(Long accountId) {
-    var result = incomeCategoryRepository.findAll(
-        accountIdEq(accountId),
-        Sort.by(Sort.Order.asc(IncomeCategory_.NAME).ignoreCase())
-    );
-    return incomeCategoryMapper.toDtos(result);
+    return findSnapshot(accountId).withChecked(List.of());
   }
 
-  @Cacheable(cacheNames = CacheNames.INCOME_CATEGORIES)
   @Transactional(readOnly = true)
   @Override
-  public List<OperationCategoryResponseDto> findAllAndSetChecked(Long accountId, List<Long> ids) {
-    var result = findAll(accountId);
-    if (CollectionUtils.isNotEmpty(ids)) {
-      result.forEach(category -> category.setChecked(ids.contains(category.getId())));
-    }
-    return result;
+  public CheckedCategories findAllAndSetChecked(Long accountId, List<Long> ids) {
+    return findSnapshot(accountId).withChecked(ids);
   }
 
   @Cacheable(cacheNames = CacheNames.INCOME_CATEGORIES)
@@ -84,6 +78,25 @@ public class IncomeCategoryService
         .build();
   }
 
+  /**
+   * Returns the cached categories of the account, loading them on a miss.
+   */
+  private CategorySnapshot findSnapshot(Long accountId) {
+    var cache = cacheManager.getCache(CacheNames.INCOME_CATEGORIES);
+    if (cache == null) {
+      return loadSnapshot(accountId);
+    }
+    return cache.get(CategorySnapshot.cacheKey(accountId), () -> loadSnapshot(accountId));
+  }
+
+  private CategorySnapshot loadSnapshot(Long accountId) {
+    var result = incomeCategoryRepository.findAll(
+        accountIdEq(accountId),
+        Sort.by(Sort.Order.asc(IncomeCategory_.NAME).ignoreCase())
+    );
+    return CategorySnapshot.of(incomeCategoryMapper.toDtos(result));
+  }
+
   @Override
   public void clearCachedCategories() {
     Optional.ofNullable(cacheManager.getCache(CacheNames.INCOME_CATEGORIES))
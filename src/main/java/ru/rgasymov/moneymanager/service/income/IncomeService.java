@@ -2,6 +2,7 @@ package ru.rgasymov.moneymanager.service.income;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
@@ -12,7 +13,9 @@ import ru.rgasymov.moneymanager.domain.enums.OperationType;
 import ru.rgasymov.moneymanager.mapper.IncomeMapper;
 import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
 import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.service.AccountDataVersionService;
 import ru.rgasymov.moneymanager.service.BaseOperationService;
+import ru.rgasymov.moneymanager.service.CategoryMonthTotalService;
 import ru.rgasymov.moneymanager.service.HistoryService;
 import ru.rgasymov.moneymanager.service.SavingService;
 import ru.rgasymov.moneymanager.service.UserService;
@@ -37,8 +40,11 @@ public class IncomeService
       IncomeCategoryRepository incomeCategoryRepository,
       IncomeMapper incomeMapper,
       UserService userService,
-      SavingService savingService, HistoryService historyService) {
-    super(incomeRepository, incomeCategoryRepository, incomeMapper, userService);
+      SavingService savingService, HistoryService historyService,
+      AccountDataVersionService accountDataVersionService,
+      CategoryMonthTotalService categoryMonthTotalService) {
+    super(incomeRepository, incomeCategoryRepository, incomeMapper, userService, savingService,
+        accountDataVersionService, categoryMonthTotalService);
     this.incomeRepository = incomeRepository;
     this.savingService = savingService;
     this.incomeMapper = incomeMapper;
@@ -50,9 +56,7 @@ public class IncomeService
   protected OperationResponseDto saveNewOperation(Income operation) {
     var value = operation.getValue();
     var date = operation.getDate();
-    savingService.increase(value, date);
-    var saving = savingService.findByDate(date);
-    operation.setSavingId(saving.getId());
+    operation.setSavingId(savingService.increase(value, date));
 
     var saved = incomeRepository.save(operation);
     return incomeMapper.toDto(saved);
@@ -77,19 +81,34 @@ public class IncomeService
     return operation.clone();
   }
 
+  @Override
+  protected OperationType getOperationType() {
+    return OperationType.INCOME;
+  }
+
+  @Override
+  protected Long getCategoryId(Income operation) {
+    return operation.getCategory().getId();
+  }
+
+  @Override
+  protected BigDecimal toSavingDelta(BigDecimal value) {
+    return value;
+  }
+
   @Override
   protected void updateSavings(BigDecimal value,
                                BigDecimal oldValue,
                                LocalDate date,
                                Income operation) {
     var subtract = value.subtract(oldValue);
+    Long savingId;
     if (subtract.signum() > 0) {
-      savingService.increase(subtract, date);
+      savingId = savingService.increase(subtract, date);
     } else {
-      savingService.decrease(subtract.abs(), date);
+      savingId = savingService.decrease(subtract.abs(), date);
     }
-    var saving = savingService.findByDate(date);
-    operation.setSavingId(saving.getId());
+    operation.setSavingId(savingId);
     operation.setValue(value);
   }
 
@@ -105,6 +124,11 @@ public class IncomeService
     historyService.logCreate(operation, OperationType.INCOME);
   }
 
+  @Override
+  protected void logCreateAll(List<OperationResponseDto> operations) {
+    historyService.logCreateAll(operations, OperationType.INCOME);
+  }
+
   @Override
   protected void logUpdate(Income oldOperation, OperationResponseDto newOperation) {
     var oldDto = incomeMapper.toDto(oldOperation);
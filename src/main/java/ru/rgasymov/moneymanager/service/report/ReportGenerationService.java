@@ -15,6 +15,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jfree.chart.ChartFactory;
@@ -29,10 +31,15 @@ import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.rgasymov.moneymanager.domain.Money;
+import ru.rgasymov.moneymanager.domain.entity.BaseOperation;
+import ru.rgasymov.moneymanager.domain.entity.BaseOperationCategory;
 import ru.rgasymov.moneymanager.domain.entity.Expense;
 import ru.rgasymov.moneymanager.domain.entity.Income;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
 import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.service.CategoryMonthTotalService;
 import ru.rgasymov.moneymanager.spec.ExpenseSpec;
 import ru.rgasymov.moneymanager.spec.IncomeSpec;
 
@@ -46,14 +53,17 @@ public class ReportGenerationService {
 
   private final ExpenseRepository expenseRepository;
   private final IncomeRepository incomeRepository;
-  
+  private final CategoryMonthTotalService categoryMonthTotalService;
+
+  private static final String UNCATEGORIZED = "Uncategorized";
   private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("MMM yyyy");
   private static final DecimalFormat CURRENCY_FORMAT = new DecimalFormat("#,##0.00");
 
   /**
    * Generate report for the specified date range, user and account.
    * Creates 3 PNG charts with financial data visualization.
-   * Uses memory-efficient streaming to avoid OOM issues.
+   * Whole months of the range are read from category totals (see {@link CategoryMonthTotalService}),
+   * only operations of partial months at its edges are loaded.
    *
    * @param telegramId                 the Telegram user ID
    * @param accountId                  the selected account ID
@@ -78,8 +88,16 @@ public class ReportGenerationService {
     List<File> filesToCleanup = new ArrayList<>();
     try {
       // Fetch data from database
-      var expenses = fetchExpenses(accountId, startDate, endDate, excludedExpenseCategoryIds);
-      var incomes = fetchIncomes(accountId, startDate, endDate, excludedIncomeCategoryIds);
+      var excludedExpenseIds = parseExcludedCategoryIds(excludedExpenseCategoryIds);
+      var excludedIncomeIds = parseExcludedCategoryIds(excludedIncomeCategoryIds);
+      var expenses = fetchSums(accountId, OperationType.EXPENSE, startDate, endDate,
+          excludedExpenseIds,
+          (from, to) -> toSums(fetchExpenses(accountId, from, to, excludedExpenseIds),
+              Expense::getCategory));
+      var incomes = fetchSums(accountId, OperationType.INCOME, startDate, endDate,
+          excludedIncomeIds,
+          (from, to) -> toSums(fetchIncomes(accountId, from, to, excludedIncomeIds),
+              Income::getCategory));
 
       // Calculate monthly aggregates
       var monthlyData = calculateMonthlyData(expenses, incomes, startDate, endDate);
@@ -129,88 +147,124 @@ public class ReportGenerationService {
     }
   }
 
-  private List<Expense> fetchExpenses(Long accountId, LocalDate startDate, LocalDate endDate, String excludedCategoryIds) {
+  /**
+   * Sums operations of the type by category and month.
+   * Whole months are read from category totals, operations of partial months
+   * at the edges of the range are fetched and summed here.
+   */
+  private List<CategorySum> fetchSums(Long accountId, OperationType type, LocalDate startDate, LocalDate endDate,
+                                      List<Long> excludedIds,
+                                      BiFunction<LocalDate, LocalDate, List<CategorySum>> fetchOperations) {
+    var firstFullMonth = startDate.getDayOfMonth() == 1
+        ? YearMonth.from(startDate)
+        : YearMonth.from(startDate).plusMonths(1);
+    var lastFullMonth = endDate.equals(YearMonth.from(endDate).atEndOfMonth())
+        ? YearMonth.from(endDate)
+        : YearMonth.from(endDate).minusMonths(1);
+    if (firstFullMonth.isAfter(lastFullMonth)) {
+      return fetchOperations.apply(startDate, endDate);
+    }
+
+    List<CategorySum> sums = new ArrayList<>();
+    if (startDate.isBefore(firstFullMonth.atDay(1))) {
+      sums.addAll(fetchOperations.apply(startDate, firstFullMonth.atDay(1).minusDays(1)));
+    }
+    for (var total : categoryMonthTotalService.findSums(accountId, type, firstFullMonth, lastFullMonth)) {
+      if (!excludedIds.contains(total.getCategoryId())) {
+        var categoryName = total.getCategoryName() != null ? total.getCategoryName() : UNCATEGORIZED;
+        sums.add(new CategorySum(YearMonth.from(total.getMonth()), categoryName, Money.of(total.getTotal())));
+      }
+    }
+    if (endDate.isAfter(lastFullMonth.atEndOfMonth())) {
+      sums.addAll(fetchOperations.apply(lastFullMonth.atEndOfMonth().plusDays(1), endDate));
+    }
+    return sums;
+  }
+
+  private <T extends BaseOperation> List<CategorySum> toSums(
+      List<T> operations, Function<T, ? extends BaseOperationCategory> category) {
+    return operations.stream()
+        .map(operation -> {
+          var operationCategory = category.apply(operation);
+          var categoryName = operationCategory != null ? operationCategory.getName() : UNCATEGORIZED;
+          return new CategorySum(YearMonth.from(operation.getDate()), categoryName, Money.of(operation.getValue()));
+        })
+        .toList();
+  }
+
+  private List<Expense> fetchExpenses(Long accountId, LocalDate startDate, LocalDate endDate, List<Long> excludedIds) {
     var spec = ExpenseSpec.accountIdEq(accountId)
         .and(ExpenseSpec.dateGreaterThanOrEq(startDate))
         .and(ExpenseSpec.dateLessThanOrEq(endDate));
-    
-    if (excludedCategoryIds != null && !excludedCategoryIds.trim().isEmpty()) {
-      var excludedIds = parseExcludedCategoryIds(excludedCategoryIds);
-      if (!excludedIds.isEmpty()) {
-        spec = spec.and(ExpenseSpec.categoryIdNotIn(excludedIds));
-      }
+
+    if (!excludedIds.isEmpty()) {
+      spec = spec.and(ExpenseSpec.categoryIdNotIn(excludedIds));
     }
-    
+
     return expenseRepository.findAll(spec);
   }
 
-  private List<Income> fetchIncomes(Long accountId, LocalDate startDate, LocalDate endDate, String excludedCategoryIds) {
+  private List<Income> fetchIncomes(Long accountId, LocalDate startDate, LocalDate endDate, List<Long> excludedIds) {
     var spec = IncomeSpec.accountIdEq(accountId)
         .and(IncomeSpec.dateGreaterThanOrEq(startDate))
         .and(IncomeSpec.dateLessThanOrEq(endDate));
-    
-    if (excludedCategoryIds != null && !excludedCategoryIds.trim().isEmpty()) {
-      var excludedIds = parseExcludedCategoryIds(excludedCategoryIds);
-      if (!excludedIds.isEmpty()) {
-        spec = spec.and(IncomeSpec.categoryIdNotIn(excludedIds));
-      }
+
+    if (!excludedIds.isEmpty()) {
+      spec = spec.and(IncomeSpec.categoryIdNotIn(excludedIds));
     }
-    
+
     return incomeRepository.findAll(spec);
   }
 
-  private MonthlyData calculateMonthlyData(List<Expense> expenses, List<Income> incomes, LocalDate startDate, LocalDate endDate) {
-    Map<YearMonth, BigDecimal> monthlyExpenses = new LinkedHashMap<>();
-    Map<YearMonth, BigDecimal> monthlyIncomes = new LinkedHashMap<>();
+  private MonthlyData calculateMonthlyData(List<CategorySum> expenses, List<CategorySum> incomes, LocalDate startDate, LocalDate endDate) {
+    Map<YearMonth, Money> monthlyExpenses = new LinkedHashMap<>();
+    Map<YearMonth, Money> monthlyIncomes = new LinkedHashMap<>();
 
     // Initialize all months in range with zero
     var currentMonth = YearMonth.from(startDate);
     var lastMonth = YearMonth.from(endDate);
     while (!currentMonth.isAfter(lastMonth)) {
-      monthlyExpenses.put(currentMonth, BigDecimal.ZERO);
-      monthlyIncomes.put(currentMonth, BigDecimal.ZERO);
+      monthlyExpenses.put(currentMonth, Money.ZERO);
+      monthlyIncomes.put(currentMonth, Money.ZERO);
       currentMonth = currentMonth.plusMonths(1);
     }
 
     // Aggregate expenses by month
     for (var expense : expenses) {
-      var month = YearMonth.from(expense.getDate());
-      monthlyExpenses.merge(month, expense.getValue(), BigDecimal::add);
+      monthlyExpenses.merge(expense.month(), expense.total(), Money::plus);
     }
 
     // Aggregate incomes by month
     for (var income : incomes) {
-      var month = YearMonth.from(income.getDate());
-      monthlyIncomes.merge(month, income.getValue(), BigDecimal::add);
+      monthlyIncomes.merge(income.month(), income.total(), Money::plus);
     }
 
     return new MonthlyData(monthlyExpenses, monthlyIncomes);
   }
 
-  private Map<String, BigDecimal> aggregateExpensesByCategory(List<Expense> expenses) {
-    Map<String, BigDecimal> categoryTotals = new LinkedHashMap<>();
+  private Map<String, Money> aggregateExpensesByCategory(List<CategorySum> expenses) {
+    Map<String, Money> categoryTotals = new LinkedHashMap<>();
     for (var expense : expenses) {
-      var categoryName = expense.getCategory() != null ? expense.getCategory().getName() : "Uncategorized";
-      categoryTotals.merge(categoryName, expense.getValue(), BigDecimal::add);
+      categoryTotals.merge(expense.categoryName(), expense.total(), Money::plus);
     }
     return categoryTotals;
   }
 
-  private Map<String, BigDecimal> aggregateIncomesByCategory(List<Income> incomes) {
-    Map<String, BigDecimal> categoryTotals = new LinkedHashMap<>();
+  private Map<String, Money> aggregateIncomesByCategory(List<CategorySum> incomes) {
+    Map<String, Money> categoryTotals = new LinkedHashMap<>();
     for (var income : incomes) {
-      var categoryName = income.getCategory() != null ? income.getCategory().getName() : "Uncategorized";
-      categoryTotals.merge(categoryName, income.getValue(), BigDecimal::add);
+      categoryTotals.merge(income.categoryName(), income.total(), Money::plus);
     }
     return categoryTotals;
   }
 
-  private BigDecimal calculateAverage(Map<YearMonth, BigDecimal> monthlyData) {
+  private BigDecimal calculateAverage(Map<YearMonth, Money> monthlyData) {
     if (monthlyData.isEmpty()) {
       return BigDecimal.ZERO;
     }
     var total = monthlyData.values().stream()
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+        .reduce(Money.ZERO, Money::plus)
+        .toBigDecimal();
     return total.divide(BigDecimal.valueOf(monthlyData.size()), 2, RoundingMode.HALF_UP);
   }
 
@@ -220,12 +274,12 @@ public class ReportGenerationService {
 
     for (var entry : data.monthlyIncomes().entrySet()) {
       var monthLabel = entry.getKey().format(MONTH_FORMATTER);
-      dataset.addValue(entry.getValue(), "Income", monthLabel);
+      dataset.addValue(entry.getValue().toBigDecimal(), "Income", monthLabel);
     }
 
     for (var entry : data.monthlyExpenses().entrySet()) {
       var monthLabel = entry.getKey().format(MONTH_FORMATTER);
-      dataset.addValue(entry.getValue(), "Expenses", monthLabel);
+      dataset.addValue(entry.getValue().toBigDecimal(), "Expenses", monthLabel);
     }
 
     var chart = ChartFactory.createBarChart(
@@ -253,17 +307,17 @@ public class ReportGenerationService {
     return chart;
   }
 
-  private JFreeChart createExpensePieChart(Map<String, BigDecimal> expensesByCategory) {
+  private JFreeChart createExpensePieChart(Map<String, Money> expensesByCategory) {
     var dataset = new DefaultPieDataset<String>();
     var total = expensesByCategory.values().stream()
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+        .reduce(Money.ZERO, Money::plus);
 
     for (var entry : expensesByCategory.entrySet()) {
-      dataset.setValue(entry.getKey(), entry.getValue());
+      dataset.setValue(entry.getKey(), entry.getValue().toBigDecimal());
     }
 
     var chart = ChartFactory.createPieChart(
-        "Expenses by Category\nTotal: " + CURRENCY_FORMAT.format(total),
+        "Expenses by Category\nTotal: " + CURRENCY_FORMAT.format(total.toBigDecimal()),
         dataset,
         true,
         true,
@@ -280,17 +334,17 @@ public class ReportGenerationService {
     return chart;
   }
 
-  private JFreeChart createIncomePieChart(Map<String, BigDecimal> incomesByCategory) {
+  private JFreeChart createIncomePieChart(Map<String, Money> incomesByCategory) {
     var dataset = new DefaultPieDataset<String>();
     var total = incomesByCategory.values().stream()
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+        .reduce(Money.ZERO, Money::plus);
 
     for (var entry : incomesByCategory.entrySet()) {
-      dataset.setValue(entry.getKey(), entry.getValue());
+      dataset.setValue(entry.getKey(), entry.getValue().toBigDecimal());
     }
 
     var chart = ChartFactory.createPieChart(
-        "Income by Category\nTotal: " + CURRENCY_FORMAT.format(total),
+        "Income by Category\nTotal: " + CURRENCY_FORMAT.format(total.toBigDecimal()),
         dataset,
         true,
         true,
@@ -342,10 +396,16 @@ public class ReportGenerationService {
         .toList();
   }
 
+  /**
+   * Record to hold the sum of a category within a month.
+   */
+  private record CategorySum(YearMonth month, String categoryName, Money total) {
+  }
+
   /**
    * Record to hold monthly aggregated data.
    */
-  private record MonthlyData(Map<YearMonth, BigDecimal> monthlyExpenses, Map<YearMonth, BigDecimal> monthlyIncomes) {
+  private record MonthlyData(Map<YearMonth, Money> monthlyExpenses, Map<YearMonth, Money> monthlyIncomes) {
   }
 
   /**
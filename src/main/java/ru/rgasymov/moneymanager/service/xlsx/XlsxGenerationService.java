@@ -96,6 +96,12 @@ public class XlsxGenerationService {
       for (var entry : savingsMap.entrySet()) {
         final var year = entry.getKey();
         final var savingsOfYear = entry.getValue();
+        //Prefer the closing checkpoint of the previous year when it is known
+        final var closingBalance =
+            data.closingBalances().floorEntry(LocalDate.of(year - 1, 12, 31));
+        if (closingBalance != null) {
+          lastYearSaving = closingBalance.getValue();
+        }
         final var sheet = wb.cloneSheet(TEMPLATE_SHEET_INDEX, year.toString());
 
         fillSheet(
@@ -2,45 +2,61 @@ package ru.rgasymov.moneymanager.service.xlsx;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import javax.xml.parsers.ParserConfigurationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.CellType;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.springframework.stereotype.Service;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 import ru.rgasymov.moneymanager.domain.FileImportResult;
 import ru.rgasymov.moneymanager.domain.entity.Expense;
 import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
 import ru.rgasymov.moneymanager.domain.entity.Income;
 import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
 import ru.rgasymov.moneymanager.service.UserService;
+import ru.rgasymov.moneymanager.service.xlsx.XlsxSheetReader.XlsxCell;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class XlsxParsingService {
 
+  /**
+   * Index of the row with column names.
+   */
+  private static final int HEAD_ROW = 0;
+
   /**
    * Index of the row with category names.
    */
@@ -83,212 +99,121 @@ public class XlsxParsingService {
 
   private final UserService userService;
 
-  public FileImportResult parse(File file) throws IOException, InvalidFormatException {
-    try (var workBook = new XSSFWorkbook(file)) {
-      var sheetIterator = workBook.sheetIterator();
+  /**
+   * Parses the workbook reading its sheets as streams of rows,
+   * so the workbook is never loaded into memory as a whole.
+   * Shared strings, styles and comments of the current sheet are the only parts kept,
+   * and operations are collected as soon as their rows are read.
+   *
+   * @param file the workbook
+   * @return incomes, expenses and their categories of all sheets,
+   *     and previous savings of the oldest sheet
+   */
+  public FileImportResult parse(File file) throws IOException, OpenXML4JException, SAXException {
+    var pkg = OPCPackage.open(file, PackageAccess.READ);
+    try {
+      var reader = new XSSFReader(pkg);
+      var sharedStrings = new ReadOnlySharedStringsTable(pkg);
+      var styles = reader.getStylesTable();
+      var filledStyles = new HashMap<Integer, Boolean>();
+      IntPredicate isFilled = styleIndex -> filledStyles.computeIfAbsent(styleIndex,
+          index -> styles.getStyleAt(index).getFillBackgroundXSSFColor() != null);
+      var date1904 = isDate1904(reader);
 
       FileImportResult result = null;
-      SortedSet<XSSFSheet> sortedSheets =
-          new TreeSet<>(Comparator.comparing(XSSFSheet::getSheetName));
+      String oldestSheetName = null;
+      SheetParser oldestSheet = null;
+      var sheetIterator = (XSSFReader.SheetIterator) reader.getSheetsData();
 
       while (sheetIterator.hasNext()) {
-        var sheet = (XSSFSheet) sheetIterator.next();
-        sortedSheets.add(sheet);
-
-        var incCategoriesRow = sheet.getRow(CATEGORIES_ROW);
-        var expCategoriesRow = sheet.getRow(CATEGORIES_ROW);
-
-        FileImportResult tempResult = extractData(sheet, incCategoriesRow, expCategoriesRow);
-        if (result != null) {
-          result.add(tempResult);
-        } else {
-          result = tempResult;
+        try (var sheetData = sheetIterator.next()) {
+          var sheetName = sheetIterator.getSheetName();
+          var comments = sheetIterator.getSheetComments();
+          var sheet = new SheetParser(sheetName, date1904, isFilled, address -> {
+            var comment = comments != null ? comments.findCellComment(address) : null;
+            return comment != null && comment.getString() != null
+                ? comment.getString().toString()
+                : null;
+          });
+          parseXml(sheetData, new XlsxSheetReader(
+              index -> sharedStrings.getItemAt(index).getString(), sheet));
+
+          FileImportResult tempResult = sheet.complete();
+          if (result != null) {
+            result.add(tempResult);
+          } else {
+            result = tempResult;
+          }
+          if (oldestSheetName == null || sheetName.compareTo(oldestSheetName) < 0) {
+            oldestSheetName = sheetName;
+            oldestSheet = sheet;
+          }
         }
       }
 
-      addPrevSavings(result, sortedSheets);
+      if (result == null) {
+        throw new IllegalStateException("The workbook has no sheets");
+      }
+      addPrevSavings(result, oldestSheet.getPreviousSavings());
       return result;
+    } finally {
+      pkg.revert();
     }
   }
 
-  private FileImportResult extractData(XSSFSheet sheet,
-                                       XSSFRow incCategoriesRow,
-                                       XSSFRow expCategoriesRow) {
-    var currentAccount = userService.getCurrentUser().getCurrentAccount();
-    var incomes = new ArrayList<Income>();
-    var expenses = new ArrayList<Expense>();
-    var incomeCategories = new HashMap<Integer, IncomeCategory>();
-    var expenseCategories = new HashMap<Integer, ExpenseCategory>();
-
-    //Find all categories
-    Integer incomeLastCol = findIncomeCategories(incCategoriesRow, incomeCategories);
-    findExpenseCategories(expCategoriesRow, expenseCategories, incomeLastCol);
-
-    //Iterate by data rows
-    for (int i = START_ROW; i <= sheet.getLastRowNum(); i++) {
-      var row = sheet.getRow(i);
-      if (row == null) {
-        continue;
-      }
-      var firstCell = row.getCell(0);
-
-      if (CellType.NUMERIC != firstCell.getCellType()) {
-        break;
-      }
-      LocalDateTime firstCellValue = firstCell.getLocalDateTimeCellValue();
-      if (firstCellValue == null) {
-        continue;
-      }
-
-      var date = firstCellValue.toLocalDate();
-
-      //Iterate by cells in row
-      for (int j = START_COLUMN; j <= row.getLastCellNum(); j++) {
-        var cell = row.getCell(j);
-        if (cell == null
-            || CellType.NUMERIC != cell.getCellType()
-            || cell.getCellStyle().getFillBackgroundXSSFColor() != null) {
-          continue;
-        }
-
-        var columnIndex = cell.getColumnIndex();
-        var cellValue = cell.getNumericCellValue();
-        String cellComment = null;
-        if (cell.getCellComment() != null
-            && cell.getCellComment().getString() != null) {
-          cellComment = cell.getCellComment().getString().toString();
-        }
-
-        var incomeCategory = incomeCategories.get(columnIndex);
-        var expenseCategory = expenseCategories.get(columnIndex);
-
-        var today = LocalDate.now();
-        if (incomeCategory != null && cellValue != 0) {
-          var incomesPerDay = buildOperationDrafts(cellValue, cellComment)
-              .stream()
-              .map(od -> Income.builder()
-                  .date(date)
-                  .value(od.value())
-                  .isPlanned(date.isAfter(today))
-                  .category(incomeCategory)
-                  .description(od.comment())
-                  .accountId(currentAccount.getId())
-                  .build())
-              .toList();
-          incomes.addAll(incomesPerDay);
-        } else if (expenseCategory != null && cellValue != 0) {
-          var expensesPerDay = buildOperationDrafts(cellValue, cellComment)
-              .stream()
-              .map(od -> Expense.builder()
-                  .date(date)
-                  .value(od.value())
-                  .isPlanned(date.isAfter(today))
-                  .category(expenseCategory)
-                  .description(od.comment())
-                  .accountId(currentAccount.getId())
-                  .build())
-              .toList();
-          expenses.addAll(expensesPerDay);
+  private static boolean isDate1904(XSSFReader reader)
+      throws IOException, InvalidFormatException, SAXException {
+    var date1904 = new AtomicBoolean();
+    try (var workbookData = reader.getWorkbookData()) {
+      parseXml(workbookData, new DefaultHandler() {
+        @Override
+        public void startElement(String uri, String localName, String name,
+                                 Attributes attributes) {
+          if ("workbookPr".equals(localName)) {
+            var value = attributes.getValue("date1904");
+            date1904.set("1".equals(value) || "true".equals(value));
+          }
         }
-      }
+      });
     }
-
-    return new FileImportResult(
-        incomes,
-        expenses,
-        new HashSet<>(incomeCategories.values()),
-        new HashSet<>(expenseCategories.values())
-    );
+    return date1904.get();
   }
 
-  private void findExpenseCategories(XSSFRow expCategoriesRow,
-                                     HashMap<Integer, ExpenseCategory> expenseCategories,
-                                     Integer incomeLastCol) {
-    if (incomeLastCol == null) {
-      return;
-    }
-    var currentAccount = userService.getCurrentUser().getCurrentAccount();
-
-    for (int i = incomeLastCol + 1;
-         i <= expCategoriesRow.getLastCellNum();
-         i++) {
-      var cell = expCategoriesRow.getCell(i);
-      var cellValue = cell.getStringCellValue();
-
-      if (cellValue.equals(EXPENSES_SUM_COLUMN_NAME)) {
-        return;
-      } else {
-        var expenseCategory = ExpenseCategory.builder()
-            .name(cellValue)
-            .accountId(currentAccount.getId())
-            .build();
-        expenseCategories.put(cell.getColumnIndex(), expenseCategory);
-      }
-    }
-  }
-
-  private Integer findIncomeCategories(XSSFRow incCategoriesRow,
-                                       HashMap<Integer, IncomeCategory> incomeCategories) {
-    var currentAccount = userService.getCurrentUser().getCurrentAccount();
-
-    for (int i = START_COLUMN; i <= incCategoriesRow.getLastCellNum(); i++) {
-      var cell = incCategoriesRow.getCell(i);
-      var cellValue = cell.getStringCellValue();
-
-      if (cellValue.equals(INCOMES_SUM_COLUMN_NAME)) {
-        return cell.getColumnIndex();
-      } else {
-        var incomeCategory = IncomeCategory.builder()
-            .name(cellValue)
-            .accountId(currentAccount.getId())
-            .build();
-        incomeCategories.put(cell.getColumnIndex(), incomeCategory);
-      }
+  private static void parseXml(InputStream data, DefaultHandler handler)
+      throws IOException, SAXException {
+    try {
+      var xmlReader = XMLHelper.newXMLReader();
+      xmlReader.setContentHandler(handler);
+      xmlReader.parse(new InputSource(data));
+    } catch (ParserConfigurationException e) {
+      throw new SAXException(e);
     }
-    return null;
   }
 
-  private void addPrevSavings(FileImportResult result,
-                              SortedSet<XSSFSheet> sortedSheets) {
-    XSSFSheet oldest = sortedSheets.first();
-    XSSFRow headRow = oldest.getRow(0);
-
-    for (Cell cell : headRow) {
-      if (cell != null
-          && cell.getCellType() == CellType.STRING
-          && cell.getStringCellValue().equals(SAVINGS_COLUMN_NAME)) {
-
-        //Get previous savings cell and its value
-        XSSFCell prevSavingsCell =
-            oldest.getRow(PREVIOUS_SAVINGS_ROW).getCell(cell.getColumnIndex());
-        double prevSavingsValue = prevSavingsCell.getNumericCellValue();
-
-        if (prevSavingsValue != 0) {
-          //Set previous savings value
-          result.setPreviousSavings(
-              BigDecimal.valueOf(prevSavingsValue)
-                  .setScale(SCALE, RoundingMode.HALF_UP));
-
-          //Calculate min year of incomes and expenses and set to previousSavingsDate
-          List<LocalDate> dates = result.getIncomes()
+  private void addPrevSavings(FileImportResult result, double prevSavingsValue) {
+    if (prevSavingsValue != 0) {
+      //Set previous savings value
+      result.setPreviousSavings(
+          BigDecimal.valueOf(prevSavingsValue)
+              .setScale(SCALE, RoundingMode.HALF_UP));
+
+      //Calculate min year of incomes and expenses and set to previousSavingsDate
+      List<LocalDate> dates = result.getIncomes()
+          .stream()
+          .map(Income::getDate)
+          .collect(Collectors.toList());
+      dates.addAll(
+          result.getExpenses()
               .stream()
-              .map(Income::getDate)
-              .collect(Collectors.toList());
-          dates.addAll(
-              result.getExpenses()
-                  .stream()
-                  .map(Expense::getDate)
-                  .toList()
-          );
-          Optional<LocalDate> minDate = dates.stream().min(LocalDate::compareTo);
-          if (minDate.isPresent()) {
-            result.setPreviousSavingsDate(
-                LocalDate.of(minDate.get().getYear(), 1, 1));
-          } else {
-            result.setPreviousSavingsDate(LocalDate.of(1970, 1, 1));
-          }
-        }
-        return;
+              .map(Expense::getDate)
+              .toList()
+      );
+      Optional<LocalDate> minDate = dates.stream().min(LocalDate::compareTo);
+      if (minDate.isPresent()) {
+        result.setPreviousSavingsDate(
+            LocalDate.of(minDate.get().getYear(), 1, 1));
+      } else {
+        result.setPreviousSavingsDate(LocalDate.of(1970, 1, 1));
       }
     }
   }
@@ -339,6 +264,214 @@ public class XlsxParsingService {
     }
   }
 
+  /**
+   * Collects operations and categories of a sheet from its rows.
+   */
+  private class SheetParser implements XlsxSheetReader.RowHandler {
+
+    private final String sheetName;
+    private final boolean date1904;
+    private final IntPredicate isFilled;
+    private final Function<CellAddress, String> comments;
+    private final Long accountId = userService.getCurrentUser().getCurrentAccount().getId();
+    private final LocalDate today = LocalDate.now();
+
+    private final List<Income> incomes = new ArrayList<>();
+    private final List<Expense> expenses = new ArrayList<>();
+    private final Map<Integer, IncomeCategory> incomeCategories = new HashMap<>();
+    private final Map<Integer, ExpenseCategory> expenseCategories = new HashMap<>();
+    private boolean categoriesFound;
+
+    private boolean headRowFound;
+    private Integer savingsColumn;
+    private XlsxCell prevSavingsCell;
+
+    private SheetParser(String sheetName,
+                        boolean date1904,
+                        IntPredicate isFilled,
+                        Function<CellAddress, String> comments) {
+      this.sheetName = sheetName;
+      this.date1904 = date1904;
+      this.isFilled = isFilled;
+      this.comments = comments;
+    }
+
+    @Override
+    public boolean handle(int rowIndex, List<XlsxCell> cells) {
+      if (rowIndex == HEAD_ROW) {
+        headRowFound = true;
+        findSavingsColumn(cells);
+      } else if (rowIndex == CATEGORIES_ROW) {
+        categoriesFound = true;
+        findCategories(cells);
+      } else if (rowIndex == PREVIOUS_SAVINGS_ROW) {
+        prevSavingsCell = savingsColumn == null ? null : cells.stream()
+            .filter(cell -> cell.column() == savingsColumn)
+            .findFirst()
+            .orElse(null);
+      } else if (rowIndex >= START_ROW) {
+        return extractData(rowIndex, cells);
+      }
+      return true;
+    }
+
+    private FileImportResult complete() {
+      if (!categoriesFound) {
+        throw new IllegalStateException(
+            String.format("Sheet '%s' has no row with categories", sheetName));
+      }
+      return new FileImportResult(
+          incomes,
+          expenses,
+          new HashSet<>(incomeCategories.values()),
+          new HashSet<>(expenseCategories.values())
+      );
+    }
+
+    private double getPreviousSavings() {
+      if (!headRowFound) {
+        throw new IllegalStateException(
+            String.format("Sheet '%s' has no head row", sheetName));
+      }
+      if (savingsColumn == null) {
+        return 0;
+      }
+      if (prevSavingsCell == null) {
+        throw new IllegalStateException(
+            String.format("Sheet '%s' has no previous savings", sheetName));
+      }
+      return prevSavingsCell.getNumericCellValue();
+    }
+
+    private void findSavingsColumn(List<XlsxCell> headRow) {
+      for (XlsxCell cell : headRow) {
+        if (cell.type() == CellType.STRING
+            && cell.getStringCellValue().equals(SAVINGS_COLUMN_NAME)) {
+          savingsColumn = cell.column();
+          return;
+        }
+      }
+    }
+
+    private void findCategories(List<XlsxCell> categoriesRow) {
+      var cellsByColumn = new HashMap<Integer, XlsxCell>();
+      categoriesRow.forEach(cell -> cellsByColumn.put(cell.column(), cell));
+      var lastCellNum = categoriesRow.isEmpty()
+          ? -1
+          : categoriesRow.get(categoriesRow.size() - 1).column() + 1;
+
+      Integer incomeLastCol = findIncomeCategories(cellsByColumn, lastCellNum);
+      findExpenseCategories(cellsByColumn, lastCellNum, incomeLastCol);
+    }
+
+    private Integer findIncomeCategories(Map<Integer, XlsxCell> categoriesRow, int lastCellNum) {
+      for (int i = START_COLUMN; i <= lastCellNum; i++) {
+        var cellValue = getCategoryName(categoriesRow, i);
+
+        if (cellValue.equals(INCOMES_SUM_COLUMN_NAME)) {
+          return i;
+        } else {
+          var incomeCategory = IncomeCategory.builder()
+              .name(cellValue)
+              .accountId(accountId)
+              .build();
+          incomeCategories.put(i, incomeCategory);
+        }
+      }
+      return null;
+    }
+
+    private void findExpenseCategories(Map<Integer, XlsxCell> categoriesRow,
+                                       int lastCellNum,
+                                       Integer incomeLastCol) {
+      if (incomeLastCol == null) {
+        return;
+      }
+
+      for (int i = incomeLastCol + 1; i <= lastCellNum; i++) {
+        var cellValue = getCategoryName(categoriesRow, i);
+
+        if (cellValue.equals(EXPENSES_SUM_COLUMN_NAME)) {
+          return;
+        } else {
+          var expenseCategory = ExpenseCategory.builder()
+              .name(cellValue)
+              .accountId(accountId)
+              .build();
+          expenseCategories.put(i, expenseCategory);
+        }
+      }
+    }
+
+    private String getCategoryName(Map<Integer, XlsxCell> categoriesRow, int column) {
+      var cell = categoriesRow.get(column);
+      if (cell == null) {
+        throw new IllegalStateException(String.format(
+            "Sheet '%s' has no category in column %d", sheetName, column + 1));
+      }
+      return cell.getStringCellValue();
+    }
+
+    private boolean extractData(int rowIndex, List<XlsxCell> row) {
+      if (row.isEmpty() || row.get(0).column() != 0) {
+        throw new IllegalStateException(String.format(
+            "Sheet '%s' has no date in row %d", sheetName, rowIndex + 1));
+      }
+      var firstCell = row.get(0);
+
+      if (CellType.NUMERIC != firstCell.type()) {
+        return false;
+      }
+      LocalDateTime firstCellValue =
+          DateUtil.getLocalDateTime(firstCell.getNumericCellValue(), date1904);
+      if (firstCellValue == null) {
+        return true;
+      }
+
+      var date = firstCellValue.toLocalDate();
+
+      //Iterate by cells in row
+      for (XlsxCell cell : row) {
+        if (cell.column() < START_COLUMN
+            || CellType.NUMERIC != cell.type()
+            || isFilled.test(cell.styleIndex())) {
+          continue;
+        }
+
+        var columnIndex = cell.column();
+        var cellValue = cell.getNumericCellValue();
+
+        var incomeCategory = incomeCategories.get(columnIndex);
+        var expenseCategory = expenseCategories.get(columnIndex);
+
+        if (incomeCategory != null && cellValue != 0) {
+          var cellComment = comments.apply(new CellAddress(rowIndex, columnIndex));
+          buildOperationDrafts(cellValue, cellComment)
+              .forEach(od -> incomes.add(Income.builder()
+                  .date(date)
+                  .value(od.value())
+                  .isPlanned(date.isAfter(today))
+                  .category(incomeCategory)
+                  .description(od.comment())
+                  .accountId(accountId)
+                  .build()));
+        } else if (expenseCategory != null && cellValue != 0) {
+          var cellComment = comments.apply(new CellAddress(rowIndex, columnIndex));
+          buildOperationDrafts(cellValue, cellComment)
+              .forEach(od -> expenses.add(Expense.builder()
+                  .date(date)
+                  .value(od.value())
+                  .isPlanned(date.isAfter(today))
+                  .category(expenseCategory)
+                  .description(od.comment())
+                  .accountId(accountId)
+                  .build()));
+        }
+      }
+      return true;
+    }
+  }
+
   private record OperationDraft(String comment, BigDecimal value) {
   }
 }
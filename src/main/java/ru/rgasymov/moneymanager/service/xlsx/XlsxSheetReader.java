@@ -0,0 +1,207 @@
+package ru.rgasymov.moneymanager.service.xlsx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads rows of a sheet one by one from the XML of the sheet,
+ * so only cells of the current row are held at a time.
+ *
+ * <p>Cells are described the way the workbook model of POI describes them:
+ * a cell with a formula is a {@link CellType#FORMULA} cell whatever its cached value is,
+ * and a cell without a value is a {@link CellType#BLANK} one.
+ */
+final class XlsxSheetReader extends DefaultHandler {
+
+  private final IntFunction<String> sharedStrings;
+  private final RowHandler rowHandler;
+
+  private final List<XlsxCell> cells = new ArrayList<>();
+  private final StringBuilder text = new StringBuilder();
+  private boolean stopped;
+
+  private int rowIndex = -1;
+  private int columnIndex = -1;
+  private String valueType;
+  private int styleIndex;
+  private boolean formula;
+  private String value;
+
+  private boolean inValue;
+  private boolean inInlineString;
+  private boolean inInlineText;
+  private boolean inPhonetic;
+
+  /**
+   * Creates a reader of a sheet.
+   *
+   * @param sharedStrings returns a shared string by its index
+   * @param rowHandler    accepts rows of the sheet in order
+   */
+  XlsxSheetReader(IntFunction<String> sharedStrings, RowHandler rowHandler) {
+    this.sharedStrings = sharedStrings;
+    this.rowHandler = rowHandler;
+  }
+
+  @Override
+  public void startElement(String uri, String localName, String name, Attributes attributes) {
+    if (stopped) {
+      return;
+    }
+    switch (localName) {
+      case "row" -> {
+        var reference = attributes.getValue("r");
+        rowIndex = reference != null ? Integer.parseInt(reference) - 1 : rowIndex + 1;
+        columnIndex = -1;
+        cells.clear();
+      }
+      case "c" -> {
+        var reference = attributes.getValue("r");
+        columnIndex = reference != null ? new CellReference(reference).getCol() : columnIndex + 1;
+        valueType = attributes.getValue("t");
+        var style = attributes.getValue("s");
+        styleIndex = style != null ? Integer.parseInt(style) : 0;
+        formula = false;
+        value = null;
+      }
+      case "f" -> formula = true;
+      case "v" -> {
+        inValue = true;
+        text.setLength(0);
+      }
+      case "is" -> {
+        inInlineString = true;
+        text.setLength(0);
+      }
+      case "rPh" -> inPhonetic = true;
+      case "t" -> inInlineText = inInlineString && !inPhonetic;
+      default -> {
+        //Other elements do not matter
+      }
+    }
+  }
+
+  @Override
+  public void endElement(String uri, String localName, String name) {
+    if (stopped) {
+      return;
+    }
+    switch (localName) {
+      case "v" -> {
+        inValue = false;
+        value = text.toString();
+      }
+      case "t" -> inInlineText = false;
+      case "rPh" -> inPhonetic = false;
+      case "is" -> {
+        inInlineString = false;
+        value = text.toString();
+      }
+      case "c" -> cells.add(toCell());
+      case "row" -> stopped = !rowHandler.handle(rowIndex, cells);
+      default -> {
+        //Other elements do not matter
+      }
+    }
+  }
+
+  @Override
+  public void characters(char[] ch, int start, int length) {
+    if (inValue || inInlineText) {
+      text.append(ch, start, length);
+    }
+  }
+
+  private XlsxCell toCell() {
+    if (value == null) {
+      return new XlsxCell(columnIndex, formula ? CellType.FORMULA : CellType.BLANK,
+          CellType.BLANK, 0, "", styleIndex);
+    }
+    var type = valueType != null ? valueType : "n";
+    return switch (type) {
+      case "s" -> stringCell(sharedStrings.apply(Integer.parseInt(value)));
+      case "inlineStr", "str", "d" -> stringCell(value);
+      case "b" -> otherCell(CellType.BOOLEAN);
+      case "e" -> otherCell(CellType.ERROR);
+      default -> new XlsxCell(columnIndex, formula ? CellType.FORMULA : CellType.NUMERIC,
+          CellType.NUMERIC, Double.parseDouble(value), null, styleIndex);
+    };
+  }
+
+  private XlsxCell stringCell(String string) {
+    return new XlsxCell(columnIndex, formula ? CellType.FORMULA : CellType.STRING,
+        CellType.STRING, 0, string, styleIndex);
+  }
+
+  private XlsxCell otherCell(CellType cellType) {
+    return new XlsxCell(columnIndex, formula ? CellType.FORMULA : cellType,
+        cellType, 0, null, styleIndex);
+  }
+
+  /**
+   * Accepts rows of a sheet.
+   */
+  @FunctionalInterface
+  interface RowHandler {
+
+    /**
+     * Handles a row.
+     *
+     * @param rowIndex index of the row
+     * @param cells    cells of the row ordered by column, valid only during the call
+     * @return whether further rows of the sheet are to be read
+     */
+    boolean handle(int rowIndex, List<XlsxCell> cells);
+  }
+
+  /**
+   * A cell of a row.
+   *
+   * @param column       index of the column
+   * @param type         type of the cell
+   * @param valueType    type of the value, the type of the cached result for formulas
+   * @param numericValue the value of a numeric cell
+   * @param stringValue  the value of a string cell
+   * @param styleIndex   index of the style of the cell
+   */
+  record XlsxCell(int column,
+                  CellType type,
+                  CellType valueType,
+                  double numericValue,
+                  String stringValue,
+                  int styleIndex) {
+
+    /**
+     * Returns the string value as {@code XSSFCell#getStringCellValue()} does.
+     */
+    String getStringCellValue() {
+      if (valueType == CellType.BLANK) {
+        return "";
+      }
+      if (valueType != CellType.STRING) {
+        throw new IllegalStateException(
+            String.format("Cannot get a STRING value from a %s cell", valueType));
+      }
+      return stringValue;
+    }
+
+    /**
+     * Returns the numeric value as {@code XSSFCell#getNumericCellValue()} does.
+     */
+    double getNumericCellValue() {
+      if (valueType == CellType.BLANK) {
+        return 0;
+      }
+      if (valueType != CellType.NUMERIC) {
+        throw new IllegalStateException(
+            String.format("Cannot get a NUMERIC value from a %s cell", valueType));
+      }
+      return numericValue;
+    }
+  }
+}
@@ -1,24 +1,31 @@
 package ru.rgasymov.moneymanager.spec;
 
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
-import jakarta.persistence.criteria.ListJoin;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import ru.rgasymov.moneymanager.config.RowValueFunctionContributor;
+import ru.rgasymov.moneymanager.domain.SavingCursor;
 import ru.rgasymov.moneymanager.domain.entity.Expense;
-import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
 import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory_;
 import ru.rgasymov.moneymanager.domain.entity.Expense_;
 import ru.rgasymov.moneymanager.domain.entity.Income;
-import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
 import ru.rgasymov.moneymanager.domain.entity.IncomeCategory_;
 import ru.rgasymov.moneymanager.domain.entity.Income_;
 import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.entity.SavingCheckpoint;
+import ru.rgasymov.moneymanager.domain.entity.SavingCheckpoint_;
 import ru.rgasymov.moneymanager.domain.entity.Saving_;
+import ru.rgasymov.moneymanager.domain.enums.SavingFieldToSort;
 import ru.rgasymov.moneymanager.util.SpecUtils;
 
 public final class SavingSpec {
@@ -56,66 +63,173 @@ public final class SavingSpec {
         cb.equal(saving.get(Saving_.accountId), id);
   }
 
+  /**
+   * Keeps savings following the cursor in the given sort direction.
+   * Savings are ordered by the cursor field and then by id, which makes the order total.
+   * See {@link RowValueFunctionContributor} for the comparison of values.
+   */
+  public static Specification<Saving> after(SavingCursor cursor, Sort.Direction direction) {
+    return (saving, cq, cb) -> {
+      if (cursor.sortBy() == SavingFieldToSort.DATE) {
+        //A date is unique within an account
+        var date = saving.get(Saving_.date);
+        return direction.isAscending()
+            ? cb.greaterThan(date, cursor.date())
+            : cb.lessThan(date, cursor.date());
+      }
+      //A row value comparison is one range of the index on (account_id, value_, id)
+      return cb.isTrue(cb.function(
+          direction.isAscending()
+              ? RowValueFunctionContributor.ROW_GREATER_THAN
+              : RowValueFunctionContributor.ROW_LESS_THAN,
+          Boolean.class,
+          saving.get(Saving_.value),
+          saving.get(Saving_.id),
+          cb.literal(cursor.value()),
+          cb.literal(cursor.id())));
+    };
+  }
+
+  /**
+   * Orders savings by the running balance derived from per-day deltas, the same way
+   * as {@code SavingFilterSql.derivedBalance} does: the closing checkpoint before the saving
+   * plus deltas of savings after it up to the saving.
+   * Used in {@link ru.rgasymov.moneymanager.domain.enums.LedgerMode#DELTA}
+   * where the stored {@code value_} is not maintained.
+   *
+   * <p>A checkpoint closes a month on its last day, so the last checkpoint before a date
+   * is the one of a previous month, and a balance sums at most a month of deltas.
+   */
+  public static Specification<Saving> orderByBalance(Sort.Direction direction) {
+    return (saving, cq, cb) -> {
+      if (Long.class == cq.getResultType()) {
+        return null;
+      }
+      var balance = cb.sum(
+          cb.coalesce(checkpointBalance(cq, cb, saving), BigDecimal.ZERO),
+          cb.coalesce(deltasSinceCheckpoint(cq, cb, saving), BigDecimal.ZERO));
+
+      cq.orderBy(direction.isAscending() ? cb.asc(balance) : cb.desc(balance));
+      return null;
+    };
+  }
+
+  private static Subquery<BigDecimal> checkpointBalance(CommonAbstractCriteria query,
+                                                        CriteriaBuilder cb,
+                                                        Root<Saving> saving) {
+    var balance = query.subquery(BigDecimal.class);
+    var checkpoint = balance.from(SavingCheckpoint.class);
+    return balance.select(checkpoint.get(SavingCheckpoint_.balance))
+        .where(
+            cb.equal(checkpoint.get(SavingCheckpoint_.accountId),
+                saving.get(Saving_.accountId)),
+            cb.equal(checkpoint.get(SavingCheckpoint_.closingDate),
+                lastClosingDate(balance, cb, saving)));
+  }
+
+  private static Subquery<BigDecimal> deltasSinceCheckpoint(CommonAbstractCriteria query,
+                                                            CriteriaBuilder cb,
+                                                            Root<Saving> saving) {
+    var deltas = query.subquery(BigDecimal.class);
+    var day = deltas.from(Saving.class);
+    return deltas.select(cb.sum(day.get(Saving_.delta)))
+        .where(
+            cb.equal(day.get(Saving_.accountId), saving.get(Saving_.accountId)),
+            cb.lessThanOrEqualTo(day.get(Saving_.date), saving.get(Saving_.date)),
+            cb.or(
+                cb.isNull(lastClosingDate(deltas, cb, saving)),
+                cb.greaterThan(day.get(Saving_.date), lastClosingDate(deltas, cb, saving))));
+  }
+
+  private static Subquery<LocalDate> lastClosingDate(CommonAbstractCriteria query,
+                                                     CriteriaBuilder cb,
+                                                     Root<Saving> saving) {
+    var closingDate = query.subquery(LocalDate.class);
+    var checkpoint = closingDate.from(SavingCheckpoint.class);
+    return closingDate.select(cb.greatest(checkpoint.get(SavingCheckpoint_.closingDate)))
+        .where(
+            cb.equal(checkpoint.get(SavingCheckpoint_.accountId),
+                saving.get(Saving_.accountId)),
+            cb.lessThan(checkpoint.get(SavingCheckpoint_.closingDate),
+                saving.get(Saving_.date)));
+  }
+
+  /**
+   * Keeps savings having an operation of the checked categories matching the search text
+   * or not having operations at all.
+   *
+   * <p>Operations are checked with correlated {@code EXISTS} subqueries rather than joins,
+   * so a saving is never multiplied by its operations and neither the page nor its count
+   * needs deduplication. The subqueries are served by the indexes on
+   * {@code (account_id, saving_id, category_id)}.
+   */
   public static Specification<Saving> filterBySearchTextAndCategoryIds(
       @NotNull List<Long> incCategoryIds,
       @NotNull List<Long> expCategoryIds,
       String searchText) {
 
     return (saving, cq, cb) -> {
-      cq.distinct(true);
-      var incomeListJoin = joinIncomes(saving);
-      var expenseListJoin = joinExpenses(saving);
-      var incomeCategoryJoin = joinIncomeCategory(incomeListJoin);
-      var expenseCategoryJoin = joinExpenseCategory(expenseListJoin);
-
-      var incomeCategoryIdPath = incomeCategoryJoin.get(IncomeCategory_.id);
-      var expenseCategoryIdPath = expenseCategoryJoin.get(ExpenseCategory_.id);
-
-      if (StringUtils.isNotBlank(searchText)) {
-        var pattern = SpecUtils.prepareSearchPattern(searchText);
-        var incomeDescriptionPath = incomeListJoin.get(Income_.description);
-        var expenseDescriptionPath = expenseListJoin.get(Expense_.description);
-        var incomeCategoryNamePath = incomeCategoryJoin.get(IncomeCategory_.name);
-        var expenseCategoryNamePath = expenseCategoryJoin.get(ExpenseCategory_.name);
-
-        return cb.or(
-            cb.and(
-                incomeCategoryIdPath.in(incCategoryIds),
-                cb.or(
-                    cb.like(cb.lower(incomeDescriptionPath), pattern),
-                    cb.like(cb.lower(incomeCategoryNamePath), pattern))),
-            cb.and(
-                expenseCategoryIdPath.in(expCategoryIds),
-                cb.or(
-                    cb.like(cb.lower(expenseDescriptionPath), pattern),
-                    cb.like(cb.lower(expenseCategoryNamePath), pattern))),
-            cb.and(incomeListJoin.isNull(), expenseListJoin.isNull())
-        );
-      } else {
-        return cb.or(
-            incomeCategoryIdPath.in(incCategoryIds),
-            expenseCategoryIdPath.in(expCategoryIds),
-            cb.and(incomeListJoin.isNull(), expenseListJoin.isNull())
-        );
+      var pattern = StringUtils.isNotBlank(searchText)
+          ? SpecUtils.prepareSearchPattern(searchText)
+          : null;
+
+      var matchingIncome = cq.subquery(Integer.class);
+      var income = matchingIncome.from(Income.class);
+      var incomePredicates = new ArrayList<Predicate>();
+      incomePredicates.add(incomeOfSaving(cb, income, saving));
+      incomePredicates.add(income.get(Income_.category).get(IncomeCategory_.id)
+          .in(incCategoryIds));
+      if (pattern != null) {
+        var category = income.join(Income_.category);
+        incomePredicates.add(cb.or(
+            cb.like(cb.lower(income.get(Income_.description)), pattern),
+            cb.like(cb.lower(category.get(IncomeCategory_.name)), pattern)));
       }
-    };
-  }
+      matchingIncome.select(cb.literal(1)).where(incomePredicates.toArray(Predicate[]::new));
+
+      var matchingExpense = cq.subquery(Integer.class);
+      var expense = matchingExpense.from(Expense.class);
+      var expensePredicates = new ArrayList<Predicate>();
+      expensePredicates.add(expenseOfSaving(cb, expense, saving));
+      expensePredicates.add(expense.get(Expense_.category).get(ExpenseCategory_.id)
+          .in(expCategoryIds));
+      if (pattern != null) {
+        var category = expense.join(Expense_.category);
+        expensePredicates.add(cb.or(
+            cb.like(cb.lower(expense.get(Expense_.description)), pattern),
+            cb.like(cb.lower(category.get(ExpenseCategory_.name)), pattern)));
+      }
+      matchingExpense.select(cb.literal(1)).where(expensePredicates.toArray(Predicate[]::new));
 
-  private static ListJoin<Saving, Income> joinIncomes(Root<Saving> saving) {
-    return saving.join(Saving_.incomes, JoinType.LEFT);
-  }
+      var anyIncome = cq.subquery(Integer.class);
+      var anyIncomeRoot = anyIncome.from(Income.class);
+      anyIncome.select(cb.literal(1)).where(incomeOfSaving(cb, anyIncomeRoot, saving));
 
-  private static ListJoin<Saving, Expense> joinExpenses(Root<Saving> saving) {
-    return saving.join(Saving_.expenses, JoinType.LEFT);
+      var anyExpense = cq.subquery(Integer.class);
+      var anyExpenseRoot = anyExpense.from(Expense.class);
+      anyExpense.select(cb.literal(1)).where(expenseOfSaving(cb, anyExpenseRoot, saving));
+
+      return cb.or(
+          cb.exists(matchingIncome),
+          cb.exists(matchingExpense),
+          cb.and(cb.not(cb.exists(anyIncome)), cb.not(cb.exists(anyExpense)))
+      );
+    };
   }
 
-  private static Join<Income, IncomeCategory> joinIncomeCategory(
-      ListJoin<Saving, Income> incomeListJoin) {
-    return incomeListJoin.join(Income_.category, JoinType.LEFT);
+  private static Predicate incomeOfSaving(CriteriaBuilder cb,
+                                          Root<Income> income,
+                                          Root<Saving> saving) {
+    return cb.and(
+        cb.equal(income.get(Income_.accountId), saving.get(Saving_.accountId)),
+        cb.equal(income.get(Income_.savingId), saving.get(Saving_.id)));
   }
 
-  private static Join<Expense, ExpenseCategory> joinExpenseCategory(
-      ListJoin<Saving, Expense> expenseListJoin) {
-    return expenseListJoin.join(Expense_.category, JoinType.LEFT);
+  private static Predicate expenseOfSaving(CriteriaBuilder cb,
+                                           Root<Expense> expense,
+                                           Root<Saving> saving) {
+    return cb.and(
+        cb.equal(expense.get(Expense_.accountId), saving.get(Saving_.accountId)),
+        cb.equal(expense.get(Expense_.savingId), saving.get(Saving_.id)));
   }
 }
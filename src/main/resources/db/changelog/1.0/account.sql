@@ -19,3 +19,6 @@ ALTER TABLE account
 ALTER TABLE users
   ADD CONSTRAINT fk_users_current_account
   FOREIGN KEY (current_account_id) REFERENCES account(id);
+
+-- changeset "Gasymov Ruslan":000001-add-column-data-version-account
+ALTER TABLE account ADD COLUMN data_version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,45 @@
+-- liquibase formatted sql
+
+-- changeset "Gasymov Ruslan":000000-create-table-category-month-totals
+CREATE TABLE category_month_totals (
+  id bigint GENERATED BY DEFAULT AS IDENTITY,
+  account_id bigint,
+  month date,
+  operation_type varchar(255),
+  category_id bigint,
+  total numeric(102, 2),
+  operations_count bigint
+);
+
+-- changeset "Gasymov Ruslan":000000-create-constraint-category-month-totals
+ALTER TABLE category_month_totals ADD PRIMARY KEY (id);
+ALTER TABLE category_month_totals ALTER COLUMN account_id SET NOT NULL;
+ALTER TABLE category_month_totals ALTER COLUMN month SET NOT NULL;
+ALTER TABLE category_month_totals ALTER COLUMN operation_type SET NOT NULL;
+ALTER TABLE category_month_totals ALTER COLUMN category_id SET NOT NULL;
+ALTER TABLE category_month_totals ALTER COLUMN total SET NOT NULL;
+ALTER TABLE category_month_totals ALTER COLUMN operations_count SET NOT NULL;
+ALTER TABLE category_month_totals
+  ADD CONSTRAINT fk_category_month_totals_account
+  FOREIGN KEY (account_id) REFERENCES account(id);
+ALTER TABLE category_month_totals
+  ADD CONSTRAINT category_month_totals_unique
+  UNIQUE (account_id, month, operation_type, category_id);
+
+-- changeset "Gasymov Ruslan":000000-populate-category-month-totals
+INSERT INTO category_month_totals
+  (account_id, month, operation_type, category_id, total, operations_count)
+SELECT o.account_id,
+       CAST(date_trunc('month', o.date) AS date) AS month,
+       o.operation_type,
+       o.category_id,
+       SUM(o.value_),
+       COUNT(*)
+FROM (
+  SELECT i.account_id, i.date, 'INCOME' AS operation_type, i.category_id, i.value_
+  FROM income i
+  UNION ALL
+  SELECT e.account_id, e.date, 'EXPENSE' AS operation_type, e.category_id, e.value_
+  FROM expense e
+) o
+GROUP BY o.account_id, month, o.operation_type, o.category_id;
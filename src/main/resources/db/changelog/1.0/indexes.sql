@@ -49,3 +49,13 @@ CREATE INDEX IF NOT EXISTS idx_expense_account_saving_category ON expense(accoun
 -- Remove old indexes
 DROP INDEX IF EXISTS idx_income_category_id;
 DROP INDEX IF EXISTS idx_expense_category_id;
+
+-- changeset "Gasymov Ruslan":000000-create-saving-keyset-indexes
+-- Composite indexes for keyset pagination ordered by a field and then by id
+-- Covers: WHERE account_id = ? AND (value_, id) > (?, ?) ORDER BY value_, id
+CREATE INDEX IF NOT EXISTS idx_saving_account_value_id ON saving(account_id, value_, id);
+-- Covers: WHERE account_id = ? AND date > ? ORDER BY date, id
+CREATE INDEX IF NOT EXISTS idx_saving_account_date_id ON saving(account_id, date, id);
+-- Remove old indexes, their columns are prefixes of the new ones
+DROP INDEX IF EXISTS idx_saving_account_value;
+DROP INDEX IF EXISTS idx_saving_account_date;
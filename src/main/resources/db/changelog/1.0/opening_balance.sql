@@ -0,0 +1,23 @@
+-- liquibase formatted sql
+
+-- changeset "Gasymov Ruslan":000000-add-column-opening-balance-account
+ALTER TABLE account ADD COLUMN opening_balance numeric(102, 2) NOT NULL DEFAULT 0;
+ALTER TABLE account ADD COLUMN opening_date date;
+
+-- changeset "Gasymov Ruslan":000000-fill-opening-balance-account
+UPDATE account a
+SET opening_date = f.date,
+    opening_balance = f.delta - COALESCE((
+      SELECT SUM(o.net)
+      FROM (
+        SELECT i.value_ AS net FROM income i WHERE i.saving_id = f.id
+        UNION ALL
+        SELECT -e.value_ AS net FROM expense e WHERE e.saving_id = f.id
+      ) o
+    ), 0)
+FROM (
+  SELECT DISTINCT ON (s.account_id) s.account_id, s.id, s.date, s.delta
+  FROM saving s
+  ORDER BY s.account_id, s.date
+) f
+WHERE f.account_id = a.id;
@@ -22,3 +22,15 @@ ALTER TABLE saving
 ALTER TABLE saving ALTER COLUMN account_id SET NOT NULL;
 ALTER TABLE saving ALTER COLUMN date SET NOT NULL;
 ALTER TABLE saving ALTER COLUMN value_ SET NOT NULL;
+
+-- changeset "Gasymov Ruslan":000002-add-column-delta-saving
+ALTER TABLE saving ADD COLUMN delta numeric(102, 2);
+UPDATE saving s
+SET delta = d.delta
+FROM (
+  SELECT id, value_ - COALESCE(LAG(value_) OVER (PARTITION BY account_id ORDER BY date), 0) AS delta
+  FROM saving
+) d
+WHERE s.id = d.id;
+ALTER TABLE saving ALTER COLUMN delta SET DEFAULT 0;
+ALTER TABLE saving ALTER COLUMN delta SET NOT NULL;
@@ -0,0 +1,33 @@
+-- liquibase formatted sql
+
+-- changeset "Gasymov Ruslan":000000-create-table-saving-checkpoint
+CREATE TABLE saving_checkpoint (
+  id bigint GENERATED BY DEFAULT AS IDENTITY,
+  account_id bigint,
+  closing_date date,
+  balance numeric(102, 2)
+);
+
+-- changeset "Gasymov Ruslan":000000-create-constraint-saving-checkpoint
+ALTER TABLE saving_checkpoint ADD PRIMARY KEY (id);
+ALTER TABLE saving_checkpoint ALTER COLUMN account_id SET NOT NULL;
+ALTER TABLE saving_checkpoint ALTER COLUMN closing_date SET NOT NULL;
+ALTER TABLE saving_checkpoint ALTER COLUMN balance SET NOT NULL;
+ALTER TABLE saving_checkpoint
+  ADD CONSTRAINT fk_saving_checkpoint_account
+  FOREIGN KEY (account_id) REFERENCES account(id);
+ALTER TABLE saving_checkpoint
+  ADD CONSTRAINT saving_checkpoint_closing_date_unique UNIQUE (account_id, closing_date);
+
+-- changeset "Gasymov Ruslan":000000-populate-saving-checkpoint
+INSERT INTO saving_checkpoint (account_id, closing_date, balance)
+SELECT m.account_id,
+       m.closing_date,
+       SUM(m.month_delta) OVER (PARTITION BY m.account_id ORDER BY m.closing_date)
+FROM (
+  SELECT s.account_id,
+         CAST(date_trunc('month', s.date) + INTERVAL '1 month - 1 day' AS date) AS closing_date,
+         SUM(s.delta) AS month_delta
+  FROM saving s
+  GROUP BY s.account_id, closing_date
+) m;
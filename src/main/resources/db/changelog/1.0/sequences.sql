@@ -0,0 +1,37 @@
+-- liquibase formatted sql
+
+-- changeset "Gasymov Ruslan":000000-replace-identity-with-sequence-saving
+ALTER TABLE saving ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE saving_seq INCREMENT BY 50 OWNED BY saving.id;
+SELECT setval('saving_seq', COALESCE(MAX(id), 1), MAX(id) IS NOT NULL) FROM saving;
+ALTER TABLE saving ALTER COLUMN id SET DEFAULT nextval('saving_seq');
+
+-- changeset "Gasymov Ruslan":000000-replace-identity-with-sequence-income-category
+ALTER TABLE income_category ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE income_category_seq INCREMENT BY 50 OWNED BY income_category.id;
+SELECT setval('income_category_seq', COALESCE(MAX(id), 1), MAX(id) IS NOT NULL) FROM income_category;
+ALTER TABLE income_category ALTER COLUMN id SET DEFAULT nextval('income_category_seq');
+
+-- changeset "Gasymov Ruslan":000000-replace-identity-with-sequence-expense-category
+ALTER TABLE expense_category ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE expense_category_seq INCREMENT BY 50 OWNED BY expense_category.id;
+SELECT setval('expense_category_seq', COALESCE(MAX(id), 1), MAX(id) IS NOT NULL) FROM expense_category;
+ALTER TABLE expense_category ALTER COLUMN id SET DEFAULT nextval('expense_category_seq');
+
+-- changeset "Gasymov Ruslan":000000-replace-identity-with-sequence-income
+ALTER TABLE income ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE income_seq INCREMENT BY 50 OWNED BY income.id;
+SELECT setval('income_seq', COALESCE(MAX(id), 1), MAX(id) IS NOT NULL) FROM income;
+ALTER TABLE income ALTER COLUMN id SET DEFAULT nextval('income_seq');
+
+-- changeset "Gasymov Ruslan":000000-replace-identity-with-sequence-expense
+ALTER TABLE expense ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE expense_seq INCREMENT BY 50 OWNED BY expense.id;
+SELECT setval('expense_seq', COALESCE(MAX(id), 1), MAX(id) IS NOT NULL) FROM expense;
+ALTER TABLE expense ALTER COLUMN id SET DEFAULT nextval('expense_seq');
+
+-- changeset "Gasymov Ruslan":000000-replace-identity-with-sequence-history
+ALTER TABLE history ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE history_action_seq INCREMENT BY 50 OWNED BY history.id;
+SELECT setval('history_action_seq', COALESCE(MAX(id), 1), MAX(id) IS NOT NULL) FROM history;
+ALTER TABLE history ALTER COLUMN id SET DEFAULT nextval('history_action_seq');
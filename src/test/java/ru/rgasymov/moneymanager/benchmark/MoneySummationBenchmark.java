@@ -0,0 +1,96 @@
+package ru.rgasymov.moneymanager.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.rgasymov.moneymanager.domain.Money;
+
+/**
+ * Compares summing amounts of operations with {@link BigDecimal#add}, which the mappers
+ * and reports did before, with accumulating their minor units in a {@code long}
+ * and with adding {@link Money} values converted beforehand.
+ *
+ * <p>Run with the {@code gc} profiler to compare allocation rates:
+ * <pre>
+ * java -cp target/test-classes:&lt;test classpath&gt; \
+ *   ru.rgasymov.moneymanager.benchmark.MoneySummationBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneySummationBenchmark {
+
+  @Param({"1000", "100000"})
+  private int operations;
+
+  private List<BigDecimal> values;
+  private List<Money> moneyValues;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(MoneySummationBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    var random = new Random(42);
+    values = new ArrayList<>(operations);
+    moneyValues = new ArrayList<>(operations);
+    for (int i = 0; i < operations; i++) {
+      //Values as read from numeric(102, 2) columns
+      var value = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+      values.add(value);
+      moneyValues.add(Money.of(value));
+    }
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalAdd() {
+    var sum = BigDecimal.ZERO;
+    for (BigDecimal value : values) {
+      sum = sum.add(value);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public BigDecimal minorUnits() {
+    long sum = 0;
+    for (BigDecimal value : values) {
+      sum = Math.addExact(sum, Money.toMinorUnits(value));
+    }
+    return Money.ofMinorUnits(sum).toBigDecimal();
+  }
+
+  @Benchmark
+  public Money moneyPlus() {
+    var sum = Money.ZERO;
+    for (Money value : moneyValues) {
+      sum = sum.plus(value);
+    }
+    return sum;
+  }
+}
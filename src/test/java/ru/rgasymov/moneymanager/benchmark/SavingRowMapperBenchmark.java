@@ -0,0 +1,106 @@
+package ru.rgasymov.moneymanager.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.rgasymov.moneymanager.domain.SavingOperationRow;
+import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+import ru.rgasymov.moneymanager.mapper.SavingRowMapper;
+
+/**
+ * Compares mapping of streamed savings by one {@link SavingRowMapper.Mapping}
+ * with mapping of every saving as a page of its own, which took the current date
+ * and built DTOs of categories per saving.
+ *
+ * <p>Savings are passed one by one with their operations, as the stream of savings does.
+ * Run with the {@code gc} profiler to compare allocation rates:
+ * <pre>
+ * java -cp target/test-classes:&lt;test classpath&gt; \
+ *   ru.rgasymov.moneymanager.benchmark.SavingRowMapperBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SavingRowMapperBenchmark {
+
+  private static final int CATEGORIES = 20;
+
+  @Param({"1000"})
+  private int savings;
+
+  @Param({"4", "16"})
+  private int operationsPerSaving;
+
+  private final SavingRowMapper savingRowMapper = new SavingRowMapper();
+
+  private List<Saving> savingRows;
+  private List<List<SavingOperationRow>> operationRows;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(SavingRowMapperBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    savingRows = new ArrayList<>(savings);
+    operationRows = new ArrayList<>(savings);
+    var firstDate = LocalDate.now().minusDays(savings / 2);
+    long operationId = 1;
+    for (long id = 1; id <= savings; id++) {
+      var date = firstDate.plusDays(id);
+      savingRows.add(Saving.builder().id(id).date(date).value(BigDecimal.valueOf(id * 100))
+          .build());
+      var operations = new ArrayList<SavingOperationRow>(operationsPerSaving);
+      for (int i = 0; i < operationsPerSaving; i++, operationId++) {
+        var type = i % 2 == 0 ? OperationType.INCOME : OperationType.EXPENSE;
+        var categoryId = operationId % CATEGORIES + 1;
+        operations.add(new SavingOperationRow(id, type, operationId, categoryId,
+            type + " " + categoryId, date, "Operation " + operationId,
+            BigDecimal.valueOf(operationId % 1000), i % 3 == 0));
+      }
+      operationRows.add(operations);
+    }
+  }
+
+  @Benchmark
+  public void oneMapping(Blackhole blackhole) {
+    var mapping = savingRowMapper.newMapping();
+    for (int i = 0; i < savingRows.size(); i++) {
+      blackhole.consume(mapping.toDto(savingRows.get(i), operationRows.get(i)));
+    }
+  }
+
+  @Benchmark
+  public void pagePerSaving(Blackhole blackhole) {
+    for (int i = 0; i < savingRows.size(); i++) {
+      blackhole.consume(
+          savingRowMapper.toDtos(List.of(savingRows.get(i)), operationRows.get(i)).getFirst());
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package ru.rgasymov.moneymanager.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.rgasymov.moneymanager.domain.SavingOperationRow;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
+import ru.rgasymov.moneymanager.domain.entity.Expense;
+import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
+import ru.rgasymov.moneymanager.domain.entity.Income;
+import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
+import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+import ru.rgasymov.moneymanager.mapper.SavingMapper;
+import ru.rgasymov.moneymanager.mapper.SavingRowMapper;
+
+/**
+ * Compares building a page of the savings search from hydrated entities
+ * with building it from flat operation rows.
+ *
+ * <p>Both paths start from the data a page of the search reads: the entity path
+ * from savings with loaded operations and categories, the row path from the saving rows
+ * and the rows of their operations. Run with the {@code gc} profiler to compare allocations:
+ * <pre>
+ * java -cp target/test-classes:&lt;test classpath&gt; \
+ *   ru.rgasymov.moneymanager.benchmark.SavingSearchReadPathBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SavingSearchReadPathBenchmark {
+
+  private static final int CATEGORIES = 20;
+
+  @Param({"50", "500"})
+  private int savings;
+
+  @Param({"4", "16"})
+  private int operationsPerSaving;
+
+  private AnnotationConfigApplicationContext context;
+  private SavingMapper savingMapper;
+  private SavingRowMapper savingRowMapper;
+
+  private List<Saving> savingEntities;
+  private List<Saving> savingRows;
+  private List<SavingOperationRow> operationRows;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(SavingSearchReadPathBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new AnnotationConfigApplicationContext("ru.rgasymov.moneymanager.mapper");
+    savingMapper = context.getBean(SavingMapper.class);
+    savingRowMapper = context.getBean(SavingRowMapper.class);
+
+    var incomeCategories = new ArrayList<IncomeCategory>(CATEGORIES);
+    var expenseCategories = new ArrayList<ExpenseCategory>(CATEGORIES);
+    for (long i = 1; i <= CATEGORIES; i++) {
+      incomeCategories.add(IncomeCategory.builder().id(i).name("Income " + i).build());
+      expenseCategories.add(ExpenseCategory.builder().id(i).name("Expense " + i).build());
+    }
+
+    savingEntities = new ArrayList<>(savings);
+    savingRows = new ArrayList<>(savings);
+    operationRows = new ArrayList<>(savings * operationsPerSaving);
+    var firstDate = LocalDate.now().minusDays(savings);
+    long operationId = 1;
+    for (long id = 1; id <= savings; id++) {
+      var date = firstDate.plusDays(id);
+      var value = BigDecimal.valueOf(id * 100);
+      var entity = Saving.builder().id(id).date(date).value(value).build();
+      savingRows.add(Saving.builder().id(id).date(date).value(value).build());
+      for (int i = 0; i < operationsPerSaving; i++, operationId++) {
+        var type = i % 2 == 0 ? OperationType.INCOME : OperationType.EXPENSE;
+        var categoryIndex = (int) (operationId % CATEGORIES);
+        var operationValue = BigDecimal.valueOf(operationId % 1000);
+        var planned = i % 3 == 0;
+        if (type == OperationType.INCOME) {
+          var category = incomeCategories.get(categoryIndex);
+          entity.getIncomes().add(Income.builder().id(operationId).savingId(id).date(date)
+              .description("Income " + operationId).value(operationValue).isPlanned(planned)
+              .category(category).build());
+          operationRows.add(new SavingOperationRow(id, type, operationId, category.getId(),
+              category.getName(), date, "Income " + operationId, operationValue, planned));
+        } else {
+          var category = expenseCategories.get(categoryIndex);
+          entity.getExpenses().add(Expense.builder().id(operationId).savingId(id).date(date)
+              .description("Expense " + operationId).value(operationValue).isPlanned(planned)
+              .category(category).build());
+          operationRows.add(new SavingOperationRow(id, type, operationId, category.getId(),
+              category.getName(), date, "Expense " + operationId, operationValue, planned));
+        }
+      }
+      savingEntities.add(entity);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<SavingResponseDto> entities() {
+    return savingMapper.toDtos(savingEntities);
+  }
+
+  @Benchmark
+  public List<SavingResponseDto> rows() {
+    return savingRowMapper.toDtos(savingRows, operationRows);
+  }
+}
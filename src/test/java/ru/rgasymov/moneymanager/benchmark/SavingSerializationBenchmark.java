@@ -0,0 +1,178 @@
+package ru.rgasymov.moneymanager.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingSearchResultDto;
+import ru.rgasymov.moneymanager.domain.enums.Period;
+import ru.rgasymov.moneymanager.mapper.SavingColumnarMapper;
+
+/**
+ * Compares serialization of a one-year page of the savings search as JSON, CBOR and Smile,
+ * in the nested and the columnar layout.
+ *
+ * <p>The mappers are configured like the ones of the application. Sizes of the payloads
+ * are printed once per trial. Run with:
+ * <pre>
+ * java -cp target/test-classes:&lt;test classpath&gt; \
+ *   ru.rgasymov.moneymanager.benchmark.SavingSerializationBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SavingSerializationBenchmark {
+
+  private static final int DAYS = 365;
+  private static final int CATEGORIES = 20;
+
+  @Param({"4"})
+  private int operationsPerDay;
+
+  @Param({"NESTED", "COLUMNAR"})
+  private String layout;
+
+  private ObjectMapper jsonMapper;
+  private ObjectMapper cborMapper;
+  private ObjectMapper smileMapper;
+
+  private Object page;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(SavingSerializationBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws JsonProcessingException {
+    jsonMapper = mapper(new JsonFactory());
+    cborMapper = mapper(new CBORFactory());
+    smileMapper = mapper(new SmileFactory());
+
+    var searchResult = oneYear();
+    page = "COLUMNAR".equals(layout)
+        ? new SavingColumnarMapper().toColumnar(searchResult, Period.DAY)
+        : searchResult;
+
+    System.out.printf("%n%s bytes: json=%d, cbor=%d, smile=%d%n", layout,
+        json().length, cbor().length, smile().length);
+  }
+
+  @Benchmark
+  public byte[] json() throws JsonProcessingException {
+    return jsonMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] cbor() throws JsonProcessingException {
+    return cborMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] smile() throws JsonProcessingException {
+    return smileMapper.writeValueAsBytes(page);
+  }
+
+  private static ObjectMapper mapper(JsonFactory factory) {
+    return Jackson2ObjectMapperBuilder.json()
+        .factory(factory)
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .serializationInclusion(JsonInclude.Include.NON_NULL)
+        .build();
+  }
+
+  private SavingSearchResultDto oneYear() {
+    var incomeCategories = new ArrayList<OperationCategoryResponseDto>(CATEGORIES);
+    var expenseCategories = new ArrayList<OperationCategoryResponseDto>(CATEGORIES);
+    for (long i = 1; i <= CATEGORIES; i++) {
+      incomeCategories.add(
+          OperationCategoryResponseDto.builder().id(i).name("Income " + i).build());
+      expenseCategories.add(
+          OperationCategoryResponseDto.builder().id(CATEGORIES + i).name("Expense " + i).build());
+    }
+
+    var savings = new ArrayList<SavingResponseDto>(DAYS);
+    var firstDate = LocalDate.now().minusDays(DAYS);
+    var balance = BigDecimal.valueOf(100_000, 2);
+    long operationId = 1;
+    for (long id = 1; id <= DAYS; id++) {
+      var date = firstDate.plusDays(id);
+      var incomes = new HashMap<String, List<OperationResponseDto>>();
+      var expenses = new HashMap<String, List<OperationResponseDto>>();
+      var incomesSum = BigDecimal.ZERO;
+      var expensesSum = BigDecimal.ZERO;
+      for (int i = 0; i < operationsPerDay; i++, operationId++) {
+        var value = BigDecimal.valueOf(operationId * 137 % 100_000, 2);
+        var isIncome = i % 4 == 0;
+        var categories = isIncome ? incomeCategories : expenseCategories;
+        var category = categories.get((int) (operationId % CATEGORIES));
+        var operation = OperationResponseDto.builder()
+            .id(operationId)
+            .category(category)
+            .date(date)
+            .description("Operation " + operationId)
+            .value(value)
+            .isPlanned(i % 3 == 0)
+            .build();
+        (isIncome ? incomes : expenses)
+            .computeIfAbsent(category.getName(), name -> new ArrayList<>())
+            .add(operation);
+        if (isIncome) {
+          incomesSum = incomesSum.add(value);
+        } else {
+          expensesSum = expensesSum.add(value);
+        }
+      }
+      balance = balance.add(incomesSum).subtract(expensesSum);
+      savings.add(SavingResponseDto.builder()
+          .id(id)
+          .date(date)
+          .value(balance)
+          .incomesSum(incomesSum)
+          .expensesSum(expensesSum)
+          .incomesByCategory(incomes)
+          .expensesByCategory(expenses)
+          .build());
+    }
+    return SavingSearchResultDto.builder()
+        .result(savings)
+        .totalElements((long) DAYS)
+        .incomeCategories(incomeCategories)
+        .expenseCategories(expenseCategories)
+        .build();
+  }
+}
@@ -0,0 +1,64 @@
+package ru.rgasymov.moneymanager.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+  @Test
+  void toMinorUnits_shouldMatchExactConversion() {
+    var random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      var unscaled = random.nextLong() % 1_000_000_000_000_000L / 1000;
+      var value = BigDecimal.valueOf(unscaled, random.nextInt(3));
+      var expected = value.setScale(Money.SCALE, RoundingMode.UNNECESSARY)
+          .unscaledValue().longValueExact();
+
+      assertThat(Money.toMinorUnits(value)).as("%s", value).isEqualTo(expected);
+      assertThat(Money.of(value).toBigDecimal()).isEqualByComparingTo(value);
+      assertThat(Money.of(value).toDouble()).isEqualTo(value.doubleValue());
+    }
+  }
+
+  @Test
+  void toMinorUnits_shouldAcceptTrailingZerosAndNegativeScale() {
+    assertThat(Money.toMinorUnits(new BigDecimal("12.3400"))).isEqualTo(1234);
+    assertThat(Money.toMinorUnits(new BigDecimal("1E+3"))).isEqualTo(100_000);
+    assertThat(Money.toMinorUnits(new BigDecimal("-0.01"))).isEqualTo(-1);
+  }
+
+  @Test
+  void toMinorUnits_shouldRejectFractionsOfMinorUnits() {
+    assertThatThrownBy(() -> Money.toMinorUnits(new BigDecimal("0.001")))
+        .isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  void toMinorUnits_shouldRejectAmountsNotFittingLong() {
+    assertThatThrownBy(() -> Money.toMinorUnits(new BigDecimal("1E+20")))
+        .isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  void plus_shouldThrowOnOverflow() {
+    var max = Money.ofMinorUnits(Long.MAX_VALUE);
+
+    assertThatThrownBy(() -> max.plus(Money.ofMinorUnits(1)))
+        .isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  void arithmetic_shouldBeExact() {
+    var sum = Money.of(new BigDecimal("0.10")).plus(Money.of(new BigDecimal("0.20")));
+
+    assertThat(sum).isEqualTo(Money.of(new BigDecimal("0.3")));
+    assertThat(sum.minus(Money.of(new BigDecimal("0.30")))).isSameAs(Money.ZERO);
+    assertThat(sum.negate().signum()).isEqualTo(-1);
+    assertThat(sum.toString()).isEqualTo("0.30");
+  }
+}
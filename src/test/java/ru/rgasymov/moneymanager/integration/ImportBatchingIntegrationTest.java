@@ -0,0 +1,96 @@
+package ru.rgasymov.moneymanager.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.rgasymov.moneymanager.domain.FileImportResult;
+import ru.rgasymov.moneymanager.domain.entity.Expense;
+import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
+import ru.rgasymov.moneymanager.domain.entity.Income;
+import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
+import ru.rgasymov.moneymanager.repository.ExpenseRepository;
+import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.repository.SavingRepository;
+import ru.rgasymov.moneymanager.service.ImportService;
+
+/**
+ * Integration tests of inserting imported data in JDBC batches.
+ */
+class ImportBatchingIntegrationTest extends BaseIntegrationTest {
+
+  private static final int DAYS = 500;
+  private static final int OPERATIONS_PER_DAY = 4;
+
+  @Autowired
+  private ImportService importService;
+
+  @Autowired
+  private SavingRepository savingRepository;
+
+  @Autowired
+  private IncomeRepository incomeRepository;
+
+  @Autowired
+  private ExpenseRepository expenseRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Test
+  void importFromFile_shouldInsertRowsInBatches() {
+    var incomeCategory = IncomeCategory.builder()
+        .name("Salary").accountId(testAccount.getId()).build();
+    var expenseCategory = ExpenseCategory.builder()
+        .name("Food").accountId(testAccount.getId()).build();
+    var incomes = new ArrayList<Income>();
+    var expenses = new ArrayList<Expense>();
+    var firstDate = LocalDate.of(2020, 1, 1);
+    for (int day = 0; day < DAYS; day++) {
+      var date = firstDate.plusDays(day);
+      for (int i = 0; i < OPERATIONS_PER_DAY / 2; i++) {
+        incomes.add(Income.builder().date(date).value(BigDecimal.valueOf(100))
+            .isPlanned(false).category(incomeCategory).accountId(testAccount.getId()).build());
+        expenses.add(Expense.builder().date(date).value(BigDecimal.valueOf(30))
+            .isPlanned(false).category(expenseCategory).accountId(testAccount.getId()).build());
+      }
+    }
+    var result = new FileImportResult(incomes, expenses,
+        new HashSet<>(Set.of(incomeCategory)), new HashSet<>(Set.of(expenseCategory)));
+
+    var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+    try {
+      importService.importFromFile(result);
+      entityManager.flush();
+
+      var insertedRows = DAYS * OPERATIONS_PER_DAY + DAYS + 2;
+      assertThat(statistics.getEntityInsertCount()).isEqualTo(insertedRows);
+      //One statement per batch of 50 rows instead of one per row
+      assertThat(statistics.getPrepareStatementCount()).isLessThan(insertedRows / 10);
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+
+    entityManager.clear();
+    assertThat(incomeRepository.count()).isEqualTo(DAYS * OPERATIONS_PER_DAY / 2);
+    assertThat(expenseRepository.count()).isEqualTo(DAYS * OPERATIONS_PER_DAY / 2);
+    var lastSaving = savingRepository.findAll().stream()
+        .filter(saving -> saving.getDate().equals(firstDate.plusDays(DAYS - 1)))
+        .findFirst()
+        .orElseThrow();
+    assertThat(lastSaving.getValue()).isEqualByComparingTo(BigDecimal.valueOf(140L * DAYS));
+  }
+}
@@ -1,22 +1,42 @@
 package ru.rgasymov.moneymanager.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import ru.rgasymov.moneymanager.constant.MediaTypes;
+import ru.rgasymov.moneymanager.domain.SavingCursor;
+import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
+import ru.rgasymov.moneymanager.domain.dto.response.CategoryTotalsVerificationDto;
+import ru.rgasymov.moneymanager.domain.dto.response.LedgerVerificationDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingColumnarResultDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
 import ru.rgasymov.moneymanager.domain.dto.response.SavingSearchResultDto;
+import ru.rgasymov.moneymanager.domain.dto.response.StreamEndDto;
 import ru.rgasymov.moneymanager.domain.entity.Expense;
 import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
 import ru.rgasymov.moneymanager.domain.entity.Income;
 import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
 import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.Period;
+import ru.rgasymov.moneymanager.domain.enums.SavingFieldToSort;
 import ru.rgasymov.moneymanager.repository.ExpenseCategoryRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
 import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
@@ -238,6 +258,82 @@ class SavingControllerIntegrationTest extends BaseIntegrationTest {
         .andExpect(jsonPath("$.result").isArray());
   }
 
+  @Test
+  void search_shouldSumOperationsByCategory_whenGroupedByYear() throws Exception {
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .param("pageNum", "0")
+            .param("pageSize", "10")
+            .param("sortBy", "DATE")
+            .param("sortDirection", "DESC")
+            .param("groupBy", "YEAR"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    var result = objectMapper.readValue(response, SavingSearchResultDto.class);
+    var sameYear = LocalDate.now().minusDays(10).getYear() == LocalDate.now().getYear();
+
+    // Then: Every year is a single result ending with its latest saving
+    assertThat(result.getTotalElements()).isEqualTo(sameYear ? 1 : 2);
+    var latest = result.getResult().get(0);
+    assertThat(latest.getPeriod()).isEqualTo(Period.YEAR);
+    assertThat(latest.getId()).isEqualTo(testSaving.getId());
+    assertThat(latest.getValue()).isEqualByComparingTo("3400");
+
+    // Then: Operations of all years are summed by category
+    var incomes = new HashMap<String, BigDecimal>();
+    var expenses = new HashMap<String, BigDecimal>();
+    result.getResult().forEach(period -> {
+      period.getIncomesSumByCategory()
+          .forEach((name, sum) -> incomes.merge(name, sum, BigDecimal::add));
+      period.getExpensesSumByCategory()
+          .forEach((name, sum) -> expenses.merge(name, sum, BigDecimal::add));
+    });
+    assertThat(incomes.get("Salary")).isEqualByComparingTo("7000");
+    assertThat(incomes.get("Bonus")).isEqualByComparingTo("500");
+    assertThat(expenses.get("Food")).isEqualByComparingTo("600");
+    assertThat(expenses.get("Transport")).isEqualByComparingTo("50");
+  }
+
+  @Test
+  void search_shouldSumOnlyFilteredOperations_whenGroupedByMonth() throws Exception {
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .param("from", LocalDate.now().toString())
+            .param("groupBy", "MONTH")
+            .param("expenseCategoryIds", foodCategory.getId().toString()))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    var result = objectMapper.readValue(response, SavingSearchResultDto.class);
+
+    assertThat(result.getTotalElements()).isEqualTo(1);
+    var month = result.getResult().get(0);
+    assertThat(month.getExpensesSumByCategory()).containsOnlyKeys("Food");
+    assertThat(month.getExpensesSum()).isEqualByComparingTo("100");
+    assertThat(month.getExpensesByCategory().get("Food"))
+        .extracting(operation -> operation.getDescription())
+        .containsExactly("Groceries");
+    assertThat(month.getIncomesByCategory()).isEmpty();
+  }
+
+  @Test
+  void search_shouldReturnOnlySums_whenGroupedWithSumsOnly() throws Exception {
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .param("from", LocalDate.now().toString())
+            .param("groupBy", "MONTH")
+            .param("sumsOnly", "true"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    var month = objectMapper.readValue(response, SavingSearchResultDto.class).getResult().get(0);
+
+    assertThat(month.getIncomesSumByCategory()).containsOnlyKeys("Salary", "Bonus");
+    assertThat(month.getIncomesByCategory()).isNull();
+    assertThat(month.getExpensesByCategory()).isNull();
+  }
+
   @Test
   void search_shouldReturnIncomeCategories() throws Exception {
     mockMvc.perform(get(apiBaseUrl + "/savings")
@@ -447,4 +543,382 @@ class SavingControllerIntegrationTest extends BaseIntegrationTest {
     assertThat(result2.getResult()).hasSize(1);
     assertThat(result2.getResult().get(0).getDate()).isEqualTo(LocalDate.now().minusDays(10));
   }
+
+  @Test
+  void search_shouldSupportKeysetPagination() throws Exception {
+    // Given: 2 savings in database
+
+    // When: Request the first page of size 1 sorted by value
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .param("after", "")
+            .param("pageSize", "1")
+            .param("sortBy", "SAVING_VALUE")
+            .param("sortDirection", "DESC")
+            .param("groupBy", "DAY"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalElements").doesNotExist())
+        .andReturn().getResponse().getContentAsString();
+
+    // Then: Should return the greatest saving and a cursor of the next page
+    var result = objectMapper.readValue(response, SavingSearchResultDto.class);
+
+    assertThat(result.getResult()).hasSize(1);
+    assertThat(result.getResult().get(0).getDate()).isEqualTo(LocalDate.now());
+    assertThat(result.getNextCursor()).isNotBlank();
+
+    // When: Request the page after the cursor
+    var response2 = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .param("after", result.getNextCursor())
+            .param("withTotal", "true")
+            .param("pageSize", "1")
+            .param("sortBy", "SAVING_VALUE")
+            .param("sortDirection", "DESC")
+            .param("groupBy", "DAY"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    // Then: Should return the last saving without a next cursor
+    var result2 = objectMapper.readValue(response2, SavingSearchResultDto.class);
+
+    assertThat(result2.getTotalElements()).isEqualTo(2);
+    assertThat(result2.getResult()).hasSize(1);
+    assertThat(result2.getResult().get(0).getDate()).isEqualTo(LocalDate.now().minusDays(10));
+    assertThat(result2.getNextCursor()).isNull();
+  }
+
+  @Test
+  void search_shouldReturnBadRequest_whenCursorOfAnotherSorting() throws Exception {
+    var cursor = new SavingCursor(SavingFieldToSort.DATE, LocalDate.now(), null, 1L).encode();
+
+    mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .param("after", cursor)
+            .param("sortBy", "SAVING_VALUE"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void stream_shouldWriteEverySavingAsJsonLine() throws Exception {
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings/stream")
+            .header("Authorization", getAuthorizationHeader())
+            .param("pageSize", "1")
+            .param("sortBy", "DATE")
+            .param("sortDirection", "DESC"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andReturn().getResponse().getContentAsString();
+
+    // Then: Every saving is a line, the page size is ignored, the stream ends with its status
+    var lines = response.lines().toList();
+    assertThat(lines).hasSize(3);
+    var today = objectMapper.readValue(lines.get(0), SavingResponseDto.class);
+    assertThat(today.getId()).isEqualTo(testSaving.getId());
+    assertThat(today.getValue()).isEqualByComparingTo("3400");
+    assertThat(today.getIncomesByCategory()).containsOnlyKeys("Salary", "Bonus");
+    assertThat(today.getExpensesSum()).isEqualByComparingTo("150");
+    var past = objectMapper.readValue(lines.get(1), SavingResponseDto.class);
+    assertThat(past.getId()).isEqualTo(pastSaving.getId());
+    assertThat(past.getIncomesSum()).isEqualByComparingTo("2000");
+    var end = objectMapper.readValue(lines.get(2), StreamEndDto.class);
+    assertThat(end.complete()).isTrue();
+    assertThat(end.errors()).isNull();
+  }
+
+  @Test
+  void stream_shouldWriteOnlyFilteredOperations() throws Exception {
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings/stream")
+            .header("Authorization", getAuthorizationHeader())
+            .param("searchText", "bonus"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    var lines = response.lines().toList();
+    assertThat(lines).hasSize(2);
+    var saving = objectMapper.readValue(lines.get(0), SavingResponseDto.class);
+    assertThat(saving.getId()).isEqualTo(testSaving.getId());
+    assertThat(saving.getIncomesByCategory()).containsOnlyKeys("Bonus");
+    assertThat(saving.getExpensesByCategory()).isEmpty();
+  }
+
+  @Test
+  void search_shouldReturnSavingsInColumns_whenColumnarFormatRequested() throws Exception {
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .param("format", "columnar")
+            .param("sortBy", "DATE")
+            .param("sortDirection", "DESC"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.result").doesNotExist())
+        .andReturn().getResponse().getContentAsString();
+
+    var result = objectMapper.readValue(response, SavingColumnarResultDto.class);
+
+    // Then: Savings are columns of the same length
+    assertThat(result.getTotalElements()).isEqualTo(2);
+    assertThat(result.getIds()).containsExactly(testSaving.getId(), pastSaving.getId());
+    assertThat(result.getDates()).containsExactly(LocalDate.now(), LocalDate.now().minusDays(10));
+    assertThat(result.getExpensesSum().get(0)).isEqualByComparingTo("150");
+    assertThat(result.getIncomesSum().get(1)).isEqualByComparingTo("2000");
+
+    // Then: Operations refer to their savings and categories by index
+    var incomes = result.getIncomes();
+    assertThat(incomes.getIds()).hasSize(3);
+    var bonusIndex = result.getIncomeCategories().stream()
+        .map(OperationCategoryResponseDto::getName)
+        .toList()
+        .indexOf("Bonus");
+    var bonusRow = -1;
+    for (int i = 0; i < incomes.getCategories().length; i++) {
+      if (incomes.getCategories()[i] == bonusIndex) {
+        bonusRow = i;
+      }
+    }
+    assertThat(bonusRow).isNotNegative();
+    assertThat(result.getIds()[incomes.getSavings()[bonusRow]]).isEqualTo(testSaving.getId());
+    assertThat(incomes.getValues().get(bonusRow)).isEqualByComparingTo("500");
+    assertThat(result.getExpenses().getIds()).hasSize(3);
+  }
+
+  @Test
+  void search_shouldReturnNotModified_untilDataOfAccountChanged() throws Exception {
+    // Given: The ETag of the current data
+    var etag = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader()))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // Then: Nothing is rendered while the data is the same
+    mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    // When: An income is created
+    var dto = new OperationRequestDto();
+    dto.setDate(LocalDate.now());
+    dto.setValue(BigDecimal.valueOf(100));
+    dto.setIsPlanned(false);
+    dto.setCategoryId(salaryCategory.getId());
+    mockMvc.perform(post(apiBaseUrl + "/incomes")
+            .header("Authorization", getAuthorizationHeader())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(dto)))
+        .andExpect(status().isOk());
+
+    // Then: The savings are rendered again with a new ETag
+    var newEtag = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(newEtag).isNotEqualTo(etag);
+  }
+
+  @Test
+  void search_shouldNotReturnNotModified_forEtagOfAnotherDate() throws Exception {
+    // Given: The ETag the savings got yesterday, when other operations were overdue
+    var today = "-" + LocalDate.now().toEpochDay();
+    var etag = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader()))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(etag).contains(today);
+    var yesterdayEtag = etag.replace(today, "-" + LocalDate.now().minusDays(1).toEpochDay());
+
+    // Then: The savings are rendered again although the data is the same
+    mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .header(HttpHeaders.IF_NONE_MATCH, yesterdayEtag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, etag));
+  }
+
+  @Test
+  void search_shouldReturnCbor_whenAccepted() throws Exception {
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .accept(MediaType.APPLICATION_CBOR)
+            .param("sortBy", "DATE")
+            .param("sortDirection", "DESC"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+        .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+        .andReturn().getResponse();
+
+    var result = objectMapper.copyWith(new CBORFactory())
+        .readValue(response.getContentAsByteArray(), SavingSearchResultDto.class);
+    assertThat(result.getTotalElements()).isEqualTo(2);
+    assertThat(result.getResult().get(0).getDate()).isEqualTo(LocalDate.now());
+    assertThat(result.getResult().get(0).getValue()).isEqualByComparingTo("3400");
+    assertThat(result.getResult().get(0).getIncomesByCategory())
+        .containsOnlyKeys("Salary", "Bonus");
+  }
+
+  @Test
+  void search_shouldReturnSmile_whenAccepted() throws Exception {
+    var response = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .accept(MediaTypes.APPLICATION_SMILE))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaTypes.APPLICATION_SMILE))
+        .andReturn().getResponse();
+
+    var result = objectMapper.copyWith(new SmileFactory())
+        .readValue(response.getContentAsByteArray(), SavingSearchResultDto.class);
+    assertThat(result.getTotalElements()).isEqualTo(2);
+  }
+
+  @Test
+  void search_shouldReturnJson_whenAnyTypeAccepted() throws Exception {
+    mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .accept(MediaType.ALL))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  void search_shouldNotReturnNotModified_forEtagOfAnotherFormat() throws Exception {
+    var jsonEtag = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    var cborEtag = mockMvc.perform(get(apiBaseUrl + "/savings")
+            .header("Authorization", getAuthorizationHeader())
+            .accept(MediaType.APPLICATION_CBOR)
+            .header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertThat(cborEtag).isNotEqualTo(jsonEtag);
+  }
+
+  @Test
+  void rebuildLedger_shouldRepairDriftedSavings() throws Exception {
+    // Given: Stored values do not match operations of the savings
+    var verification = mockMvc.perform(get(apiBaseUrl + "/savings/ledger/verification")
+            .header("Authorization", getAuthorizationHeader()))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    var before = objectMapper.readValue(verification, LedgerVerificationDto.class);
+    assertThat(before.getCheckedSavings()).isEqualTo(2);
+    assertThat(before.getValueDrifts()).isEqualTo(2);
+    assertThat(before.getDeltaDrifts()).isEqualTo(2);
+    assertThat(before.getRebuiltSavings()).isNull();
+
+    // When: Rebuild the ledger
+    var rebuild = mockMvc.perform(post(apiBaseUrl + "/savings/ledger/rebuild")
+            .header("Authorization", getAuthorizationHeader()))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    // Then: Both savings are rewritten and no drift is left
+    assertThat(objectMapper.readValue(rebuild, LedgerVerificationDto.class).getRebuiltSavings())
+        .isEqualTo(2);
+    var after = objectMapper.readValue(
+        mockMvc.perform(get(apiBaseUrl + "/savings/ledger/verification")
+                .header("Authorization", getAuthorizationHeader()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(),
+        LedgerVerificationDto.class);
+    assertThat(after.getValueDrifts()).isZero();
+    assertThat(after.getDeltaDrifts()).isZero();
+
+    // The account has no opening balance, so every saving gets just its operations
+    var todayValue = savingRepository.findByDateAndAccountId(LocalDate.now(), testAccount.getId())
+        .orElseThrow()
+        .getValue();
+    assertThat(todayValue).isEqualByComparingTo(BigDecimal.valueOf(6850));
+  }
+
+  @Test
+  void rebuildLedger_shouldKeepOpeningBalance_whenOlderOperationIsAdded() throws Exception {
+    // Given: The account opens with a balance on the date of the past saving
+    accountRepository.updateOpeningBalance(
+        testAccount.getId(), pastSaving.getDate(), BigDecimal.valueOf(1000));
+    mockMvc.perform(post(apiBaseUrl + "/savings/ledger/rebuild")
+            .header("Authorization", getAuthorizationHeader()))
+        .andExpect(status().isOk());
+
+    // When: An operation older than the opening date is added
+    var dto = new OperationRequestDto();
+    dto.setDate(LocalDate.now().minusDays(20));
+    dto.setValue(BigDecimal.valueOf(200));
+    dto.setIsPlanned(false);
+    dto.setCategoryId(salaryCategory.getId());
+    mockMvc.perform(post(apiBaseUrl + "/incomes")
+            .header("Authorization", getAuthorizationHeader())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(dto)))
+        .andExpect(status().isOk());
+
+    // Then: The opening balance stays on its date and no drift is reported
+    var verification = objectMapper.readValue(
+        mockMvc.perform(get(apiBaseUrl + "/savings/ledger/verification")
+                .header("Authorization", getAuthorizationHeader()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(),
+        LedgerVerificationDto.class);
+    assertThat(verification.getCheckedSavings()).isEqualTo(3);
+    assertThat(verification.getValueDrifts()).isZero();
+    assertThat(verification.getDeltaDrifts()).isZero();
+
+    mockMvc.perform(post(apiBaseUrl + "/savings/ledger/rebuild")
+            .header("Authorization", getAuthorizationHeader()))
+        .andExpect(status().isOk());
+    var todayValue = savingRepository.findByDateAndAccountId(LocalDate.now(), testAccount.getId())
+        .orElseThrow()
+        .getValue();
+    assertThat(todayValue).isEqualByComparingTo(BigDecimal.valueOf(8050));
+  }
+
+  @Test
+  void rebuildCategoryTotals_shouldRepairTotalsAndKeepThemOnWrites() throws Exception {
+    // Given: Operations are saved bypassing the services, so there are no totals of them
+    var before = objectMapper.readValue(
+        mockMvc.perform(get(apiBaseUrl + "/savings/category-totals/verification")
+                .header("Authorization", getAuthorizationHeader()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(),
+        CategoryTotalsVerificationDto.class);
+    assertThat(before.getDriftedTotals()).isPositive();
+    assertThat(before.getDriftedTotals()).isEqualTo(before.getCheckedTotals());
+    assertThat(before.getRebuiltTotals()).isNull();
+
+    // When: Rebuild the totals
+    var rebuild = objectMapper.readValue(
+        mockMvc.perform(post(apiBaseUrl + "/savings/category-totals/rebuild")
+                .header("Authorization", getAuthorizationHeader()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(),
+        CategoryTotalsVerificationDto.class);
+    assertThat(rebuild.getRebuiltTotals()).isEqualTo((int) before.getCheckedTotals());
+
+    // And: An expense is created through the service
+    var dto = new OperationRequestDto();
+    dto.setDate(LocalDate.now());
+    dto.setValue(BigDecimal.valueOf(30));
+    dto.setIsPlanned(false);
+    dto.setCategoryId(foodCategory.getId());
+    mockMvc.perform(post(apiBaseUrl + "/expenses")
+            .header("Authorization", getAuthorizationHeader())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(dto)))
+        .andExpect(status().isOk());
+
+    // Then: The totals match the operations
+    var after = objectMapper.readValue(
+        mockMvc.perform(get(apiBaseUrl + "/savings/category-totals/verification")
+                .header("Authorization", getAuthorizationHeader()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(),
+        CategoryTotalsVerificationDto.class);
+    assertThat(after.getDriftedTotals()).isZero();
+    assertThat(after.getCheckedTotals()).isEqualTo(before.getCheckedTotals());
+  }
 }
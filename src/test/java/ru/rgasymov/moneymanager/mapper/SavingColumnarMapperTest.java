@@ -0,0 +1,126 @@
+package ru.rgasymov.moneymanager.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingSearchResultDto;
+import ru.rgasymov.moneymanager.domain.enums.Period;
+
+class SavingColumnarMapperTest {
+
+  private final SavingColumnarMapper savingColumnarMapper = new SavingColumnarMapper();
+
+  private final OperationCategoryResponseDto salary = category(1L, "Salary");
+  private final OperationCategoryResponseDto bonus = category(2L, "Bonus");
+  private final OperationCategoryResponseDto food = category(5L, "Food");
+
+  @Test
+  void toColumnar_shouldReferToCategoriesByIndex() {
+    var today = LocalDate.now();
+    var later = SavingResponseDto.builder()
+        .id(2L).date(today).value(BigDecimal.valueOf(500))
+        .expensesSum(BigDecimal.valueOf(30))
+        .incomesByCategory(Map.of())
+        .expensesByCategory(Map.of("Food", List.of(operation(20L, food, true))))
+        .build();
+    var earlier = SavingResponseDto.builder()
+        .id(1L).date(today.minusDays(1)).value(BigDecimal.valueOf(530))
+        .incomesSum(BigDecimal.valueOf(150))
+        .incomesByCategory(Map.of("Bonus", List.of(operation(11L, bonus, false))))
+        .expensesByCategory(Map.of())
+        .build();
+    var searchResult = SavingSearchResultDto.builder()
+        .result(List.of(later, earlier))
+        .totalElements(2L)
+        .incomeCategories(List.of(salary, bonus))
+        .expenseCategories(List.of(food))
+        .build();
+
+    var result = savingColumnarMapper.toColumnar(searchResult, Period.DAY, false);
+
+    assertThat(result.getTotalElements()).isEqualTo(2L);
+    assertThat(result.getIds()).containsExactly(2L, 1L);
+    assertThat(result.getDates()).containsExactly(today, today.minusDays(1));
+    assertThat(result.getValues())
+        .containsExactly(BigDecimal.valueOf(500), BigDecimal.valueOf(530));
+    assertThat(result.getIncomesSum()).containsExactly(BigDecimal.ZERO, BigDecimal.valueOf(150));
+    assertThat(result.getIncomeCategories()).extracting("name").containsExactly("Salary", "Bonus");
+
+    var incomes = result.getIncomes();
+    assertThat(incomes.getSavings()).containsExactly(1);
+    assertThat(incomes.getIds()).containsExactly(11L);
+    assertThat(incomes.getCategories()).containsExactly(1);
+    var expenses = result.getExpenses();
+    assertThat(expenses.getSavings()).containsExactly(0);
+    assertThat(expenses.getCategories()).containsExactly(0);
+    assertThat(expenses.getPlanned()).containsExactly(true);
+    assertThat(result.getIncomesSumByCategory()).isNull();
+  }
+
+  @Test
+  void toColumnar_shouldReferToCategoriesOfSumsByIndex_whenGroupedByMonth() {
+    var month = SavingResponseDto.builder()
+        .id(2L).date(LocalDate.now()).value(BigDecimal.valueOf(500))
+        .period(Period.MONTH)
+        .incomesSumByCategory(Map.of("Salary", BigDecimal.valueOf(100)))
+        .expensesSumByCategory(Map.of("Food", BigDecimal.valueOf(30)))
+        .build();
+    var searchResult = SavingSearchResultDto.builder()
+        .result(List.of(month))
+        .incomeCategories(List.of(bonus, salary))
+        .expenseCategories(List.of(food))
+        .build();
+
+    var result = savingColumnarMapper.toColumnar(searchResult, Period.MONTH, true);
+
+    assertThat(result.getPeriod()).isEqualTo(Period.MONTH);
+    assertThat(result.getIncomesSumByCategory().getSavings()).containsExactly(0);
+    assertThat(result.getIncomesSumByCategory().getCategories()).containsExactly(1);
+    assertThat(result.getIncomesSumByCategory().getSums())
+        .containsExactly(BigDecimal.valueOf(100));
+    assertThat(result.getExpensesSumByCategory().getCategories()).containsExactly(0);
+    assertThat(result.getIncomes()).isNull();
+  }
+
+  @Test
+  void toColumnar_shouldAppendUnlistedCategoryUnchecked() {
+    var removed = category(9L, "Gifts");
+    var saving = SavingResponseDto.builder()
+        .id(1L).date(LocalDate.now()).value(BigDecimal.TEN)
+        .incomesByCategory(Map.of("Gifts", List.of(operation(10L, removed, false))))
+        .expensesByCategory(Map.of())
+        .build();
+    var searchResult = SavingSearchResultDto.builder()
+        .result(List.of(saving))
+        .incomeCategories(List.of(salary))
+        .build();
+
+    var result = savingColumnarMapper.toColumnar(searchResult, Period.DAY, false);
+
+    assertThat(result.getIncomes().getCategories()).containsExactly(1);
+    assertThat(result.getIncomeCategories().get(1).getId()).isEqualTo(9L);
+    assertThat(result.getIncomeCategories().get(1).isChecked()).isFalse();
+  }
+
+  private static OperationCategoryResponseDto category(Long id, String name) {
+    return OperationCategoryResponseDto.builder().id(id).name(name).build();
+  }
+
+  private static OperationResponseDto operation(Long id,
+                                                OperationCategoryResponseDto category,
+                                                boolean isPlanned) {
+    return OperationResponseDto.builder()
+        .id(id)
+        .category(category)
+        .value(BigDecimal.ONE)
+        .isPlanned(isPlanned)
+        .build();
+  }
+}
@@ -0,0 +1,82 @@
+package ru.rgasymov.moneymanager.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.rgasymov.moneymanager.domain.SavingOperationRow;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
+import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+
+class SavingRowMapperTest {
+
+  private final SavingRowMapper savingRowMapper = new SavingRowMapper();
+
+  @Test
+  void toDtos_shouldGroupOperationsByCategoryAndKeepSavingsOrder() {
+    var today = LocalDate.now();
+    var later = Saving.builder().id(2L).date(today).value(BigDecimal.valueOf(500)).build();
+    var earlier = Saving.builder().id(1L).date(today.minusDays(1))
+        .value(BigDecimal.valueOf(300)).build();
+    var operations = List.of(
+        new SavingOperationRow(1L, OperationType.INCOME, 10L, 1L, "Salary",
+            today.minusDays(1), null, BigDecimal.valueOf(100), false),
+        new SavingOperationRow(1L, OperationType.INCOME, 11L, 1L, "Salary",
+            today.minusDays(1), "Bonus", BigDecimal.valueOf(50), false),
+        new SavingOperationRow(2L, OperationType.EXPENSE, 20L, 5L, "Food",
+            today, null, BigDecimal.valueOf(30), true));
+
+    var result = savingRowMapper.toDtos(List.of(later, earlier), operations);
+
+    assertThat(result).extracting("id").containsExactly(2L, 1L);
+    var laterDto = result.get(0);
+    assertThat(laterDto.getExpensesSum()).isEqualByComparingTo(BigDecimal.valueOf(30));
+    assertThat(laterDto.getIncomesByCategory()).isEmpty();
+    assertThat(laterDto.isOverdue()).isTrue();
+    assertThat(laterDto.getExpensesByCategory().get("Food"))
+        .extracting(OperationResponseDto::getId)
+        .containsExactly(20L);
+
+    var earlierDto = result.get(1);
+    assertThat(earlierDto.getIncomesSum()).isEqualByComparingTo(BigDecimal.valueOf(150));
+    assertThat(earlierDto.isOverdue()).isFalse();
+    assertThat(earlierDto.getIncomesByCategory().get("Salary"))
+        .extracting(OperationResponseDto::getId)
+        .containsExactly(10L, 11L);
+    assertThat(earlierDto.getIncomesByCategory().get("Salary").get(0).getCategory().getName())
+        .isEqualTo("Salary");
+  }
+
+  @Test
+  void mapping_shouldShareCategoriesOfTheSameTypeAcrossSavings() {
+    var today = LocalDate.now();
+    var first = Saving.builder().id(1L).date(today.minusDays(1))
+        .value(BigDecimal.valueOf(100)).build();
+    var second = Saving.builder().id(2L).date(today).value(BigDecimal.valueOf(70)).build();
+    var mapping = savingRowMapper.newMapping();
+
+    var firstDto = mapping.toDto(first, List.of(
+        new SavingOperationRow(1L, OperationType.INCOME, 10L, 1L, "Salary",
+            today.minusDays(1), null, BigDecimal.valueOf(100), false)));
+    var secondDto = mapping.toDto(second, List.of(
+        new SavingOperationRow(2L, OperationType.INCOME, 11L, 1L, "Salary",
+            today, null, BigDecimal.valueOf(20), false),
+        new SavingOperationRow(2L, OperationType.EXPENSE, 20L, 1L, "Food",
+            today, null, BigDecimal.valueOf(50), true)));
+
+    assertThat(firstDto.getIncomesSum()).isEqualByComparingTo(BigDecimal.valueOf(100));
+    assertThat(firstDto.getExpensesSum()).isEqualByComparingTo(BigDecimal.ZERO);
+    assertThat(firstDto.isOverdue()).isFalse();
+    assertThat(secondDto.getIncomesSum()).isEqualByComparingTo(BigDecimal.valueOf(20));
+    assertThat(secondDto.getExpensesSum()).isEqualByComparingTo(BigDecimal.valueOf(50));
+    assertThat(secondDto.isOverdue()).isTrue();
+    assertThat(secondDto.getIncomesByCategory().get("Salary").get(0).getCategory())
+        .isSameAs(firstDto.getIncomesByCategory().get("Salary").get(0).getCategory());
+    // Income and expense categories are numbered separately
+    assertThat(secondDto.getExpensesByCategory().get("Food").get(0).getCategory().getName())
+        .isEqualTo("Food");
+  }
+}
@@ -24,11 +24,13 @@ import ru.rgasymov.moneymanager.domain.enums.AccountTheme;
 import ru.rgasymov.moneymanager.domain.enums.AuthProviders;
 import ru.rgasymov.moneymanager.mapper.AccountMapper;
 import ru.rgasymov.moneymanager.repository.AccountRepository;
+import ru.rgasymov.moneymanager.repository.CategoryMonthTotalRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseCategoryRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
 import ru.rgasymov.moneymanager.repository.HistoryRepository;
 import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
 import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.repository.SavingCheckpointRepository;
 import ru.rgasymov.moneymanager.repository.SavingRepository;
 import ru.rgasymov.moneymanager.service.expense.ExpenseCategoryService;
 import ru.rgasymov.moneymanager.service.income.IncomeCategoryService;
@@ -49,8 +51,16 @@ class AccountServiceTest {
   @Mock
   private SavingRepository savingRepository;
   @Mock
+  private SavingCheckpointRepository savingCheckpointRepository;
+  @Mock
+  private CategoryMonthTotalRepository categoryMonthTotalRepository;
+  @Mock
   private HistoryRepository historyRepository;
   @Mock
+  private LedgerWriteCoordinator ledgerWriteCoordinator;
+  @Mock
+  private AccountDataVersionService accountDataVersionService;
+  @Mock
   private AccountMapper accountMapper;
   @Mock
   private UserService userService;
@@ -70,7 +80,11 @@ class AccountServiceTest {
         expenseRepository,
         expenseCategoryRepository,
         savingRepository,
+        savingCheckpointRepository,
+        categoryMonthTotalRepository,
         historyRepository,
+        ledgerWriteCoordinator,
+        accountDataVersionService,
         accountMapper,
         userService,
         expenseCategoryService,
@@ -169,10 +183,14 @@ class AccountServiceTest {
 
     accountService.delete(2L);
 
+    verify(ledgerWriteCoordinator).lock(2L);
+    verify(accountDataVersionService).bump(2L);
     verify(expenseRepository).deleteAllByAccountId(2L);
     verify(incomeRepository).deleteAllByAccountId(2L);
     verify(incomeCategoryRepository).deleteAllByAccountId(2L);
     verify(expenseCategoryRepository).deleteAllByAccountId(2L);
+    verify(savingCheckpointRepository).deleteAllByAccountId(2L);
+    verify(categoryMonthTotalRepository).deleteAllByAccountId(2L);
     verify(savingRepository).deleteAllByAccountId(2L);
     verify(historyRepository).deleteAllByAccountId(2L);
     verify(accountRepository).deleteById(2L);
@@ -0,0 +1,112 @@
+package ru.rgasymov.moneymanager.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.rgasymov.moneymanager.domain.entity.Expense;
+import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
+import ru.rgasymov.moneymanager.repository.CategoryMonthTotalRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryMonthTotalServiceTest {
+
+  @Mock
+  private CategoryMonthTotalRepository categoryMonthTotalRepository;
+
+  @Mock
+  private UserService userService;
+
+  @Mock
+  private LedgerWriteCoordinator ledgerWriteCoordinator;
+
+  private CategoryMonthTotalService categoryMonthTotalService;
+
+  @BeforeEach
+  void setUp() {
+    categoryMonthTotalService = new CategoryMonthTotalService(
+        categoryMonthTotalRepository, userService, ledgerWriteCoordinator);
+  }
+
+  @Test
+  void addAll_shouldUpsertOncePerCategoryAndMonth() {
+    var food = ExpenseCategory.builder().id(1L).name("Food").build();
+    var transport = ExpenseCategory.builder().id(2L).name("Transport").build();
+    var expenses = List.of(
+        expense(LocalDate.of(2024, 1, 3), 100, food),
+        expense(LocalDate.of(2024, 1, 28), 50, food),
+        expense(LocalDate.of(2024, 2, 1), 20, food),
+        expense(LocalDate.of(2024, 1, 15), 10, transport));
+
+    categoryMonthTotalService.addAll(1L, OperationType.EXPENSE, expenses,
+        expense -> expense.getCategory().getId());
+
+    verify(categoryMonthTotalRepository).upsert(1L, LocalDate.of(2024, 1, 1), "EXPENSE", 1L,
+        BigDecimal.valueOf(150), 2);
+    verify(categoryMonthTotalRepository).upsert(1L, LocalDate.of(2024, 2, 1), "EXPENSE", 1L,
+        BigDecimal.valueOf(20), 1);
+    verify(categoryMonthTotalRepository).upsert(1L, LocalDate.of(2024, 1, 1), "EXPENSE", 2L,
+        BigDecimal.valueOf(10), 1);
+    verifyNoMoreInteractions(categoryMonthTotalRepository);
+  }
+
+  @Test
+  void replace_shouldChangeOneTotal_whenCategoryAndMonthAreKept() {
+    var food = ExpenseCategory.builder().id(1L).name("Food").build();
+    var oldExpense = expense(LocalDate.of(2024, 1, 3), 100, food);
+    var newExpense = expense(LocalDate.of(2024, 1, 20), 80, food);
+
+    categoryMonthTotalService.replace(OperationType.EXPENSE, 1L, oldExpense, 1L, newExpense);
+
+    verify(categoryMonthTotalRepository).upsert(1L, LocalDate.of(2024, 1, 1), "EXPENSE", 1L,
+        BigDecimal.valueOf(-20), 0);
+    verifyNoMoreInteractions(categoryMonthTotalRepository);
+  }
+
+  @Test
+  void replace_shouldSkipUpsert_whenNothingIsChanged() {
+    var food = ExpenseCategory.builder().id(1L).name("Food").build();
+    var oldExpense = expense(LocalDate.of(2024, 1, 3), 100, food);
+    var newExpense = expense(LocalDate.of(2024, 1, 3), 100, food);
+
+    categoryMonthTotalService.replace(OperationType.EXPENSE, 1L, oldExpense, 1L, newExpense);
+
+    verify(categoryMonthTotalRepository, never())
+        .upsert(any(), any(), any(), any(), any(), anyLong());
+  }
+
+  @Test
+  void replace_shouldMoveOperation_whenMonthIsChanged() {
+    var food = ExpenseCategory.builder().id(1L).name("Food").build();
+    var transport = ExpenseCategory.builder().id(2L).name("Transport").build();
+    var oldExpense = expense(LocalDate.of(2024, 1, 31), 100, food);
+    var newExpense = expense(LocalDate.of(2024, 2, 1), 100, transport);
+
+    categoryMonthTotalService.replace(OperationType.EXPENSE, 1L, oldExpense, 2L, newExpense);
+
+    verify(categoryMonthTotalRepository).upsert(1L, LocalDate.of(2024, 1, 1), "EXPENSE", 1L,
+        BigDecimal.valueOf(-100), -1);
+    verify(categoryMonthTotalRepository).upsert(1L, LocalDate.of(2024, 2, 1), "EXPENSE", 2L,
+        BigDecimal.valueOf(100), 1);
+  }
+
+  private Expense expense(LocalDate date, long value, ExpenseCategory category) {
+    return Expense.builder()
+        .date(date)
+        .value(BigDecimal.valueOf(value))
+        .category(category)
+        .accountId(1L)
+        .build();
+  }
+}
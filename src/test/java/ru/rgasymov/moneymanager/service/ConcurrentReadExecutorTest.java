@@ -0,0 +1,164 @@
+package ru.rgasymov.moneymanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.validation.ValidationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.rgasymov.moneymanager.repository.TransactionSnapshotRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrentReadExecutorTest {
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private TransactionSnapshotRepository transactionSnapshotRepository;
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(null);
+  }
+
+  @Test
+  void submit_shouldRunQueryOnAnotherThreadInReadOnlyTransaction() {
+    var executor = new ConcurrentReadExecutor(
+        transactionManager, transactionSnapshotRepository, true, 2, 2);
+
+    var thread = executor.begin().submit(Thread::currentThread);
+
+    assertThat(thread.get()).isNotSameAs(Thread.currentThread());
+    assertThat(thread.get().isVirtual()).isTrue();
+    verify(transactionManager).getTransaction(any());
+    verify(transactionSnapshotRepository, never()).export();
+  }
+
+  @Test
+  void submit_shouldRunQueryOnCallerThread_whenInReadWriteTransaction() {
+    var executor = new ConcurrentReadExecutor(
+        transactionManager, transactionSnapshotRepository, true, 2, 2);
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+
+    var thread = executor.begin().submit(Thread::currentThread);
+
+    assertThat(thread.get()).isSameAs(Thread.currentThread());
+    verify(transactionManager, never()).getTransaction(any());
+  }
+
+  @Test
+  void submit_shouldRunQueriesConcurrentlyInSnapshotOfCaller_whenInRepeatableReadTransaction() {
+    var executor = new ConcurrentReadExecutor(
+        transactionManager, transactionSnapshotRepository, true, 2, 2);
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(
+        TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    when(transactionSnapshotRepository.export()).thenReturn("00000003-0000001B-1");
+    var reads = executor.begin();
+
+    var first = reads.submit(Thread::currentThread);
+    var second = reads.submit(Thread::currentThread);
+
+    assertThat(first.get()).isNotSameAs(Thread.currentThread());
+    assertThat(second.get()).isNotSameAs(Thread.currentThread());
+    verify(transactionSnapshotRepository).export();
+    verify(transactionSnapshotRepository, times(2)).importSnapshot("00000003-0000001B-1");
+  }
+
+  @Test
+  void submit_shouldNotExportSnapshot_whenNoConnectionIsLeft() {
+    var executor = new ConcurrentReadExecutor(
+        transactionManager, transactionSnapshotRepository, true, 0, 1);
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(
+        TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+    var thread = executor.begin().submit(Thread::currentThread);
+
+    assertThat(thread.get()).isSameAs(Thread.currentThread());
+    verify(transactionSnapshotRepository, never()).export();
+  }
+
+  @Test
+  void submit_shouldRunQueryOnCallerThread_whenInReadCommittedTransaction() {
+    var executor = new ConcurrentReadExecutor(
+        transactionManager, transactionSnapshotRepository, true, 2, 2);
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    var thread = executor.begin().submit(Thread::currentThread);
+
+    assertThat(thread.get()).isSameAs(Thread.currentThread());
+    verify(transactionManager, never()).getTransaction(any());
+  }
+
+  @Test
+  void submit_shouldRunQueryOnCallerThread_whenConnectionsOfRequestAreTaken() {
+    var executor = new ConcurrentReadExecutor(
+        transactionManager, transactionSnapshotRepository, true, 2, 1);
+    var reads = executor.begin();
+    var release = new CountDownLatch(1);
+
+    var blocked = reads.submit(() -> await(release));
+    var thread = reads.submit(Thread::currentThread);
+
+    assertThat(thread.get()).isSameAs(Thread.currentThread());
+    release.countDown();
+    assertThat(blocked.get()).isTrue();
+  }
+
+  @Test
+  void submit_shouldRunQueryOnCallerThread_whenAllConnectionsAreTaken() {
+    var executor = new ConcurrentReadExecutor(
+        transactionManager, transactionSnapshotRepository, true, 1, 1);
+    var release = new CountDownLatch(1);
+
+    var blocked = executor.begin().submit(() -> await(release));
+    var thread = executor.begin().submit(Thread::currentThread);
+
+    assertThat(thread.get()).isSameAs(Thread.currentThread());
+    release.countDown();
+    assertThat(blocked.get()).isTrue();
+  }
+
+  @Test
+  void submit_shouldRethrowFailureOfQuery() {
+    var executor = new ConcurrentReadExecutor(
+        transactionManager, transactionSnapshotRepository, true, 2, 2);
+
+    var result = executor.begin().submit(() -> {
+      throw new ValidationException("Invalid criteria");
+    });
+
+    assertThatThrownBy(result::get)
+        .isInstanceOf(ValidationException.class)
+        .hasMessage("Invalid criteria");
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package ru.rgasymov.moneymanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import ru.rgasymov.moneymanager.domain.FileImportResult;
+import ru.rgasymov.moneymanager.domain.entity.Account;
+import ru.rgasymov.moneymanager.domain.entity.Expense;
+import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
+import ru.rgasymov.moneymanager.domain.entity.Income;
+import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
+import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.domain.entity.User;
+import ru.rgasymov.moneymanager.repository.ExpenseCategoryRepository;
+import ru.rgasymov.moneymanager.repository.ExpenseRepository;
+import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
+import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.repository.SavingRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+  private static final LocalDate JAN = LocalDate.of(2024, 1, 1);
+
+  @Mock
+  private AccountService accountService;
+  @Mock
+  private SavingRepository savingRepository;
+  @Mock
+  private IncomeRepository incomeRepository;
+  @Mock
+  private ExpenseRepository expenseRepository;
+  @Mock
+  private IncomeCategoryRepository incomeCategoryRepository;
+  @Mock
+  private ExpenseCategoryRepository expenseCategoryRepository;
+  @Mock
+  private UserService userService;
+  @Mock
+  private SavingService savingService;
+  @Mock
+  private LedgerWriteCoordinator ledgerWriteCoordinator;
+  @Mock
+  private AccountDataVersionService accountDataVersionService;
+  @Mock
+  private CategoryMonthTotalService categoryMonthTotalService;
+
+  @Captor
+  private ArgumentCaptor<Iterable<Saving>> savingsCaptor;
+
+  private ImportService importService;
+
+  private final IncomeCategory salary = IncomeCategory.builder().name("Salary").build();
+  private final ExpenseCategory food = ExpenseCategory.builder().name("Food").build();
+
+  @BeforeEach
+  void setUp() {
+    importService = new ImportService(accountService, savingRepository, incomeRepository,
+        expenseRepository, incomeCategoryRepository, expenseCategoryRepository, userService,
+        savingService, ledgerWriteCoordinator, accountDataVersionService,
+        categoryMonthTotalService);
+
+    var account = new Account();
+    account.setId(1L);
+    var user = new User();
+    user.setCurrentAccount(account);
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(savingRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+      Iterable<Saving> savings = invocation.getArgument(0);
+      var saved = new ArrayList<Saving>();
+      long id = 1;
+      for (Saving saving : savings) {
+        saving.setId(id++);
+        saved.add(saving);
+      }
+      return saved;
+    });
+  }
+
+  @Test
+  void importFromFile_shouldShiftExistingSavingsAndDeriveNewOnes() {
+    when(accountService.isCurrentAccountEmpty()).thenReturn(false);
+    when(savingRepository.findAll(any(Specification.class))).thenReturn(List.of(
+        saving(10, "100.00", "100.00"),
+        saving(20, "150.00", "50.00")));
+    when(incomeCategoryRepository.findAll(any(Specification.class)))
+        .thenReturn(List.of(salary));
+    when(expenseCategoryRepository.findAll(any(Specification.class)))
+        .thenReturn(List.of(food));
+    when(incomeCategoryRepository.saveAll(anyIterable())).thenReturn(new ArrayList<>());
+    when(expenseCategoryRepository.saveAll(anyIterable())).thenReturn(new ArrayList<>());
+
+    var result = new FileImportResult(
+        new ArrayList<>(List.of(income(25, "1.00"), income(10, "20.00"), income(5, "10.00"))),
+        new ArrayList<>(List.of(expense(25, "1.00"), expense(15, "5.00"))),
+        new HashSet<>(Set.of(salary)),
+        new HashSet<>(Set.of(food)));
+
+    importService.importFromFile(result);
+
+    verify(savingRepository).saveAll(savingsCaptor.capture());
+    assertThat(byDay(savingsCaptor.getValue())).containsExactly(
+        "5: 10.00/10.00",
+        "10: 130.00/120.00",
+        "15: 125.00/-5.00",
+        "20: 175.00/50.00",
+        "25: 175.00/0.00");
+    verify(savingService).rebuildLedger(1L);
+  }
+
+  @Test
+  void importFromFile_shouldStartNewAccountFromPreviousSavings() {
+    when(accountService.isCurrentAccountEmpty()).thenReturn(true);
+    when(incomeCategoryRepository.saveAll(anyIterable())).thenReturn(List.of(salary));
+    when(expenseCategoryRepository.saveAll(anyIterable())).thenReturn(List.of(food));
+
+    var result = new FileImportResult(
+        new ArrayList<>(List.of(income(2, "100.00"))),
+        new ArrayList<>(List.of(expense(2, "30.00"), expense(3, "70.50"))),
+        new HashSet<>(Set.of(salary)),
+        new HashSet<>(Set.of(food)));
+    result.setPreviousSavings(new BigDecimal("1000.00"));
+    result.setPreviousSavingsDate(JAN);
+
+    importService.importFromFile(result);
+
+    verify(savingRepository).saveAll(savingsCaptor.capture());
+    assertThat(byDay(savingsCaptor.getValue())).containsExactly(
+        "1: 1000.00/1000.00",
+        "2: 1070.00/70.00",
+        "3: 999.50/-70.50");
+    verify(accountService).setOpeningBalance(JAN, new BigDecimal("1000.00"));
+  }
+
+  private Saving saving(int day, String value, String delta) {
+    return Saving.builder()
+        .date(JAN.withDayOfMonth(day))
+        .value(new BigDecimal(value))
+        .delta(new BigDecimal(delta))
+        .accountId(1L)
+        .build();
+  }
+
+  private Income income(int day, String value) {
+    return Income.builder()
+        .date(JAN.withDayOfMonth(day))
+        .value(new BigDecimal(value))
+        .category(salary)
+        .build();
+  }
+
+  private Expense expense(int day, String value) {
+    return Expense.builder()
+        .date(JAN.withDayOfMonth(day))
+        .value(new BigDecimal(value))
+        .category(food)
+        .build();
+  }
+
+  private static List<String> byDay(Iterable<Saving> savings) {
+    var list = new ArrayList<Saving>();
+    savings.forEach(list::add);
+    return list.stream()
+        .sorted((a, b) -> a.getDate().compareTo(b.getDate()))
+        .map(s -> s.getDate().getDayOfMonth() + ": " + s.getValue().setScale(2) + "/"
+            + s.getDelta().setScale(2))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,112 @@
+package ru.rgasymov.moneymanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.rgasymov.moneymanager.repository.SavingRepository;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerWriteCoordinatorTest {
+
+  @Mock
+  private SavingRepository savingRepository;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private LedgerWriteCoordinator coordinator;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    coordinator = new LedgerWriteCoordinator(savingRepository, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      completeTransaction();
+    }
+  }
+
+  @Test
+  void lock_shouldThrowException_whenNoTransaction() {
+    assertThatThrownBy(() -> coordinator.lock(1L))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("within a transaction");
+  }
+
+  @Test
+  void lock_shouldTakeAdvisoryLockOncePerTransaction() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    coordinator.lock(1L);
+    coordinator.lock(1L);
+    coordinator.lock(2L);
+
+    verify(savingRepository, times(1)).lockAccount(1L);
+    verify(savingRepository, times(1)).lockAccount(2L);
+    assertThat(meterRegistry.get("saving.ledger.lock.wait").timer().count()).isEqualTo(2);
+  }
+
+  @Test
+  void lock_shouldReleaseAccountAfterTransactionCompletion() throws Exception {
+    TransactionSynchronizationManager.initSynchronization();
+    coordinator.lock(1L);
+    completeTransaction();
+
+    try (var executor = Executors.newSingleThreadExecutor()) {
+      var locked = executor.submit(() -> {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+          coordinator.lock(1L);
+          return true;
+        } finally {
+          TransactionSynchronizationManager.getSynchronizations()
+              .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+          TransactionSynchronizationManager.clearSynchronization();
+        }
+      });
+      assertThat(locked.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+    verify(savingRepository, times(2)).lockAccount(1L);
+  }
+
+  @Test
+  void lock_shouldFailFast_whenAccountIsLockedBySuspendedTransactionOfThread() {
+    TransactionSynchronizationManager.initSynchronization();
+    coordinator.lock(1L);
+    // A nested REQUIRES_NEW transaction suspends the synchronizations of the outer one
+    var outer = TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    TransactionSynchronizationManager.initSynchronization();
+
+    assertThatThrownBy(() -> coordinator.lock(1L))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("suspended transaction");
+    coordinator.lock(2L);
+
+    completeTransaction();
+    TransactionSynchronizationManager.initSynchronization();
+    outer.forEach(TransactionSynchronizationManager::registerSynchronization);
+    verify(savingRepository, times(1)).lockAccount(1L);
+  }
+
+  private void completeTransaction() {
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+}
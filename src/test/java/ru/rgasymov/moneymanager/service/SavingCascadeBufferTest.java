@@ -0,0 +1,161 @@
+package ru.rgasymov.moneymanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.rgasymov.moneymanager.domain.entity.Saving;
+import ru.rgasymov.moneymanager.repository.SavingRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SavingCascadeBufferTest {
+
+  private static final LocalDate FIRST_DATE = LocalDate.of(2024, 3, 10);
+  private static final LocalDate SECOND_DATE = LocalDate.of(2024, 3, 20);
+
+  @Mock
+  private SavingRepository savingRepository;
+
+  @Mock
+  private LedgerWriteCoordinator ledgerWriteCoordinator;
+
+  @Mock
+  private AccountDataVersionService accountDataVersionService;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private SavingCascadeBuffer buffer;
+
+  @BeforeEach
+  void setUp() {
+    buffer = new SavingCascadeBuffer(
+        savingRepository, ledgerWriteCoordinator, accountDataVersionService,
+        transactionManager, true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void record_shouldThrowException_whenNoTransaction() {
+    assertThatThrownBy(() -> buffer.record(1L, FIRST_DATE, BigDecimal.TEN))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void flush_shouldMergeCommittedWritesIntoOneUpdatePerSpan() {
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.record(1L, FIRST_DATE, BigDecimal.valueOf(100));
+    buffer.record(1L, SECOND_DATE, BigDecimal.valueOf(-30));
+    complete(true);
+
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.record(1L, FIRST_DATE, BigDecimal.valueOf(50));
+    complete(true);
+
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.flush(1L);
+    complete(true);
+
+    verify(ledgerWriteCoordinator).lock(1L);
+    verify(accountDataVersionService).bump(1L);
+    verify(savingRepository).increaseValueByDateBetween(
+        BigDecimal.valueOf(150), FIRST_DATE, SECOND_DATE.plusDays(1), 1L);
+    verify(savingRepository).increaseValueByDateGreaterThan(
+        BigDecimal.valueOf(120), SECOND_DATE, 1L);
+    verifyNoMoreInteractions(savingRepository);
+
+    //Nothing is pending after the flush is committed
+    buffer.flushCommitted(1L);
+    verifyNoInteractions(transactionManager);
+  }
+
+  @Test
+  void record_shouldDropIncrements_whenTransactionRolledBack() {
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.record(1L, FIRST_DATE, BigDecimal.valueOf(100));
+    complete(false);
+
+    buffer.flushCommitted(1L);
+
+    verifyNoInteractions(transactionManager, savingRepository);
+  }
+
+  @Test
+  void flush_shouldKeepIncrementsPending_whenFlushRolledBack() {
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.record(1L, FIRST_DATE, BigDecimal.valueOf(100));
+    complete(true);
+
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.flush(1L);
+    complete(false);
+
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.flush(1L);
+    complete(true);
+
+    verify(savingRepository, times(2))
+        .increaseValueByDateGreaterThan(BigDecimal.valueOf(100), FIRST_DATE, 1L);
+  }
+
+  @Test
+  void pendingSincePreviousSaving_shouldSumIncrementsFromDateOfPreviousSaving() {
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.record(1L, FIRST_DATE.minusDays(5), BigDecimal.valueOf(40));
+    buffer.record(1L, FIRST_DATE, BigDecimal.valueOf(100));
+    complete(true);
+
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.record(1L, FIRST_DATE, BigDecimal.valueOf(-30));
+    when(savingRepository.findFirstByDateLessThanAndAccountIdOrderByDateDesc(SECOND_DATE, 1L))
+        .thenReturn(Optional.of(Saving.builder().date(FIRST_DATE).build()));
+
+    var result = buffer.pendingSincePreviousSaving(1L, SECOND_DATE);
+
+    assertThat(result).isEqualByComparingTo("70");
+  }
+
+  @Test
+  void pendingSincePreviousSaving_shouldReturnZero_whenNothingPendingBeforeDate() {
+    TransactionSynchronizationManager.initSynchronization();
+    buffer.record(1L, SECOND_DATE, BigDecimal.valueOf(100));
+
+    var result = buffer.pendingSincePreviousSaving(1L, FIRST_DATE);
+
+    assertThat(result).isEqualByComparingTo("0");
+    verifyNoInteractions(savingRepository);
+  }
+
+  private void complete(boolean committed) {
+    var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    if (committed) {
+      synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+    synchronizations.forEach(sync -> sync.afterCompletion(committed
+        ? TransactionSynchronization.STATUS_COMMITTED
+        : TransactionSynchronization.STATUS_ROLLED_BACK));
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+}
@@ -0,0 +1,68 @@
+package ru.rgasymov.moneymanager.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.rgasymov.moneymanager.domain.dto.request.SavingCriteriaDto;
+import ru.rgasymov.moneymanager.domain.dto.response.LedgerVerificationDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingSearchResultDto;
+import ru.rgasymov.moneymanager.domain.entity.Account;
+import ru.rgasymov.moneymanager.domain.entity.User;
+
+@ExtendWith(MockitoExtension.class)
+class SavingReadServiceTest {
+
+  @Mock
+  private SavingService savingService;
+
+  @Mock
+  private SavingCascadeBuffer savingCascadeBuffer;
+
+  @Mock
+  private UserService userService;
+
+  @InjectMocks
+  private SavingReadService savingReadService;
+
+  @Test
+  void search_shouldFlushDeferredRecalculationsBeforeSearch() {
+    var criteria = new SavingCriteriaDto();
+    var page = SavingSearchResultDto.builder().build();
+    when(userService.getCurrentUser()).thenReturn(createTestUser());
+    when(savingService.search(criteria)).thenReturn(page);
+
+    var result = savingReadService.search(criteria);
+
+    assertThat(result).isSameAs(page);
+    var inOrder = inOrder(savingCascadeBuffer, savingService);
+    inOrder.verify(savingCascadeBuffer).flushCommitted(1L);
+    inOrder.verify(savingService).search(criteria);
+  }
+
+  @Test
+  void verifyLedger_shouldFlushDeferredRecalculationsBeforeVerification() {
+    var verification = new LedgerVerificationDto();
+    when(userService.getCurrentUser()).thenReturn(createTestUser());
+    when(savingService.verifyLedger()).thenReturn(verification);
+
+    var result = savingReadService.verifyLedger();
+
+    assertThat(result).isSameAs(verification);
+    var inOrder = inOrder(savingCascadeBuffer, savingService);
+    inOrder.verify(savingCascadeBuffer).flushCommitted(1L);
+    inOrder.verify(savingService).verifyLedger();
+  }
+
+  private User createTestUser() {
+    return User.builder()
+        .id("user123")
+        .currentAccount(Account.builder().id(1L).build())
+        .build();
+  }
+}
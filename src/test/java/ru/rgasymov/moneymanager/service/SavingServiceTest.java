@@ -4,39 +4,66 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ValidationException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.rgasymov.moneymanager.domain.CategorySnapshot;
+import ru.rgasymov.moneymanager.domain.CheckedCategories;
+import ru.rgasymov.moneymanager.domain.LedgerDrift;
+import ru.rgasymov.moneymanager.domain.SavingBalance;
+import ru.rgasymov.moneymanager.domain.SavingCursor;
+import ru.rgasymov.moneymanager.domain.SavingOperationRow;
+import ru.rgasymov.moneymanager.domain.SavingPeriodTotals;
 import ru.rgasymov.moneymanager.domain.dto.request.SavingCriteriaDto;
+import ru.rgasymov.moneymanager.domain.dto.response.SavingResponseDto;
 import ru.rgasymov.moneymanager.domain.entity.Account;
 import ru.rgasymov.moneymanager.domain.entity.Saving;
 import ru.rgasymov.moneymanager.domain.entity.User;
 import ru.rgasymov.moneymanager.domain.enums.AccountTheme;
 import ru.rgasymov.moneymanager.domain.enums.AuthProviders;
+import ru.rgasymov.moneymanager.domain.enums.LedgerMode;
 import ru.rgasymov.moneymanager.domain.enums.Period;
 import ru.rgasymov.moneymanager.domain.enums.SavingFieldToSort;
+import ru.rgasymov.moneymanager.mapper.SavingColumnarMapper;
 import ru.rgasymov.moneymanager.mapper.SavingGroupMapper;
-import ru.rgasymov.moneymanager.mapper.SavingMapper;
-import ru.rgasymov.moneymanager.repository.ExpenseRepository;
-import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.mapper.SavingRowMapper;
+import ru.rgasymov.moneymanager.repository.SavingCheckpointRepository;
+import ru.rgasymov.moneymanager.repository.SavingPeriodRepository;
+import ru.rgasymov.moneymanager.repository.SavingReadRepository;
+import ru.rgasymov.moneymanager.repository.SavingReadRepository.StreamCriteria;
 import ru.rgasymov.moneymanager.repository.SavingRepository;
+import ru.rgasymov.moneymanager.repository.TransactionSnapshotRepository;
 import ru.rgasymov.moneymanager.service.expense.ExpenseCategoryService;
 import ru.rgasymov.moneymanager.service.income.IncomeCategoryService;
 
@@ -47,13 +74,16 @@ class SavingServiceTest {
   private SavingRepository savingRepository;
 
   @Mock
-  private IncomeRepository incomeRepository;
+  private SavingCheckpointRepository savingCheckpointRepository;
 
   @Mock
-  private ExpenseRepository expenseRepository;
+  private SavingPeriodRepository savingPeriodRepository;
 
   @Mock
-  private SavingMapper savingMapper;
+  private SavingReadRepository savingReadRepository;
+
+  @Mock
+  private SavingRowMapper savingRowMapper;
 
   @Mock
   private SavingGroupMapper savingGroupMapper;
@@ -67,19 +97,36 @@ class SavingServiceTest {
   @Mock
   private ExpenseCategoryService expenseCategoryService;
 
+  @Mock
+  private LedgerWriteCoordinator ledgerWriteCoordinator;
+
+  @Mock
+  private SavingCascadeBuffer savingCascadeBuffer;
+
+  @Mock
+  private AccountDataVersionService accountDataVersionService;
+
   private SavingService savingService;
 
   @BeforeEach
   void setUp() {
     savingService = new SavingService(
         savingRepository,
-        incomeRepository,
-        expenseRepository,
-        savingMapper,
+        savingCheckpointRepository,
+        savingPeriodRepository,
+        savingReadRepository,
+        savingRowMapper,
         savingGroupMapper,
+        new SavingColumnarMapper(),
         userService,
         incomeCategoryService,
-        expenseCategoryService
+        expenseCategoryService,
+        ledgerWriteCoordinator,
+        savingCascadeBuffer,
+        accountDataVersionService,
+        new SavingSearchCache(new SimpleMeterRegistry(), true, 1_000_000, 1_000_000, 60),
+        new ConcurrentReadExecutor(mock(PlatformTransactionManager.class),
+            mock(TransactionSnapshotRepository.class), false, 1, 1)
     );
   }
 
@@ -88,19 +135,116 @@ class SavingServiceTest {
     var user = createTestUser();
     var criteria = createCriteria();
     var saving = Saving.builder().id(1L).date(LocalDate.now()).value(BigDecimal.valueOf(1000)).build();
-    var page = new PageImpl<>(List.of(saving), PageRequest.of(0, 10), 1);
 
     when(userService.getCurrentUser()).thenReturn(user);
-    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any())).thenReturn(List.of());
-    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any())).thenReturn(List.of());
-    when(savingRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(page);
-    when(savingMapper.toDtos(any())).thenReturn(List.of());
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    var query = stubPage(List.of(saving), 1);
+    when(savingRowMapper.toDtos(any(), any())).thenReturn(List.of());
 
     var result = savingService.search(criteria);
 
     assertThat(result).isNotNull();
     assertThat(result.getTotalElements()).isEqualTo(1);
-    verify(savingRepository).findAll(any(Specification.class), any(PageRequest.class));
+    verify(query).slice(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "date")));
+    verify(savingRowMapper).toDtos(List.of(saving), List.of());
+  }
+
+  @Test
+  void search_shouldReuseCachedPage_whenDataNotChanged() {
+    var user = createTestUser();
+    var saving = Saving.builder().id(1L).date(LocalDate.now()).value(BigDecimal.TEN).build();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    stubPage(List.of(saving), 1);
+    when(savingRowMapper.toDtos(any(), any())).thenReturn(List.of());
+
+    var first = createCriteria();
+    first.setIncomeCategoryIds(List.of(2L, 1L));
+    first.setSearchText("Food ");
+    var second = createCriteria();
+    second.setIncomeCategoryIds(List.of(1L, 2L));
+    second.setSearchText("food");
+    savingService.search(first);
+    var result = savingService.search(second);
+
+    assertThat(result.getTotalElements()).isEqualTo(1);
+    verify(savingRepository, times(1)).findBy(any(Specification.class), any(Function.class));
+    verify(savingReadRepository, times(1)).findOperations(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void search_shouldNotReuseCachedPage_whenDataChanged() {
+    var user = createTestUser();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    stubPage(List.of(), 0);
+    when(savingRowMapper.toDtos(any(), any())).thenReturn(List.of());
+    when(accountDataVersionService.getVersion(1L)).thenReturn(1L, 2L);
+
+    savingService.search(createCriteria());
+    savingService.search(createCriteria());
+
+    verify(savingRepository, times(2)).findBy(any(Specification.class), any(Function.class));
+  }
+
+  @Test
+  void search_shouldNotCachePage_whenHeavierThanPageBound() {
+    var user = createTestUser();
+    var cache = ReflectionTestUtils.getField(savingService, "savingSearchCache");
+    ReflectionTestUtils.setField(cache, "maxPageWeight", 0L);
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    stubPage(List.of(), 0);
+    when(savingRowMapper.toDtos(any(), any())).thenReturn(List.of());
+
+    savingService.search(createCriteria());
+    savingService.search(createCriteria());
+
+    verify(savingRepository, times(2)).findBy(any(Specification.class), any(Function.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void search_shouldReturnNextCursorWithoutCount_whenKeyset() {
+    var user = createTestUser();
+    var criteria = createCriteria();
+    criteria.setAfter("");
+    criteria.setPageSize(1);
+    var first = Saving.builder().id(1L).date(LocalDate.now().minusDays(1)).build();
+    var second = Saving.builder().id(2L).date(LocalDate.now()).build();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(savingRepository.findBy(any(Specification.class), any(Function.class)))
+        .thenReturn(List.of(first, second));
+    when(savingRowMapper.toDtos(any(), any())).thenReturn(List.of());
+
+    var result = savingService.search(criteria);
+
+    assertThat(result.getTotalElements()).isNull();
+    assertThat(SavingCursor.decode(result.getNextCursor(), SavingFieldToSort.DATE))
+        .isEqualTo(new SavingCursor(SavingFieldToSort.DATE, first.getDate(), null, 1L));
+    verify(savingRowMapper).toDtos(List.of(first), List.of());
+    verify(savingRepository, never()).count(any(Specification.class));
+    verify(savingRepository, never()).findAll(any(Specification.class), any(PageRequest.class));
   }
 
   @Test
@@ -108,19 +252,69 @@ class SavingServiceTest {
     var user = createTestUser();
     var criteria = createCriteria();
     criteria.setGroupBy(Period.MONTH);
-    var saving = Saving.builder().id(1L).date(LocalDate.now()).value(BigDecimal.valueOf(1000)).build();
-    var page = new PageImpl<>(List.of(saving), PageRequest.of(0, 10), 1);
+    var totals = new SavingPeriodTotals(LocalDate.now().withDayOfMonth(1), 1L, LocalDate.now(),
+        BigDecimal.valueOf(1000), Map.of(), Map.of(), List.of(1L));
+    var page = new PageImpl<>(List.of(totals), PageRequest.of(0, 10), 1);
 
     when(userService.getCurrentUser()).thenReturn(user);
-    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any())).thenReturn(List.of());
-    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any())).thenReturn(List.of());
-    when(savingRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(page);
-    when(savingGroupMapper.toGroupDtos(any(), eq(Period.MONTH))).thenReturn(List.of());
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(savingPeriodRepository.findPeriodTotals(any())).thenReturn(page);
+    when(savingReadRepository.findOperations(1L, List.of(1L), List.of(), List.of(), null))
+        .thenReturn(List.of());
+    when(savingGroupMapper.toGroupDtos(List.of(totals), Period.MONTH, false, List.of()))
+        .thenReturn(List.of());
 
     var result = savingService.search(criteria);
 
-    assertThat(result).isNotNull();
-    verify(savingGroupMapper).toGroupDtos(any(), eq(Period.MONTH));
+    assertThat(result.getTotalElements()).isEqualTo(1);
+    verify(savingGroupMapper).toGroupDtos(List.of(totals), Period.MONTH, false, List.of());
+    verify(savingRepository, never()).findAll(any(Specification.class), any(PageRequest.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void stream_shouldPassEverySavingToConsumer() {
+    var user = createTestUser();
+    var criteria = createCriteria();
+    var first = Saving.builder().id(1L).date(LocalDate.now().minusDays(1)).build();
+    var second = Saving.builder().id(2L).date(LocalDate.now()).build();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    doAnswer(invocation -> {
+      BiConsumer<Saving, List<SavingOperationRow>> consumer = invocation.getArgument(1);
+      consumer.accept(first, List.of());
+      consumer.accept(second, List.of());
+      return null;
+    }).when(savingReadRepository).streamSavings(any(), any());
+    when(savingRowMapper.newMapping()).thenReturn(new SavingRowMapper().newMapping());
+
+    var streamed = new ArrayList<SavingResponseDto>();
+    savingService.stream(criteria, streamed::add);
+
+    assertThat(streamed).extracting(SavingResponseDto::getId).containsExactly(1L, 2L);
+    var streamCriteria = ArgumentCaptor.forClass(StreamCriteria.class);
+    verify(savingReadRepository).streamSavings(streamCriteria.capture(), any());
+    assertThat(streamCriteria.getValue().accountId()).isEqualTo(1L);
+    assertThat(streamCriteria.getValue().hasOperationFilters()).isFalse();
+    verify(savingRepository, never()).findAll(any(Specification.class), any(PageRequest.class));
+  }
+
+  @Test
+  void stream_shouldThrowException_whenNotDay() {
+    var criteria = createCriteria();
+    criteria.setGroupBy(Period.MONTH);
+
+    assertThatThrownBy(() -> savingService.stream(criteria, saving -> {
+    }))
+        .isInstanceOf(ValidationException.class);
+    verify(savingReadRepository, never()).streamSavings(any(), any());
   }
 
   @Test
@@ -151,50 +345,245 @@ class SavingServiceTest {
   }
 
   @Test
-  void increase_shouldIncreaseSavingValue() {
+  void increase_shouldUpsertSavingAndShiftLaterSavings() {
+    var user = createTestUser();
+    var date = LocalDate.now();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(savingRepository.upsertDay(
+        1L, date, BigDecimal.valueOf(500), true, BigDecimal.ZERO)).thenReturn(7L);
+
+    var result = savingService.increase(BigDecimal.valueOf(500), date);
+
+    assertThat(result).isEqualTo(7L);
+    var inOrder = inOrder(ledgerWriteCoordinator, savingRepository);
+    inOrder.verify(ledgerWriteCoordinator).lock(1L);
+    inOrder.verify(savingRepository).upsertDay(
+        1L, date, BigDecimal.valueOf(500), true, BigDecimal.ZERO);
+    verify(savingRepository).increaseValueByDateGreaterThan(BigDecimal.valueOf(500), date, 1L);
+    verify(savingRepository, never()).findByDateAndAccountId(any(), anyLong());
+    verify(savingRepository, never()).save(any(Saving.class));
+  }
+
+  @Test
+  void decrease_shouldUpsertSavingWithNegatedValue() {
+    var user = createTestUser();
+    var date = LocalDate.now();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(savingRepository.upsertDay(
+        1L, date, BigDecimal.valueOf(-300), true, BigDecimal.ZERO)).thenReturn(7L);
+
+    var result = savingService.decrease(BigDecimal.valueOf(300), date);
+
+    assertThat(result).isEqualTo(7L);
+    verify(savingRepository).increaseValueByDateGreaterThan(BigDecimal.valueOf(-300), date, 1L);
+  }
+
+  @Test
+  void decrease_shouldShiftCheckpointsFromMonthOfDate() {
+    var user = createTestUser();
+    var date = LocalDate.of(2024, 2, 10);
+    var closingDate = LocalDate.of(2024, 2, 29);
+
+    when(userService.getCurrentUser()).thenReturn(user);
+
+    savingService.decrease(BigDecimal.valueOf(300), date);
+
+    verify(savingCheckpointRepository).ensureExists(1L, closingDate);
+    verify(savingCheckpointRepository).increaseBalanceByClosingDateGreaterThanEqual(
+        BigDecimal.valueOf(-300), closingDate, 1L);
+  }
+
+  @Test
+  void increase_shouldNotRecalculateOtherSavings_whenDeltaMode() {
+    ReflectionTestUtils.setField(savingService, "ledgerMode", LedgerMode.DELTA);
     var user = createTestUser();
     var date = LocalDate.now();
-    var saving = Saving.builder().id(1L).date(date).value(BigDecimal.valueOf(1000)).accountId(1L).build();
 
     when(userService.getCurrentUser()).thenReturn(user);
-    when(savingRepository.findByDateAndAccountId(date, 1L)).thenReturn(Optional.of(saving));
 
     savingService.increase(BigDecimal.valueOf(500), date);
 
-    assertThat(saving.getValue()).isEqualByComparingTo(BigDecimal.valueOf(1500));
-    verify(savingRepository).save(saving);
+    verify(savingRepository).upsertDay(1L, date, BigDecimal.valueOf(500), false, BigDecimal.ZERO);
+    verify(savingRepository, never()).increaseValueByDateGreaterThan(any(), any(), anyLong());
   }
 
   @Test
-  void increase_shouldCreateNewSaving_whenNotExists() {
+  void increase_shouldDeferRecalculation_whenWriteBehindEnabled() {
     var user = createTestUser();
     var date = LocalDate.now();
-    var previousDate = date.minusDays(1);
-    var previousSaving = Saving.builder().id(1L).date(previousDate).value(BigDecimal.valueOf(1000)).accountId(1L).build();
 
     when(userService.getCurrentUser()).thenReturn(user);
-    when(savingRepository.findByDateAndAccountId(date, 1L)).thenReturn(Optional.empty());
-    when(savingRepository.findFirstByDateLessThanAndAccountIdOrderByDateDesc(date, 1L))
-        .thenReturn(Optional.of(previousSaving));
+    when(savingCascadeBuffer.isEnabled()).thenReturn(true);
+    when(savingCascadeBuffer.pendingSincePreviousSaving(1L, date)).thenReturn(BigDecimal.ZERO);
 
     savingService.increase(BigDecimal.valueOf(500), date);
 
-    verify(savingRepository).save(any(Saving.class));
+    verify(savingRepository).upsertDay(1L, date, BigDecimal.valueOf(500), true, BigDecimal.ZERO);
+    verify(savingCascadeBuffer).record(1L, date, BigDecimal.valueOf(500));
+    verify(savingCascadeBuffer, never()).flush(anyLong());
+    verify(savingRepository, never()).increaseValueByDateGreaterThan(any(), any(), anyLong());
   }
 
   @Test
-  void decrease_shouldDecreaseSavingValue() {
+  void increase_shouldCarryPreviousValueWithoutPendingIncrements_whenWriteBehindEnabled() {
     var user = createTestUser();
     var date = LocalDate.now();
-    var saving = Saving.builder().id(1L).date(date).value(BigDecimal.valueOf(1000)).accountId(1L).build();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(savingCascadeBuffer.isEnabled()).thenReturn(true);
+    when(savingCascadeBuffer.pendingSincePreviousSaving(1L, date))
+        .thenReturn(BigDecimal.valueOf(70));
+
+    savingService.increase(BigDecimal.valueOf(500), date);
+
+    verify(savingRepository).upsertDay(
+        1L, date, BigDecimal.valueOf(500), true, BigDecimal.valueOf(70));
+    verify(savingCascadeBuffer, never()).flush(anyLong());
+  }
+
+  @Test
+  void search_shouldDeriveBalances_whenDeltaMode() {
+    ReflectionTestUtils.setField(savingService, "ledgerMode", LedgerMode.DELTA);
+    var user = createTestUser();
+    var criteria = createCriteria();
+    var first = Saving.builder().id(1L).date(LocalDate.now().minusDays(2))
+        .value(BigDecimal.ZERO).build();
+    var second = Saving.builder().id(2L).date(LocalDate.now())
+        .value(BigDecimal.ZERO).build();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    stubPage(List.of(second, first), 2);
+    when(savingRepository.findBalances(1L, first.getDate(), second.getDate())).thenReturn(List.of(
+        balance(1L, BigDecimal.valueOf(100)),
+        balance(2L, BigDecimal.valueOf(250))));
+    when(savingRowMapper.toDtos(any(), any())).thenReturn(List.of());
+
+    savingService.search(criteria);
+
+    assertThat(first.getValue()).isEqualByComparingTo(BigDecimal.valueOf(100));
+    assertThat(second.getValue()).isEqualByComparingTo(BigDecimal.valueOf(250));
+  }
+
+  @Test
+  void search_shouldSortByDerivedBalanceWithFilters_whenDeltaMode() {
+    ReflectionTestUtils.setField(savingService, "ledgerMode", LedgerMode.DELTA);
+    var user = createTestUser();
+    var criteria = createCriteria();
+    criteria.setSortBy(SavingFieldToSort.SAVING_VALUE);
+    criteria.setSearchText("food");
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(incomeCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    when(expenseCategoryService.findAllAndSetChecked(anyLong(), any()))
+        .thenReturn(noCategories());
+    var query = stubPage(List.of(), 0);
+    when(savingRowMapper.toDtos(any(), any())).thenReturn(List.of());
+
+    var result = savingService.search(criteria);
+
+    assertThat(result.getResult()).isEmpty();
+    verify(query).slice(PageRequest.of(criteria.getPageNum(), criteria.getPageSize()));
+    verify(savingReadRepository).findOperations(1L, List.of(),
+        criteria.getIncomeCategoryIds(), criteria.getExpenseCategoryIds(), "food");
+  }
+
+  @Test
+  void findByDate_shouldDeriveBalance_whenDeltaMode() {
+    ReflectionTestUtils.setField(savingService, "ledgerMode", LedgerMode.DELTA);
+    var user = createTestUser();
+    var date = LocalDate.now();
+    var saving = Saving.builder().id(1L).date(date).value(BigDecimal.ZERO).build();
 
     when(userService.getCurrentUser()).thenReturn(user);
     when(savingRepository.findByDateAndAccountId(date, 1L)).thenReturn(Optional.of(saving));
+    when(savingRepository.findBalanceByDate(1L, date))
+        .thenReturn(BigDecimal.valueOf(1200));
 
-    savingService.decrease(BigDecimal.valueOf(300), date);
+    var result = savingService.findByDate(date);
+
+    assertThat(result.getValue()).isEqualByComparingTo(BigDecimal.valueOf(1200));
+  }
+
+  @Test
+  void applyDeltas_shouldUpdateChangedDaysAndShiftSpansBetweenThem() {
+    var user = createTestUser();
+    var first = LocalDate.of(2024, 3, 1);
+    var second = LocalDate.of(2024, 3, 5);
+    var existing = Saving.builder().id(10L).date(second).value(BigDecimal.valueOf(1000))
+        .delta(BigDecimal.valueOf(50)).accountId(1L).build();
+    var deltas = new TreeMap<LocalDate, BigDecimal>();
+    deltas.put(first, BigDecimal.valueOf(100));
+    deltas.put(second, BigDecimal.valueOf(-30));
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(savingRepository.findAllByAccountIdAndDateBetweenOrderByDate(1L, first, second))
+        .thenReturn(List.of(existing));
+    when(savingRepository.findFirstByDateLessThanAndAccountIdOrderByDateDesc(first, 1L))
+        .thenReturn(Optional.of(Saving.builder().value(BigDecimal.valueOf(900)).build()));
+    when(savingRepository.saveAll(any())).thenAnswer(invocation -> {
+      List<Saving> savings = invocation.getArgument(0);
+      savings.forEach(saving -> {
+        if (saving.getId() == null) {
+          saving.setId(11L);
+        }
+      });
+      return savings;
+    });
+
+    var result = savingService.applyDeltas(deltas);
+
+    assertThat(result).containsEntry(first, 11L).containsEntry(second, 10L);
+    assertThat(existing.getValue()).isEqualByComparingTo(BigDecimal.valueOf(1070));
+    assertThat(existing.getDelta()).isEqualByComparingTo(BigDecimal.valueOf(20));
+    verify(savingRepository).increaseValueByDateBetween(BigDecimal.valueOf(100), first, second, 1L);
+    verify(savingRepository).increaseValueByDateGreaterThan(BigDecimal.valueOf(70), second, 1L);
+    verify(savingCheckpointRepository).increaseBalanceByClosingDateGreaterThanEqual(
+        BigDecimal.valueOf(70), LocalDate.of(2024, 3, 31), 1L);
+  }
+
+  @Test
+  void rebuildLedger_shouldReportDriftAndRecreateCheckpoints() {
+    var drift = mock(LedgerDrift.class);
+    when(drift.getCheckedSavings()).thenReturn(10L);
+    when(drift.getDeltaDrifts()).thenReturn(1L);
+    when(drift.getValueDrifts()).thenReturn(4L);
+    when(drift.getMaxValueDrift()).thenReturn(BigDecimal.valueOf(25));
+    when(savingRepository.verifyLedger(1L)).thenReturn(drift);
+    when(savingRepository.rebuildLedger(1L)).thenReturn(4);
+
+    var result = savingService.rebuildLedger(1L);
+
+    assertThat(result.getValueDrifts()).isEqualTo(4);
+    assertThat(result.getDeltaDrifts()).isEqualTo(1);
+    assertThat(result.getRebuiltSavings()).isEqualTo(4);
+    verify(accountDataVersionService).bump(1L);
+    verify(savingCheckpointRepository).deleteAllByAccountId(1L);
+    verify(savingCheckpointRepository).insertFromSavings(1L);
+  }
+
+  @Test
+  void verifyLedger_shouldIgnoreValueDrift_whenDeltaMode() {
+    ReflectionTestUtils.setField(savingService, "ledgerMode", LedgerMode.DELTA);
+    var user = createTestUser();
+    var drift = mock(LedgerDrift.class);
+    when(drift.getCheckedSavings()).thenReturn(10L);
+    when(drift.getDeltaDrifts()).thenReturn(0L);
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(savingRepository.verifyLedger(1L)).thenReturn(drift);
+
+    var result = savingService.verifyLedger();
 
-    assertThat(saving.getValue()).isEqualByComparingTo(BigDecimal.valueOf(700));
-    verify(savingRepository).save(saving);
+    assertThat(result.getValueDrifts()).isZero();
+    assertThat(result.getMode()).isEqualTo(LedgerMode.DELTA);
+    assertThat(result.getRebuiltSavings()).isNull();
   }
 
   @Test
@@ -214,6 +603,64 @@ class SavingServiceTest {
     verify(savingRepository, times(1)).delete(saving);
   }
 
+  @Test
+  void updateAfterDeletionOperation_shouldNotDeleteSaving_whenHasOpeningBalance() {
+    var user = createTestUser();
+    var date = LocalDate.now();
+    var saving = Saving.builder().id(1L).date(date).value(BigDecimal.valueOf(1000))
+        .delta(BigDecimal.valueOf(1000))
+        .incomes(List.of())
+        .expenses(List.of())
+        .build();
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(savingRepository.findByDateAndAccountId(date, 1L)).thenReturn(Optional.of(saving));
+
+    savingService.updateAfterDeletionOperation(date);
+
+    verify(savingRepository, never()).delete((Saving) any());
+  }
+
+  @Test
+  void move_shouldShiftOnlySavingsBetweenDates_whenMovedForward() {
+    var user = createTestUser();
+    var from = LocalDate.of(2024, 3, 1);
+    var to = LocalDate.of(2024, 3, 10);
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(savingRepository.upsertDay(
+        1L, to, BigDecimal.valueOf(-100), true, BigDecimal.ZERO)).thenReturn(9L);
+
+    var result = savingService.move(from, BigDecimal.valueOf(-100), to, BigDecimal.valueOf(-100));
+
+    assertThat(result).isEqualTo(9L);
+    var inOrder = inOrder(savingRepository);
+    inOrder.verify(savingRepository).increaseValueByDateBetween(
+        BigDecimal.valueOf(100), from, to.plusDays(1), 1L);
+    inOrder.verify(savingRepository).upsertDay(
+        1L, from, BigDecimal.valueOf(100), true, BigDecimal.ZERO);
+    inOrder.verify(savingRepository).upsertDay(
+        1L, to, BigDecimal.valueOf(-100), true, BigDecimal.ZERO);
+    verify(savingRepository, never()).increaseValueByDateGreaterThan(any(), any(), anyLong());
+  }
+
+  @Test
+  void move_shouldShiftTail_whenMovedBackwardWithNewValue() {
+    var user = createTestUser();
+    var from = LocalDate.of(2024, 3, 10);
+    var to = LocalDate.of(2024, 3, 1);
+
+    when(userService.getCurrentUser()).thenReturn(user);
+
+    savingService.move(from, BigDecimal.valueOf(200), to, BigDecimal.valueOf(250));
+
+    verify(savingRepository).increaseValueByDateBetween(
+        BigDecimal.valueOf(250), to, from.plusDays(1), 1L);
+    verify(savingRepository).upsertDay(1L, from, BigDecimal.valueOf(-200), true, BigDecimal.ZERO);
+    verify(savingRepository).upsertDay(1L, to, BigDecimal.valueOf(250), true, BigDecimal.ZERO);
+    verify(savingRepository).increaseValueByDateGreaterThan(BigDecimal.valueOf(50), from, 1L);
+  }
+
   @Test
   void updateAfterDeletionOperation_shouldNotDeleteSaving_whenHasOperations() {
     var user = createTestUser();
@@ -235,6 +682,36 @@ class SavingServiceTest {
     verify(savingRepository, never()).delete((Saving) any());
   }
 
+  private SavingBalance balance(Long id, BigDecimal value) {
+    return new SavingBalance() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public BigDecimal getBalance() {
+        return value;
+      }
+    };
+  }
+
+  private static CheckedCategories noCategories() {
+    return CategorySnapshot.of(List.of()).withChecked(List.of());
+  }
+
+  @SuppressWarnings("unchecked")
+  private FetchableFluentQuery<Saving> stubPage(List<Saving> content, long total) {
+    FetchableFluentQuery<Saving> query = mock(FetchableFluentQuery.class);
+    when(query.slice(any())).thenReturn(new SliceImpl<>(content));
+    when(savingRepository.findBy(any(Specification.class), any(Function.class)))
+        .thenAnswer(invocation -> invocation
+            .<Function<FetchableFluentQuery<Saving>, ?>>getArgument(1)
+            .apply(query));
+    when(savingRepository.count(any(Specification.class))).thenReturn(total);
+    return query;
+  }
+
   private User createTestUser() {
     var account = Account.builder()
         .id(1L)
@@ -25,6 +25,7 @@ import ru.rgasymov.moneymanager.domain.enums.AuthProviders;
 import ru.rgasymov.moneymanager.mapper.ExpenseCategoryMapper;
 import ru.rgasymov.moneymanager.repository.ExpenseCategoryRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
+import ru.rgasymov.moneymanager.service.AccountDataVersionService;
 import ru.rgasymov.moneymanager.service.UserService;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +46,9 @@ class ExpenseCategoryServiceTest {
   @Mock
   private CacheManager cacheManager;
 
+  @Mock
+  private AccountDataVersionService accountDataVersionService;
+
   @Mock
   private Cache cache;
 
@@ -57,7 +61,8 @@ class ExpenseCategoryServiceTest {
         expenseRepository,
         expenseCategoryMapper,
         userService,
-        cacheManager
+        cacheManager,
+        accountDataVersionService
     );
   }
 
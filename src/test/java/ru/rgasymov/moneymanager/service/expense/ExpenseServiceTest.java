@@ -1,27 +1,38 @@
 package ru.rgasymov.moneymanager.service.expense;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
+import ru.rgasymov.moneymanager.domain.dto.response.OperationResponseDto;
 import ru.rgasymov.moneymanager.domain.entity.Account;
 import ru.rgasymov.moneymanager.domain.entity.Expense;
 import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
-import ru.rgasymov.moneymanager.domain.entity.Saving;
 import ru.rgasymov.moneymanager.domain.entity.User;
 import ru.rgasymov.moneymanager.domain.enums.AccountTheme;
 import ru.rgasymov.moneymanager.domain.enums.AuthProviders;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
 import ru.rgasymov.moneymanager.mapper.ExpenseMapper;
 import ru.rgasymov.moneymanager.repository.ExpenseCategoryRepository;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
+import ru.rgasymov.moneymanager.service.AccountDataVersionService;
+import ru.rgasymov.moneymanager.service.CategoryMonthTotalService;
 import ru.rgasymov.moneymanager.service.HistoryService;
 import ru.rgasymov.moneymanager.service.SavingService;
 import ru.rgasymov.moneymanager.service.UserService;
@@ -47,6 +58,12 @@ class ExpenseServiceTest {
   @Mock
   private HistoryService historyService;
 
+  @Mock
+  private AccountDataVersionService accountDataVersionService;
+
+  @Mock
+  private CategoryMonthTotalService categoryMonthTotalService;
+
   private ExpenseService expenseService;
 
   @BeforeEach
@@ -57,7 +74,9 @@ class ExpenseServiceTest {
         expenseMapper,
         userService,
         savingService,
-        historyService
+        historyService,
+        accountDataVersionService,
+        categoryMonthTotalService
     );
   }
 
@@ -107,29 +126,106 @@ class ExpenseServiceTest {
   @Test
   void updateSavings_shouldDecreaseSavingsWhenExpenseIncreases() {
     var expense = Expense.builder().id(1L).accountId(1L).build();
-    var saving = Saving.builder().id(1L).value(BigDecimal.valueOf(1000)).build();
     var date = LocalDate.now();
 
-    when(savingService.findByDate(date)).thenReturn(saving);
+    when(savingService.decrease(BigDecimal.valueOf(50), date)).thenReturn(5L);
 
     expenseService.updateSavings(BigDecimal.valueOf(150), BigDecimal.valueOf(100), date, expense);
 
     verify(savingService).decrease(BigDecimal.valueOf(50), date);
-    verify(savingService).findByDate(date);
+    assertThat(expense.getSavingId()).isEqualTo(5L);
   }
 
   @Test
   void updateSavings_shouldIncreaseSavingsWhenExpenseDecreases() {
     var expense = Expense.builder().id(1L).accountId(1L).build();
-    var saving = Saving.builder().id(1L).value(BigDecimal.valueOf(1000)).build();
     var date = LocalDate.now();
 
-    when(savingService.findByDate(date)).thenReturn(saving);
+    when(savingService.increase(BigDecimal.valueOf(20), date)).thenReturn(5L);
 
     expenseService.updateSavings(BigDecimal.valueOf(80), BigDecimal.valueOf(100), date, expense);
 
     verify(savingService).increase(BigDecimal.valueOf(20), date);
-    verify(savingService).findByDate(date);
+    assertThat(expense.getSavingId()).isEqualTo(5L);
+  }
+
+  @Test
+  void createAll_shouldApplyNetDeltasPerDateOnce() {
+    var user = createTestUser();
+    var category = ExpenseCategory.builder().id(1L).name("Food").accountId(1L).build();
+    var date = LocalDate.now();
+    var first = createRequest(date, BigDecimal.valueOf(100));
+    var second = createRequest(date, BigDecimal.valueOf(50));
+    var third = createRequest(date.minusDays(1), BigDecimal.valueOf(20));
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(expenseCategoryRepository.findByIdAndAccountId(1L, 1L))
+        .thenReturn(Optional.of(category));
+    when(savingService.applyDeltas(any()))
+        .thenReturn(Map.of(date, 5L, date.minusDays(1), 4L));
+    when(expenseRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(expenseMapper.toDto(any(Expense.class))).thenReturn(new OperationResponseDto());
+
+    var result = expenseService.createAll(List.of(first, second, third));
+
+    assertThat(result).hasSize(3);
+    var deltas = new TreeMap<LocalDate, BigDecimal>();
+    deltas.put(date.minusDays(1), BigDecimal.valueOf(-20));
+    deltas.put(date, BigDecimal.valueOf(-150));
+    verify(savingService).applyDeltas(deltas);
+    verify(expenseCategoryRepository).findByIdAndAccountId(1L, 1L);
+    verify(historyService).logCreateAll(result, OperationType.EXPENSE);
+    verify(categoryMonthTotalService).addAll(
+        eq(1L), eq(OperationType.EXPENSE), argThat(expenses -> expenses.size() == 3), any());
+  }
+
+  @Test
+  void update_shouldMoveOperationInPlace_whenDateChanges() {
+    var user = createTestUser();
+    var category = ExpenseCategory.builder().id(1L).name("Food").accountId(1L).build();
+    var oldDate = LocalDate.now().minusDays(5);
+    var newDate = LocalDate.now().minusDays(1);
+    var existing = Expense.builder()
+        .id(3L)
+        .date(oldDate)
+        .value(BigDecimal.valueOf(100))
+        .isPlanned(false)
+        .category(category)
+        .accountId(1L)
+        .savingId(4L)
+        .build();
+    var dto = createRequest(newDate, BigDecimal.valueOf(100));
+
+    when(userService.getCurrentUser()).thenReturn(user);
+    when(expenseRepository.findByIdAndAccountId(3L, 1L)).thenReturn(Optional.of(existing));
+    when(expenseCategoryRepository.findByIdAndAccountId(1L, 1L))
+        .thenReturn(Optional.of(category));
+    when(savingService.move(oldDate, BigDecimal.valueOf(-100), newDate, BigDecimal.valueOf(-100)))
+        .thenReturn(5L);
+    when(expenseRepository.saveAndFlush(any(Expense.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(expenseMapper.toDto(any(Expense.class))).thenReturn(new OperationResponseDto());
+
+    expenseService.update(3L, dto);
+
+    verify(expenseRepository).saveAndFlush(argThat(expense ->
+        expense.getId().equals(3L) && expense.getSavingId().equals(5L)
+            && expense.getDate().equals(newDate)));
+    verify(savingService).updateAfterDeletionOperation(oldDate);
+    verify(expenseRepository, never()).deleteByIdAndAccountId(any(), any());
+    verify(savingService, never()).increase(any(), any());
+    verify(categoryMonthTotalService).replace(eq(OperationType.EXPENSE),
+        eq(1L), argThat(expense -> expense.getDate().equals(oldDate)),
+        eq(1L), argThat(expense -> expense.getDate().equals(newDate)));
+  }
+
+  private OperationRequestDto createRequest(LocalDate date, BigDecimal value) {
+    var dto = new OperationRequestDto();
+    dto.setDate(date);
+    dto.setValue(value);
+    dto.setIsPlanned(false);
+    dto.setCategoryId(1L);
+    return dto;
   }
 
   private User createTestUser() {
@@ -2,6 +2,7 @@ package ru.rgasymov.moneymanager.service.income;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -14,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import ru.rgasymov.moneymanager.domain.dto.response.OperationCategoryResponseDto;
@@ -25,6 +27,7 @@ import ru.rgasymov.moneymanager.domain.enums.AuthProviders;
 import ru.rgasymov.moneymanager.mapper.IncomeCategoryMapper;
 import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
 import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.service.AccountDataVersionService;
 import ru.rgasymov.moneymanager.service.UserService;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +48,9 @@ class IncomeCategoryServiceTest {
   @Mock
   private CacheManager cacheManager;
 
+  @Mock
+  private AccountDataVersionService accountDataVersionService;
+
   @Mock
   private Cache cache;
 
@@ -57,7 +63,8 @@ class IncomeCategoryServiceTest {
         incomeRepository,
         incomeCategoryMapper,
         userService,
-        cacheManager
+        cacheManager,
+        accountDataVersionService
     );
   }
 
@@ -99,6 +106,31 @@ class IncomeCategoryServiceTest {
     assertThat(result.get(1).isChecked()).isTrue();
   }
 
+  @Test
+  void findAllAndSetChecked_shouldNotChangeCachedCategories() {
+    var dto1 = new OperationCategoryResponseDto();
+    dto1.setId(1L);
+    var dto2 = new OperationCategoryResponseDto();
+    dto2.setId(2L);
+
+    when(cacheManager.getCache("incomeCategories"))
+        .thenReturn(new ConcurrentMapCache("incomeCategories"));
+    when(incomeCategoryRepository.findAll(any(Specification.class), any(Sort.class)))
+        .thenReturn(List.of());
+    when(incomeCategoryMapper.toDtos(any())).thenReturn(List.of(dto1, dto2));
+
+    var first = service.findAllAndSetChecked(1L, List.of(1L));
+    var second = service.findAllAndSetChecked(1L, List.of(2L));
+    var all = service.findAll(1L);
+
+    assertThat(first.checkedIds()).containsExactly(1L);
+    assertThat(first.get(1).isChecked()).isFalse();
+    assertThat(second.checkedIds()).containsExactly(2L);
+    assertThat(all).allMatch(OperationCategoryResponseDto::isChecked);
+    verify(incomeCategoryRepository, times(1))
+        .findAll(any(Specification.class), any(Sort.class));
+  }
+
   @Test
   void buildNewOperationCategory_shouldCreateCategoryForCurrentAccount() {
     var account = Account.builder().id(5L).name("Test").theme(AccountTheme.LIGHT).currency("EUR").build();
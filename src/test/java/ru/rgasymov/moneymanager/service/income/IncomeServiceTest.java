@@ -15,13 +15,14 @@ import ru.rgasymov.moneymanager.domain.dto.request.OperationRequestDto;
 import ru.rgasymov.moneymanager.domain.entity.Account;
 import ru.rgasymov.moneymanager.domain.entity.Income;
 import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
-import ru.rgasymov.moneymanager.domain.entity.Saving;
 import ru.rgasymov.moneymanager.domain.entity.User;
 import ru.rgasymov.moneymanager.domain.enums.AccountTheme;
 import ru.rgasymov.moneymanager.domain.enums.AuthProviders;
 import ru.rgasymov.moneymanager.mapper.IncomeMapper;
 import ru.rgasymov.moneymanager.repository.IncomeCategoryRepository;
 import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.service.AccountDataVersionService;
+import ru.rgasymov.moneymanager.service.CategoryMonthTotalService;
 import ru.rgasymov.moneymanager.service.HistoryService;
 import ru.rgasymov.moneymanager.service.SavingService;
 import ru.rgasymov.moneymanager.service.UserService;
@@ -47,6 +48,12 @@ class IncomeServiceTest {
   @Mock
   private HistoryService historyService;
 
+  @Mock
+  private AccountDataVersionService accountDataVersionService;
+
+  @Mock
+  private CategoryMonthTotalService categoryMonthTotalService;
+
   private IncomeService incomeService;
 
   @BeforeEach
@@ -57,7 +64,9 @@ class IncomeServiceTest {
         incomeMapper,
         userService,
         savingService,
-        historyService
+        historyService,
+        accountDataVersionService,
+        categoryMonthTotalService
     );
   }
 
@@ -107,29 +116,27 @@ class IncomeServiceTest {
   @Test
   void updateSavings_shouldIncreaseSavingsWhenIncomeIncreases() {
     var income = Income.builder().id(1L).accountId(1L).build();
-    var saving = Saving.builder().id(1L).value(BigDecimal.valueOf(1000)).build();
     var date = LocalDate.now();
 
-    when(savingService.findByDate(date)).thenReturn(saving);
+    when(savingService.increase(BigDecimal.valueOf(1000), date)).thenReturn(5L);
 
     incomeService.updateSavings(BigDecimal.valueOf(6000), BigDecimal.valueOf(5000), date, income);
 
     verify(savingService).increase(BigDecimal.valueOf(1000), date);
-    verify(savingService).findByDate(date);
+    assertThat(income.getSavingId()).isEqualTo(5L);
   }
 
   @Test
   void updateSavings_shouldDecreaseSavingsWhenIncomeDecreases() {
     var income = Income.builder().id(1L).accountId(1L).build();
-    var saving = Saving.builder().id(1L).value(BigDecimal.valueOf(1000)).build();
     var date = LocalDate.now();
 
-    when(savingService.findByDate(date)).thenReturn(saving);
+    when(savingService.decrease(BigDecimal.valueOf(1000), date)).thenReturn(5L);
 
     incomeService.updateSavings(BigDecimal.valueOf(4000), BigDecimal.valueOf(5000), date, income);
 
     verify(savingService).decrease(BigDecimal.valueOf(1000), date);
-    verify(savingService).findByDate(date);
+    assertThat(income.getSavingId()).isEqualTo(5L);
   }
 
   private User createTestUser() {
@@ -2,11 +2,14 @@ package ru.rgasymov.moneymanager.service.report;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,12 +17,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.jpa.domain.Specification;
+import ru.rgasymov.moneymanager.domain.CategoryMonthSum;
 import ru.rgasymov.moneymanager.domain.entity.Expense;
 import ru.rgasymov.moneymanager.domain.entity.ExpenseCategory;
 import ru.rgasymov.moneymanager.domain.entity.Income;
 import ru.rgasymov.moneymanager.domain.entity.IncomeCategory;
+import ru.rgasymov.moneymanager.domain.enums.OperationType;
 import ru.rgasymov.moneymanager.repository.ExpenseRepository;
 import ru.rgasymov.moneymanager.repository.IncomeRepository;
+import ru.rgasymov.moneymanager.service.CategoryMonthTotalService;
 
 @ExtendWith(MockitoExtension.class)
 class ReportGenerationServiceTest {
@@ -30,11 +36,15 @@ class ReportGenerationServiceTest {
   @Mock
   private IncomeRepository incomeRepository;
 
+  @Mock
+  private CategoryMonthTotalService categoryMonthTotalService;
+
   private ReportGenerationService reportGenerationService;
 
   @BeforeEach
   void setUp() {
-    reportGenerationService = new ReportGenerationService(expenseRepository, incomeRepository);
+    reportGenerationService = new ReportGenerationService(
+        expenseRepository, incomeRepository, categoryMonthTotalService);
   }
 
   @Test
@@ -42,24 +52,12 @@ class ReportGenerationServiceTest {
     var startDate = LocalDate.of(2024, 1, 1);
     var endDate = LocalDate.of(2024, 3, 31);
 
-    var incomeCategory = IncomeCategory.builder().id(1L).name("Salary").build();
-    var income = Income.builder()
-        .id(1L)
-        .date(LocalDate.of(2024, 1, 15))
-        .value(BigDecimal.valueOf(5000))
-        .category(incomeCategory)
-        .build();
-
-    var expenseCategory = ExpenseCategory.builder().id(1L).name("Food").build();
-    var expense = Expense.builder()
-        .id(1L)
-        .date(LocalDate.of(2024, 1, 10))
-        .value(BigDecimal.valueOf(100))
-        .category(expenseCategory)
-        .build();
-
-    when(incomeRepository.findAll(any(Specification.class))).thenReturn(List.of(income));
-    when(expenseRepository.findAll(any(Specification.class))).thenReturn(List.of(expense));
+    when(categoryMonthTotalService.findSums(
+        1L, OperationType.INCOME, YearMonth.of(2024, 1), YearMonth.of(2024, 3)))
+        .thenReturn(List.of(sum(LocalDate.of(2024, 1, 1), 1L, "Salary", 5000)));
+    when(categoryMonthTotalService.findSums(
+        1L, OperationType.EXPENSE, YearMonth.of(2024, 1), YearMonth.of(2024, 3)))
+        .thenReturn(List.of(sum(LocalDate.of(2024, 1, 1), 1L, "Food", 100)));
 
     var result = reportGenerationService.generateReport(
         123456L,
@@ -86,8 +84,7 @@ class ReportGenerationServiceTest {
     var startDate = LocalDate.of(2024, 1, 1);
     var endDate = LocalDate.of(2024, 3, 31);
 
-    when(incomeRepository.findAll(any(Specification.class))).thenReturn(List.of());
-    when(expenseRepository.findAll(any(Specification.class))).thenReturn(List.of());
+    when(categoryMonthTotalService.findSums(any(), any(), any(), any())).thenReturn(List.of());
 
     var result = reportGenerationService.generateReport(
         123456L,
@@ -112,25 +109,14 @@ class ReportGenerationServiceTest {
     var startDate = LocalDate.of(2024, 1, 1);
     var endDate = LocalDate.of(2024, 3, 31);
 
-    var incomeCategory1 = IncomeCategory.builder().id(1L).name("Salary").build();
-    var incomeCategory2 = IncomeCategory.builder().id(2L).name("Bonus").build();
-
-    var income1 = Income.builder()
-        .id(1L)
-        .date(LocalDate.of(2024, 1, 15))
-        .value(BigDecimal.valueOf(5000))
-        .category(incomeCategory1)
-        .build();
-
-    var income2 = Income.builder()
-        .id(2L)
-        .date(LocalDate.of(2024, 1, 20))
-        .value(BigDecimal.valueOf(1000))
-        .category(incomeCategory2)
-        .build();
-
-    when(incomeRepository.findAll(any(Specification.class))).thenReturn(List.of(income1));
-    when(expenseRepository.findAll(any(Specification.class))).thenReturn(List.of());
+    when(categoryMonthTotalService.findSums(
+        1L, OperationType.INCOME, YearMonth.of(2024, 1), YearMonth.of(2024, 3)))
+        .thenReturn(List.of(
+            sum(LocalDate.of(2024, 1, 1), 1L, "Salary", 5000),
+            sum(LocalDate.of(2024, 1, 1), 2L, "Bonus", 1000)));
+    when(categoryMonthTotalService.findSums(
+        1L, OperationType.EXPENSE, YearMonth.of(2024, 1), YearMonth.of(2024, 3)))
+        .thenReturn(List.of());
 
     var result = reportGenerationService.generateReport(
         123456L,
@@ -154,24 +140,63 @@ class ReportGenerationServiceTest {
     var startDate = LocalDate.of(2024, 1, 1);
     var endDate = LocalDate.of(2024, 6, 30);
 
-    var category = ExpenseCategory.builder().id(1L).name("Food").build();
+    when(categoryMonthTotalService.findSums(
+        1L, OperationType.INCOME, YearMonth.of(2024, 1), YearMonth.of(2024, 6)))
+        .thenReturn(List.of());
+    when(categoryMonthTotalService.findSums(
+        1L, OperationType.EXPENSE, YearMonth.of(2024, 1), YearMonth.of(2024, 6)))
+        .thenReturn(List.of(
+            sum(LocalDate.of(2024, 1, 1), 1L, "Food", 100),
+            sum(LocalDate.of(2024, 3, 1), 1L, "Food", 200)));
+
+    var result = reportGenerationService.generateReport(
+        123456L,
+        1L,
+        startDate,
+        endDate,
+        null,
+        null
+    );
+
+    assertThat(result).isNotNull();
+
+    // Cleanup
+    result.monthlyChartFile().delete();
+    result.expenseChartFile().delete();
+    result.incomeChartFile().delete();
+  }
+
+  @Test
+  void generateReport_shouldReadOperationsOnlyOfPartialMonths() throws IOException {
+    var startDate = LocalDate.of(2024, 1, 15);
+    var endDate = LocalDate.of(2024, 4, 10);
 
-    var expense1 = Expense.builder()
+    var incomeCategory = IncomeCategory.builder().id(1L).name("Salary").build();
+    var income = Income.builder()
         .id(1L)
-        .date(LocalDate.of(2024, 1, 15))
-        .value(BigDecimal.valueOf(100))
-        .category(category)
+        .date(LocalDate.of(2024, 1, 20))
+        .value(BigDecimal.valueOf(5000))
+        .category(incomeCategory)
         .build();
 
-    var expense2 = Expense.builder()
-        .id(2L)
-        .date(LocalDate.of(2024, 3, 15))
-        .value(BigDecimal.valueOf(200))
-        .category(category)
+    var expenseCategory = ExpenseCategory.builder().id(1L).name("Food").build();
+    var expense = Expense.builder()
+        .id(1L)
+        .date(LocalDate.of(2024, 4, 5))
+        .value(BigDecimal.valueOf(100))
+        .category(expenseCategory)
         .build();
 
-    when(incomeRepository.findAll(any(Specification.class))).thenReturn(List.of());
-    when(expenseRepository.findAll(any(Specification.class))).thenReturn(List.of(expense1, expense2));
+    when(incomeRepository.findAll(any(Specification.class)))
+        .thenReturn(List.of(income), List.of());
+    when(expenseRepository.findAll(any(Specification.class)))
+        .thenReturn(List.of(), List.of(expense));
+    when(categoryMonthTotalService.findSums(
+        1L, OperationType.INCOME, YearMonth.of(2024, 2), YearMonth.of(2024, 3)))
+        .thenReturn(List.of(sum(LocalDate.of(2024, 2, 1), 1L, "Salary", 5000)));
+    when(categoryMonthTotalService.findSums(
+        1L, OperationType.EXPENSE, YearMonth.of(2024, 2), YearMonth.of(2024, 3)))
+        .thenReturn(List.of(sum(LocalDate.of(2024, 3, 1), 1L, "Food", 300)));
 
     var result = reportGenerationService.generateReport(
         123456L,
@@ -183,10 +208,40 @@ class ReportGenerationServiceTest {
     );
 
     assertThat(result).isNotNull();
+    // Average of four months in the range
+    assertThat(result.avgMonthlyIncome()).isEqualByComparingTo("2500.00");
+    assertThat(result.avgMonthlyExpense()).isEqualByComparingTo("100.00");
+    // Operations are loaded for the first and the last month only
+    verify(incomeRepository, times(2)).findAll(any(Specification.class));
+    verify(expenseRepository, times(2)).findAll(any(Specification.class));
 
     // Cleanup
     result.monthlyChartFile().delete();
     result.expenseChartFile().delete();
     result.incomeChartFile().delete();
   }
+
+  private CategoryMonthSum sum(LocalDate month, Long categoryId, String categoryName, long total) {
+    return new CategoryMonthSum() {
+      @Override
+      public LocalDate getMonth() {
+        return month;
+      }
+
+      @Override
+      public Long getCategoryId() {
+        return categoryId;
+      }
+
+      @Override
+      public String getCategoryName() {
+        return categoryName;
+      }
+
+      @Override
+      public BigDecimal getTotal() {
+        return BigDecimal.valueOf(total);
+      }
+    };
+  }
 }
@@ -10,6 +10,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -144,6 +145,37 @@ class XlsxParsingServiceTest {
     assertThat(plannedIncome.getIsPlanned()).isTrue();
   }
 
+  @Test
+  void parse_shouldSkipFilledAndFormulaCells() throws Exception {
+    var file = createTestXlsxFileWithFilledAndFormulaCells();
+
+    var result = xlsxParsingService.parse(file);
+
+    assertThat(result.getIncomes()).hasSize(1);
+    assertThat(result.getIncomes().get(0).getValue())
+        .isEqualByComparingTo(BigDecimal.valueOf(1000.00).setScale(2));
+    assertThat(result.getExpenses()).isEmpty();
+  }
+
+  @Test
+  void parse_shouldTakePreviousSavingsFromOldestSheet() throws Exception {
+    var file = new File(tempDir, "test-oldest-sheet.xlsx");
+    var lastYear = LocalDateTime.now().minusYears(1);
+    try (var workbook = new XSSFWorkbook(); var out = new FileOutputStream(file)) {
+      createSheetWithData(workbook, "2024", LocalDateTime.now());
+      createSheetWithData(workbook, "2023", lastYear);
+      workbook.getSheet("2023").getRow(2).getCell(5).setCellValue(5000.00);
+      workbook.write(out);
+    }
+
+    var result = xlsxParsingService.parse(file);
+
+    assertThat(result.getPreviousSavings())
+        .isEqualByComparingTo(BigDecimal.valueOf(5000.00).setScale(2));
+    assertThat(result.getPreviousSavingsDate())
+        .isEqualTo(LocalDate.of(lastYear.getYear(), 1, 1));
+  }
+
   private File createTestXlsxFile() throws IOException {
     var file = new File(tempDir, "test.xlsx");
     try (var workbook = new XSSFWorkbook(); var out = new FileOutputStream(file)) {
@@ -316,6 +348,27 @@ class XlsxParsingServiceTest {
     dataRow.createCell(3, CellType.NUMERIC).setCellValue(50.00);
   }
 
+  private File createTestXlsxFileWithFilledAndFormulaCells() throws IOException {
+    var file = new File(tempDir, "test-filled-cells.xlsx");
+    try (var workbook = new XSSFWorkbook(); var out = new FileOutputStream(file)) {
+      createSheetWithData(workbook, "2024", LocalDateTime.now());
+      var sheet = workbook.getSheet("2024");
+      var dataRow = sheet.getRow(3);
+
+      // Filled cells are not operations
+      var filledStyle = workbook.createCellStyle();
+      filledStyle.setFillBackgroundColor(IndexedColors.YELLOW.getIndex());
+      dataRow.getCell(3).setCellStyle(filledStyle);
+
+      // Sums are formulas
+      dataRow.createCell(2).setCellFormula("B4");
+      dataRow.createCell(4).setCellFormula("D4");
+
+      workbook.write(out);
+    }
+    return file;
+  }
+
   private File createTestXlsxFileWithEmptyRows() throws IOException {
     var file = new File(tempDir, "test-empty-rows.xlsx");
     try (var workbook = new XSSFWorkbook(); var out = new FileOutputStream(file)) {